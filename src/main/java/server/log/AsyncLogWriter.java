@@ -0,0 +1,170 @@
+package server.log;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *  링 버퍼 + 백그라운드 기록 스레드
+ *  - 요청 스레드는 미리 만들어 둔 칸에 값만 채우고 바로 반환 (잠금, 콘솔/파일 I/O 없음)
+ *  - 버퍼가 가득 차면 기다리지 않고 버림 (버린 개수는 dropped()로 확인)
+ *  - 시간 포맷, 예외 스택 출력, 파일 쓰기는 모두 기록 스레드가 처리
+ * @author user
+ */
+final class AsyncLogWriter implements Runnable {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+
+    /** 버퍼 한 칸 (published == 순번이면 기록 가능) */
+    private static final class Slot {
+        volatile long published = -1;
+        long time;
+        LogLevel level;
+        String thread;
+        String message;
+        Throwable error;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(); // 다음에 쓸 순번
+    private volatile long consumed;                       // 다음에 읽을 순번 (기록 스레드만 변경)
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean console = true;
+    private volatile RollingFile file;
+    private volatile boolean stopping;
+
+    /** capacity는 2의 거듭제곱으로 올림 */
+    AsyncLogWriter(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) slots[i] = new Slot();
+        mask = size - 1;
+        thread = Thread.ofPlatform().name("log-writer").daemon(true).unstarted(this);
+        thread.start();
+    }
+
+    /** 로그 한 건을 버퍼에 넣음 (가득 차면 false) */
+    boolean offer(LogLevel level, String message, Throwable error) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) seq & mask];
+        slot.time = System.currentTimeMillis();
+        slot.level = level;
+        slot.thread = Thread.currentThread().getName();
+        slot.message = message;
+        slot.error = error;
+        slot.published = seq; // volatile 쓰기로 위 값들을 기록 스레드에 공개
+        return true;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    void setConsole(boolean console) {
+        this.console = console;
+    }
+
+    /** 파일 출력 대상 변경 (이전 파일은 기록 스레드가 닫음) */
+    void setFile(RollingFile file) {
+        this.file = file;
+    }
+
+    /** 남은 로그를 모두 기록하고 종료 (최대 timeoutMs 대기) */
+    void shutdown(long timeoutMs) {
+        stopping = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        RollingFile current = null;
+        while (true) {
+            RollingFile target = file;
+            if (target != current) {
+                if (current != null) current.close();
+                current = target;
+            }
+            if (drain(current) > 0) continue;
+            flush(current);
+            if (stopping) {
+                if (current != null) current.close();
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private int drain(RollingFile out) {
+        int n = 0;
+        long seq = consumed;
+        while (true) {
+            Slot slot = slots[(int) seq & mask];
+            if (slot.published != seq) break;
+            write(out, slot);
+            slot.message = null;
+            slot.error = null;
+            slot.thread = null;
+            consumed = ++seq;
+            n++;
+        }
+        return n;
+    }
+
+    private void write(RollingFile out, Slot slot) {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append(TIME.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(slot.time), zone)))
+          .append(' ').append(slot.level);
+        if (slot.level.name().length() == 4) sb.append(' ');
+        sb.append(" [").append(slot.thread).append("] ").append(slot.message).append(System.lineSeparator());
+        if (slot.error != null) {
+            StringWriter trace = new StringWriter();
+            slot.error.printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+        String text = sb.toString();
+        if (console) System.out.print(text);
+        if (out != null) {
+            try {
+                out.write(text);
+            } catch (IOException e) {
+                System.err.println("[log] 로그 파일 쓰기 오류: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flush(RollingFile out) {
+        if (console) System.out.flush();
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("[log] 로그 파일 쓰기 오류: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package server.log;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *  서버 로그 (System.out.println 대신 사용)
+ *  <pre>
+ *  Log.info("HMS 서버 시작");
+ *  Log.error("파일 읽기 오류", ex);
+ *  Log.access(request);   // 요청 로그 (표본 비율 적용)
+ *  </pre>
+ *  - 호출한 스레드는 링 버퍼에 넣기만 하고, 콘솔/파일 출력은 백그라운드 스레드가 담당 (AsyncLogWriter)
+ *  - 설정 전에는 INFO 이상을 콘솔로만 출력, ServerMain이 config.properties 값으로 설정
+ * @author user
+ */
+public final class Log {
+    private static final AsyncLogWriter WRITER = new AsyncLogWriter(8192);
+    private static volatile LogLevel level = LogLevel.INFO;
+    private static volatile int accessSampleRate = 1;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> WRITER.shutdown(2000), "log-shutdown"));
+    }
+
+    private Log() {
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    /** 요청 로그를 n건 중 1건 꼴로만 남김 (1이면 전부) */
+    public static void setAccessSampleRate(int n) {
+        accessSampleRate = Math.max(1, n);
+    }
+
+    public static void setConsole(boolean console) {
+        WRITER.setConsole(console);
+    }
+
+    /** 로그 파일 출력 시작 (maxBytes마다 교체, 최대 maxFiles개 보관) */
+    public static void toFile(String path, long maxBytes, int maxFiles) throws IOException {
+        WRITER.setFile(new RollingFile(path, maxBytes, maxFiles));
+    }
+
+    public static boolean isEnabled(LogLevel l) {
+        return l.compareTo(level) >= 0;
+    }
+
+    public static void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public static void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public static void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public static void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        log(LogLevel.ERROR, message, error);
+    }
+
+    /** 클라이언트 요청 로그 (INFO, 표본 비율 적용) */
+    public static void access(String request) {
+        if (!isEnabled(LogLevel.INFO)) return;
+        int rate = accessSampleRate;
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) return;
+        WRITER.offer(LogLevel.INFO, "클라이언트 요청: " + request, null);
+    }
+
+    /** 버퍼가 가득 차서 버린 로그 수 */
+    public static long dropped() {
+        return WRITER.dropped();
+    }
+
+    private static void log(LogLevel l, String message, Throwable error) {
+        if (isEnabled(l)) WRITER.offer(l, message, error);
+    }
+}
@@ -0,0 +1,19 @@
+package server.log;
+
+/**
+ *  로그 수준 (DEBUG < INFO < WARN < ERROR)
+ * @author user
+ */
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR;
+
+    /** 설정 문자열을 수준으로 변환 (알 수 없으면 기본값) */
+    public static LogLevel parse(String value, LogLevel defaultLevel) {
+        if (value == null) return defaultLevel;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package server.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  크기 기준으로 교체되는 로그 파일 (기록 스레드 전용)
+ *  - server.log 가 maxBytes를 넘으면 server.log.1, server.log.2 ... 로 밀어내고 새 파일 시작
+ *  - 가장 오래된 파일(maxFiles번째)은 삭제
+ * @author user
+ */
+final class RollingFile {
+    private final File file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private Writer writer;
+    private long written;
+
+    RollingFile(String path, long maxBytes, int maxFiles) throws IOException {
+        this.file = new File(path);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        open();
+    }
+
+    void write(String line) throws IOException {
+        if (written >= maxBytes) rotate();
+        writer.write(line);
+        written += line.length(); // 대략적인 크기 (문자 수 기준)
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    void close() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void open() throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 64 * 1024);
+        written = file.length();
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+        String path = file.getPath();
+        new File(path + "." + maxFiles).delete();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File older = new File(path + "." + i);
+            if (older.exists()) older.renameTo(new File(path + "." + (i + 1)));
+        }
+        file.renameTo(new File(path + ".1"));
+        open();
+    }
+}
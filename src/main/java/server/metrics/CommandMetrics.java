@@ -0,0 +1,53 @@
+package server.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  명령어 하나의 처리 통계: 처리 수, 오류 수, 처리 중인 요청 수, 지연시간 분포
+ * @author user
+ */
+public final class CommandMetrics {
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    CommandMetrics(String name) {
+        this.name = name;
+    }
+
+    /** 처리 시작 (반환값을 end에 넘김) */
+    public long begin() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /** 처리 종료 */
+    public void end(long startNanos, boolean error) {
+        latency.recordSince(startNanos);
+        if (error) errors.increment();
+        inFlight.decrementAndGet();
+    }
+
+    /** 처리 전에 거절된 요청 (알 수 없는 명령어 등) */
+    public void error() {
+        errors.increment();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+}
@@ -0,0 +1,99 @@
+package server.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  지연시간 히스토그램 (HDR 방식의 로그-선형 구간, 나노초 단위)
+ *  - 2의 거듭제곱 구간마다 32개의 세부 구간 -> 상대 오차 약 3% 이내
+ *  - 0ns ~ Long.MAX_VALUE 전 범위를 고정 크기 배열(1920칸) 하나로 기록, 기록 시 할당 없음
+ *  - 여러 스레드가 동시에 record 가능 (잠금 없음)
+ * @author user
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /** startNanos(System.nanoTime())부터 지금까지 걸린 시간 기록 */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** 현재까지의 분포를 복사해 백분위 계산에 사용 */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), max.get());
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    // 구간에 들어가는 가장 큰 값
+    static long upperBound(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long sub = index % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /** 히스토그램 복사본 */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public long mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /** p(0~1) 백분위 값 (해당 구간의 상한, 최댓값을 넘지 않음) */
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long target = (long) Math.ceil(p * count);
+            if (target < 1) target = 1;
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+    }
+}
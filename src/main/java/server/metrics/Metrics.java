@@ -0,0 +1,118 @@
+package server.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import server.log.Log;
+
+/**
+ *  서버 성능 지표 (명령어별 처리 통계, 저장소 잠금 대기/파일 I/O 시간)
+ *  <pre>
+ *  CommandMetrics m = Metrics.command("GET_DASHBOARD");   // CommandRegistry가 명령어마다 기록
+ *  Metrics.timer("repo.reservations.read").recordSince(start);
+ *  </pre>
+ *  - 이름별 지표는 처음 요청될 때 만들어지고 서버가 끝날 때까지 누적
+ *  - report(): GET_METRICS 응답, startDump(): 주기적으로 파일에 기록
+ * @author user
+ */
+public final class Metrics {
+    private static final Map<String, CommandMetrics> COMMANDS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> TIMERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static CommandMetrics command(String name) {
+        return COMMANDS.computeIfAbsent(name, CommandMetrics::new);
+    }
+
+    public static LatencyHistogram timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * GET_METRICS 응답 (시간 단위는 us)
+     * METRICS:명령어,처리수,오류수,처리중,p50,p99,p999,최대|...;타이머,횟수,p50,p99,p999,최대|...
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("METRICS:");
+        boolean first = true;
+        for (CommandMetrics m : COMMANDS.values()) {
+            LatencyHistogram.Snapshot s = m.latency().snapshot();
+            if (s.count() == 0 && m.errors() == 0 && m.inFlight() == 0) continue;
+            if (!first) sb.append('|');
+            sb.append(m.name()).append(',').append(s.count()).append(',').append(m.errors()).append(',').append(m.inFlight());
+            appendPercentiles(sb, s);
+            first = false;
+        }
+        sb.append(';');
+        first = true;
+        for (Map.Entry<String, LatencyHistogram> e : new ConcurrentSkipListMap<>(TIMERS).entrySet()) {
+            LatencyHistogram.Snapshot s = e.getValue().snapshot();
+            if (!first) sb.append('|');
+            sb.append(e.getKey()).append(',').append(s.count());
+            appendPercentiles(sb, s);
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder sb, LatencyHistogram.Snapshot s) {
+        sb.append(',').append(micros(s.percentile(0.50)))
+          .append(',').append(micros(s.percentile(0.99)))
+          .append(',').append(micros(s.percentile(0.999)))
+          .append(',').append(micros(s.max()));
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    /** 읽기 쉬운 여러 줄 형식 (파일 기록용) */
+    static String dumpText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HMS metrics ").append(LocalDateTime.now().withNano(0)).append(" (us)\n");
+        sb.append(String.format("%-32s %10s %8s %6s %10s %10s %10s %10s%n", "command", "count", "errors", "inflt", "p50", "p99", "p999", "max"));
+        for (CommandMetrics m : COMMANDS.values()) {
+            LatencyHistogram.Snapshot s = m.latency().snapshot();
+            if (s.count() == 0 && m.errors() == 0) continue;
+            sb.append(String.format("%-32s %10d %8d %6d %10d %10d %10d %10d%n", m.name(), s.count(), m.errors(), m.inFlight(),
+                    micros(s.percentile(0.50)), micros(s.percentile(0.99)), micros(s.percentile(0.999)), micros(s.max())));
+        }
+        sb.append(String.format("%n%-32s %10s %10s %10s %10s %10s%n", "timer", "count", "p50", "p99", "p999", "max"));
+        for (Map.Entry<String, LatencyHistogram> e : new ConcurrentSkipListMap<>(TIMERS).entrySet()) {
+            LatencyHistogram.Snapshot s = e.getValue().snapshot();
+            sb.append(String.format("%-32s %10d %10d %10d %10d %10d%n", e.getKey(), s.count(),
+                    micros(s.percentile(0.50)), micros(s.percentile(0.99)), micros(s.percentile(0.999)), micros(s.max())));
+        }
+        return sb.toString();
+    }
+
+    /** intervalSec마다 path에 지표를 덮어씀 (임시 파일에 쓴 뒤 교체) */
+    public static void startDump(String path, int intervalSec) {
+        Path target = Path.of(path);
+        Path temp = Path.of(path + ".tmp");
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("metrics-dump").daemon(true).factory());
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                Path dir = target.toAbsolutePath().getParent();
+                if (dir != null) Files.createDirectories(dir);
+                Files.writeString(temp, dumpText(), StandardCharsets.UTF_8);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                Log.warn("지표 파일 기록 실패: " + ex.getMessage());
+            }
+        }, intervalSec, intervalSec, TimeUnit.SECONDS);
+    }
+}
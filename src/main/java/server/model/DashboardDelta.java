@@ -0,0 +1,26 @@
+package server.model;
+
+import java.util.List;
+
+/**
+ * 객실 현황판 변경분 (GET_DASHBOARD_DELTA)
+ * 기준 버전 이후에 바뀐 객실의 행만 담거나, 기준 버전을 알 수 없으면 전체 행을 담음
+ * @author user
+ */
+public class DashboardDelta {
+    private final long version;
+    private final boolean full;
+    private final List<DashboardRow> rows;
+
+    public DashboardDelta(long version, boolean full, List<DashboardRow> rows) {
+        this.version = version;
+        this.full = full;
+        this.rows = rows;
+    }
+
+    /** 이 결과를 만든 시점의 현황 버전 (다음 요청의 기준 버전) */
+    public long getVersion() { return version; }
+    /** true면 전체 행 (클라이언트는 현황판을 통째로 바꿔야 함) */
+    public boolean isFull() { return full; }
+    public List<DashboardRow> getRows() { return rows; }
+}
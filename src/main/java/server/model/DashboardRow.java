@@ -0,0 +1,49 @@
+package server.model;
+
+/**
+ * 객실 현황판의 객실 1개 행
+ * 객실 정보와 조회일에 해당하는 예약(없으면 "-") 정보를 함께 담음
+ * @author user
+ */
+public class DashboardRow {
+    private final Room room;
+    private final String status;
+    private final String guestName;
+    private final String reservationId;
+    private final int guestNum;
+    private final String phoneNumber;
+    private final String checkInDate;
+    private final String checkOutDate;
+    private final String detail;
+
+    public DashboardRow(Room room, String status, String guestName, String reservationId, int guestNum,
+                        String phoneNumber, String checkInDate, String checkOutDate, String detail) {
+        this.room = room;
+        this.status = status;
+        this.guestName = guestName;
+        this.reservationId = reservationId;
+        this.guestNum = guestNum;
+        this.phoneNumber = phoneNumber;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.detail = detail;
+    }
+
+    public Room getRoom() { return room; }
+    public String getStatus() { return status; }
+    public String getGuestName() { return guestName; }
+    public String getReservationId() { return reservationId; }
+    public int getGuestNum() { return guestNum; }
+    public String getPhoneNumber() { return phoneNumber; }
+    public String getCheckInDate() { return checkInDate; }
+    public String getCheckOutDate() { return checkOutDate; }
+    public String getDetail() { return detail; }
+
+    /** 현황판 텍스트 응답의 1행 (객실번호,타입,가격,상태,고객명,예약번호,인원,전화번호,입실일,퇴실일,객실설명,요청사항) */
+    @Override
+    public String toString() {
+        return room.getRoomNumber() + "," + room.getType() + "," + room.getPrice() + "," + status + "," + guestName + ","
+                + reservationId + "," + guestNum + "," + phoneNumber + "," + checkInDate + "," + checkOutDate + ","
+                + room.getDescription() + "," + detail;
+    }
+}
@@ -36,6 +36,7 @@ public class Payment {
     public String getCvc() { return cvc; }
     public String getExpiryDate() { return expiryDate; }
     public String getPassword() { return password; }
+    public String getPaymentTime() { return paymentTime; }
 
     @Override
     public String toString() {
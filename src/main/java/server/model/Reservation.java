@@ -2,21 +2,30 @@ package server.model;
 
 /**
  *
+ * - 만든 뒤에는 바뀌지 않음: 상태/요청사항 변경은 with...로 새 객체를 만들어 저장소에서 바꿔 끼움
+ *   (조회 스냅샷(ReservationSnapshot)이 잠금 없이 같은 객체를 공유하기 위함)
+ * - version: 저장소가 바꿀 때마다 새로 매기는 예약 버전 (파일에는 저장하지 않음, 재시작하면 새 값)
+ *   클라이언트가 읽은 버전을 변경 요청에 함께 보내면 그 사이에 다른 변경이 있었는지 확인함
  * @author user
  */
 public class Reservation { 
-    private String reservationId;
-    private String roomNumber;
-    private String guestName;
-    private String checkInDate;
-    private String checkOutDate;
-    private int guestNum;
-    private String phoneNumber;
-    private String reservationStatus;
-    private String createdAt;
-    private String customerRequest;
+    private final String reservationId;
+    private final String roomNumber;
+    private final String guestName;
+    private final String checkInDate;
+    private final String checkOutDate;
+    private final int guestNum;
+    private final String phoneNumber;
+    private final String reservationStatus;
+    private final String createdAt;
+    private final String customerRequest;
+    private final long version;
 
-    public Reservation(String reservationId, String roomNumber, String guestName, String checkInDate, String checkOutDate, int guestNum, String phoneNumber, String reservationStatus, String createdAt, String customerRequsest) {
+    public Reservation(String reservationId, String roomNumber, String guestName, String checkInDate, String checkOutDate, int guestNum, String phoneNumber, String reservationStatus, String createdAt, String customerRequest) {
+        this(reservationId, roomNumber, guestName, checkInDate, checkOutDate, guestNum, phoneNumber, reservationStatus, createdAt, customerRequest, 0);
+    }
+
+    public Reservation(String reservationId, String roomNumber, String guestName, String checkInDate, String checkOutDate, int guestNum, String phoneNumber, String reservationStatus, String createdAt, String customerRequest, long version) {
         this.reservationId = reservationId;
         this.roomNumber = roomNumber;
         this.guestName = guestName;
@@ -27,6 +36,7 @@ public class Reservation {
         this.reservationStatus = (reservationStatus == null) ? "Unpaid" : reservationStatus;
         this.createdAt = createdAt;
         this.customerRequest = (customerRequest == null) ? "" : customerRequest;
+        this.version = version;
     }
 
     public String getReservationId() { return reservationId; }
@@ -39,10 +49,22 @@ public class Reservation {
     public String getReservationStatus() { return reservationStatus; }
     public String getCreatedAt() { return createdAt; }
     public String getCustomerRequest() { return customerRequest;}
+    public long getVersion() { return version; }
+
+    /** 상태만 바꾼 새 예약 (버전은 그대로) */
+    public Reservation withStatus(String reservationStatus) {
+        return new Reservation(reservationId, roomNumber, guestName, checkInDate, checkOutDate, guestNum, phoneNumber, reservationStatus, createdAt, customerRequest, version);
+    }
 
-    //setter
-    public void setReservationStatus(String reservationStatus) { this.reservationStatus = reservationStatus; }
-    public void setCustomerRequest(String customerRequest){this.customerRequest = customerRequest;}
+    /** 요청사항만 바꾼 새 예약 (버전은 그대로) */
+    public Reservation withRequest(String customerRequest) {
+        return new Reservation(reservationId, roomNumber, guestName, checkInDate, checkOutDate, guestNum, phoneNumber, reservationStatus, createdAt, customerRequest, version);
+    }
+
+    /** 버전만 바꾼 새 예약 */
+    public Reservation withVersion(long version) {
+        return new Reservation(reservationId, roomNumber, guestName, checkInDate, checkOutDate, guestNum, phoneNumber, reservationStatus, createdAt, customerRequest, version);
+    }
     
     @Override
     public String toString() {
@@ -0,0 +1,33 @@
+package server.model;
+
+/**
+ * 예약 1건 변경 결과 (기대 버전을 확인하는 변경)
+ * - UPDATED: 바꿈, version은 새 버전
+ * - CONFLICT: 그 사이에 다른 변경이 있어 바꾸지 않음, version은 지금 버전
+ * - NOT_FOUND: 예약번호 없음
+ * - UNSYNCED: 바꿨지만(메모리와 로그) fsync에 실패해 디스크 기록은 확인하지 못함, version은 새 버전
+ * - FAILED: 로그 기록에 실패해 바꾸지 않음 (메모리도 되돌림), version은 지금 버전
+ * @author user
+ */
+public class ReservationUpdate {
+    public enum Outcome { UPDATED, UNSYNCED, CONFLICT, NOT_FOUND, FAILED }
+
+    private static final ReservationUpdate NOT_FOUND = new ReservationUpdate(Outcome.NOT_FOUND, 0);
+
+    private final Outcome outcome;
+    private final long version;
+
+    public ReservationUpdate(Outcome outcome, long version) {
+        this.outcome = outcome;
+        this.version = version;
+    }
+
+    public static ReservationUpdate notFound() {
+        return NOT_FOUND;
+    }
+
+    public Outcome getOutcome() { return outcome; }
+    public long getVersion() { return version; }
+    /** 변경이 반영되었는지 (fsync를 확인하지 못한 UNSYNCED 포함) */
+    public boolean isUpdated() { return outcome == Outcome.UPDATED || outcome == Outcome.UNSYNCED; }
+}
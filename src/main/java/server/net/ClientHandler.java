@@ -1,569 +1,357 @@
 package server.net;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.PushbackInputStream;
+import java.net.ProtocolException;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
-import server.model.Menu;
-import server.model.Room;
-import server.model.User;
-import server.service.AuthService;
-import server.service.HotelService;
-import server.service.MenuOrderService;
-import server.service.MenuService;
-import server.service.ReportService;
+import server.log.Log;
+import server.net.binary.BinaryFrames;
+import server.net.binary.FrameReader;
+import server.net.binary.FrameWriter;
+import server.net.command.BatchExecutor;
+import server.net.command.CommandRegistry;
+import server.net.command.CommandSpec;
+import server.net.command.PageExecutor;
+import server.net.compress.ResponseCompressor;
+import server.net.push.DashboardSubscriptions;
+import server.service.DashboardFeed;
 
 /**
  *  각 클라이언트 연결을 개별 스레드에서 처리하는 클래스 (Runnable 인터페이스 구현)
+ *  - 명령어별 처리는 CommandRegistry에 등록된 핸들러가 담당
+ *  - 파이프라인: 요청 앞에 "#상관ID " 를 붙이면 응답을 기다리지 않고 다음 요청을 보낼 수 있음
+ *    예) "#7 GET_MENUS" -> "#7 MENU_LIST:..."
+ *    조회 전용 명령어는 동시에 실행되어 끝나는 순서대로 응답하고,
+ *    변경 명령어는 앞선 요청이 모두 끝난 뒤 단독으로 실행됨 (요청 순서 보장)
+ *  - 상관ID가 없는 요청은 기존처럼 한 줄씩 순서대로 처리
+ *  - "BATCH:n" 요청은 뒤따르는 n줄을 하위 명령으로 모아 한 번에 실행 (BatchExecutor)
+ *  - "PAGE:크기:커서:명령어" 요청은 목록을 한 페이지씩 행 단위로 바로 소켓에 기록 (PageExecutor, 압축하지 않음)
+ *  - "COMPRESS:DEFLATE[:기준바이트]" 요청 이후 큰 응답은 deflate로 압축해 전송 (ResponseCompressor)
+ *  - "SUBSCRIBE_DASHBOARD[:날짜]" 요청 이후 객실 현황이 바뀌면 바뀐 행을 알림으로 전송 (DashboardSubscriptions)
+ *  - 접속 직후 첫 바이트가 BinaryFrames.MAGIC이면 길이 접두 바이너리 프로토콜로 전환 (BinaryFrames 참고)
  * @author user
  */
 public class ClientHandler implements Runnable {
+    private static final int MAX_TAG_LENGTH = 64;
+    private static final int MAX_PENDING_PUSHES = 64; // 전송을 기다리는 현황판 알림 한도 (넘으면 구독 해지)
+
     private final Socket clientSocket;
-    private final AuthService authService;
-    private final HotelService hotelService;
-    private final MenuService menuService;
-    private final MenuOrderService menuOrderService;
-    private final ReportService reportService;
+    private final CommandRegistry registry;
+    private final BatchExecutor batchExecutor;
+    private final PageExecutor pageExecutor;
+    private final ResponseCompressor compressor;
+    private final ExecutorService pipelineExecutor;
+    private final int maxInFlight;
+    private final Semaphore inFlight; // 동시에 실행 중인 파이프라인 조회 요청 수 제한
+    private final DashboardSubscriptions subscriptions;
+    private final Queue<Runnable> pushes = new ArrayDeque<>(); // 현황판 알림 전송 작업, pushes 로 동기화
+    private boolean pushing;                                   // pushes 로 동기화
+    private PrintWriter out;
 
-    public ClientHandler(Socket socket, AuthService authService,HotelService hotelService, MenuService menuService, MenuOrderService menuOrderService, ReportService reportService){
+    public ClientHandler(Socket socket, CommandRegistry registry, BatchExecutor batchExecutor, PageExecutor pageExecutor,
+                         ResponseCompressor compressor, DashboardSubscriptions subscriptions,
+                         ExecutorService pipelineExecutor, int maxInFlight){
         this.clientSocket = socket;
-        this.authService = authService;
-        this.hotelService = hotelService;
-        this.menuService = menuService;
-        this.menuOrderService = menuOrderService;
-        this.reportService = reportService;
+        this.registry = registry;
+        this.batchExecutor = batchExecutor;
+        this.pageExecutor = pageExecutor;
+        this.compressor = compressor;
+        this.subscriptions = subscriptions;
+        this.pipelineExecutor = pipelineExecutor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
     }
-    
+
     @Override
     public void run(){
         String request;
-        
+
         try{
-            BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            PrintWriter out = new PrintWriter(clientSocket.getOutputStream(),true);
-            
-            while((request = in.readLine()) != null){
-                System.out.println("클라이언트 요청: " + request);
-                
-                //여기에 핵심코드 작성
-                String respone = handleRequest(request); //위임
-                out.println(respone); //응답
+            // 첫 바이트로 프로토콜 판별 (기본은 줄 단위 텍스트)
+            PushbackInputStream raw = new PushbackInputStream(clientSocket.getInputStream(), 1);
+            int first = raw.read();
+            if (first < 0) return;
+            if (first == BinaryFrames.MAGIC) {
+                runBinary(raw);
+                return;
             }
-        }
-        
-        catch(IOException ex){
-            System.out.println("클라이언트 통신 오류");
-            ex.printStackTrace();
-        }
+            raw.unread(first);
 
-    }
-    
-    private String handleRequest(String request){
-        try{
-            String[] parts = request.split(":", 3);
-            String command = parts[0].trim();
-            
-            switch(command){
+            BufferedReader in = new BufferedReader(new InputStreamReader(raw));
+            out = new PrintWriter(clientSocket.getOutputStream(),true);
 
-                case "GET_MENU_SALES":
-                    // 형식: GET_MENU_SALES:yyyy-MM-dd:yyyy-MM-dd
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        // ReportService에서 통합 매출 데이터 조회
-                        java.util.Map<String, Object> result = reportService.getMenuSalesByDateRange(start, end);
-                        double averageSales = (double) result.get("averageSales");
-                        @SuppressWarnings("unchecked")
-                        java.util.List<java.util.Map<String, Object>> salesTable = (java.util.List<java.util.Map<String, Object>>) result.get("salesTable");
-                        // 응답 문자열: MENU_SALES:평균매출|날짜,매출,최다판매메뉴;날짜,매출,최다판매메뉴;...
-                        StringBuilder sb = new StringBuilder("MENU_SALES:");
-                        sb.append(String.format("%.2f", averageSales)).append("|");
-                        boolean first = true;
-                        for (java.util.Map<String, Object> row : salesTable) {
-                            if (!first) sb.append(";");
-                            sb.append(row.get("date")).append(",").append(row.get("totalSales")).append(",").append(row.get("topMenu"));
-                            first = false;
-                        }
-                        return sb.toString();
-                    }
-                    return "ERROR:Format";
-                case "LOGIN":
-                    if(parts.length == 3){
-                        String username = parts[1];
-                        String password = parts[2];
-                        
-                        User user = authService.login(username, password);
-                        if(user != null){
-                            return "LOGIN_SUCCESS:" + user.getRole(); //로그인 성공    
-                        }
-                        else{    
-                            return "LOGIN_FAIL:Invalid credentials"; // 로그인 실패    
-                        }    
-                    }    
-                    else{    
-                        return "ERROR:Invalid LOGIN format"; // 형식 오류
-                    }                
-                case "GET_DASHBOARD":
-                    if(parts.length == 2){
-                        return hotelService.getRoomDashboard(parts[1]);
-                    }
-                    return hotelService.getRoomDashboard(java.time.LocalDate.now().toString());
-                    
-                case "CHECK_IN":
-                    String[] inParts = request.split(":");
-                    if (inParts.length >= 2) {
-                        boolean ok = hotelService.checkIn(inParts[1]);
-                        return ok ? "SUCCESS" : "FAIL";
-                    }
-                    return "ERROR:Format";
+            while((request = in.readLine()) != null){
+                Log.access(request);
 
-                case "CHECK_OUT":
-                    String[] outParts = request.split(":");
-                    if (outParts.length >= 2) {
-                        boolean ok = hotelService.checkOut(outParts[1]);
-                        return ok ? "SUCCESS" : "FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                case "UPDATE_RESERVATION_STATUS":
-                    String[] Parts = request.split(":");
-                    if(Parts.length == 3){
-                        boolean ok = hotelService.updateReservationStatus(Parts[1], Parts[2]);
-                        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                case "GET_USERS":
-                    //서비스에서 모든 유저 가져오기
-                    java.util.List<User> users = authService.getAllUsers();
-                    StringBuilder sb = new StringBuilder("USER_LIST:");
-                    for (User u : users) {
-                        sb.append(u.getId()).append(",").append(u.getPassword()).append(",").append(u.getRole()).append(",").append(u.getPhone()).append(",").append(u.getName()).append("/");
-                    }
-                    return sb.toString();
-                case "GET_PAST_OCCUPANCY": {
-                    // GET_PAST_OCCUPANCY:yyyy-MM-dd:yyyy-MM-dd
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        return reportService.handlePastOccupancyRequest(start, end);
-                    }
-                    return "PAST_OCCUPANCY:";
+                int tagEnd = tagEnd(request);
+                String tag = (tagEnd < 0) ? "" : request.substring(0, tagEnd + 1);
+                String body = (tagEnd < 0) ? request : request.substring(tagEnd + 1);
+                String negotiated = compressor.negotiate(body);
+                if (negotiated != null) {
+                    // 압축 설정 변경: 앞선 응답이 모두 나간 뒤 적용, 이 응답 자체는 압축하지 않음
+                    awaitInFlight();
+                    sendPlain(tag + negotiated);
+                    continue;
                 }
-                case "GET_CURRENT_OCCUPANCY": {
-                    return reportService.handleCurrentOccupancyRequest();
+                String subscribed = subscriptions.handle(body, date -> textSubscriber(tag));
+                if (subscribed != null) {
+                    awaitInFlight();
+                    send(tag, subscribed);
+                    continue;
                 }
-                case "GET_FUTURE_OCCUPANCY": {
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        return reportService.handleFutureOccupancyRequest(start, end);
-                    }
-                    return "FUTURE_OCCUPANCY:";
+                int batchItems = BatchExecutor.itemCount(body);
+                if (batchItems >= 0) {
+                    // BATCH: 하위 명령 줄을 모두 읽은 뒤 앞선 요청이 끝나면 한 번에 실행
+                    List<String> items = readLines(in, batchItems);
+                    if (items == null) break; // 하위 명령을 다 받기 전에 연결 종료
+                    awaitInFlight();
+                    send(tag, batchExecutor.execute(items));
+                    continue;
                 }
-                case "ADD_USER":
-                    // 형식(필수): ADD_USER:id:name:pw:role:phone  => 총 6토큰, 모두 공백불가
-                    {
-                        String[] addParts = request.split(":");
-                        if(addParts.length != 6) return "ADD_FAIL:Format"; 
-                        String id = addParts[1];
-                        String name = addParts[2];
-                        String pw = addParts[3];
-                        String role = addParts[4];
-                        String phone = addParts[5];
-                        if(blank(id) || blank(name) || blank(pw) || blank(role) || blank(phone)) return "ADD_FAIL:FieldRequired";
-                        boolean ok = authService.addUser(id, name, pw, role, phone);
-                        return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateOrError";
-                    }
-                
-                case "DELETE_USER":
-                    if(parts.length >= 2) {
-                        boolean ok = authService.deleteUser(parts[1]);
-                        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
+                if (PageExecutor.isPageRequest(body)) {
+                    // PAGE: 앞선 요청이 끝난 뒤 행을 만들어지는 대로 전송 (응답 전체를 문자열로 만들지 않음)
+                    awaitInFlight();
+                    synchronized (out) {
+                        out.print(tag);
+                        pageExecutor.execute(body, out);
+                        out.println();
                     }
-                    return "DELETE_FAIL:Format";
-                case "MODIFY_USER":
-                    {
-                        String[] mParts = request.split(":");
-                        if(mParts.length != 6) return "MODIFY_FAIL:Format";
-                        if(blank(mParts[1]) || blank(mParts[2]) || blank(mParts[3]) || blank(mParts[4]) || blank(mParts[5])) return "MODIFY_FAIL:FieldRequired";
-                        boolean ok = authService.modifyUser(mParts[1], mParts[2], mParts[3], mParts[4], mParts[5]);
-                        return ok ? "MODIFY_SUCCESS" : "MODIFY_FAIL";
-                    }
-                    
-                case "UPDATE_PAYMENT":
-                    // 프로토콜: UPDATE_PAYMENT:ResID:Method:Card:CVC:Expiry:PW:Amount
-                    String[] p = request.split(":");
+                    continue;
+                }
+                if (tagEnd < 0) {
+                    // 상관ID 없는 요청: 앞선 파이프라인 요청이 끝난 뒤 순서대로 처리
+                    awaitInFlight();
+                    send(tag, handleRequest(request)); //위임 후 응답
+                    continue;
+                }
+                pipeline(tag, body);
+            }
+            awaitInFlight(); // 연결 종료 전 남은 응답 전송
+        }
 
-                    if (p.length == 8) {
-                        try {
-                            // 마지막 데이터(금액) 파싱
-                            int amount = Integer.parseInt(p[7]);
+        catch(IOException ex){
+            Log.error("클라이언트 통신 오류", ex);
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+        finally{
+            subscriptions.close();
+            compressor.close();
+        }
 
-                            // HotelService 호출
-                            boolean ok = hotelService.processPayment(
-                                    p[1], // ResID
-                                    p[2], // Method
-                                    p[3], // CardNum
-                                    p[4], // CVC
-                                    p[5], // Expiry
-                                    p[6], // PW
-                                    amount // Amount
-                            );
+    }
 
-                            return ok ? "PAYMENT_SUCCESS" : "PAYMENT_FAIL";
+    /**
+     * 바이너리 프로토콜 연결 처리
+     * - 요청 프레임을 도착 순서대로 처리하고 같은 상관ID로 응답
+     * - 더 읽을 요청이 없을 때만 flush하여 연속 요청의 응답은 한 번에 전송
+     */
+    private void runBinary(InputStream raw) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(raw));
+        OutputStream os = new BufferedOutputStream(clientSocket.getOutputStream());
+        int version = in.read();
+        if (version != BinaryFrames.VERSION) {
+            os.write(BinaryFrames.MAGIC);
+            os.write(BinaryFrames.UNSUPPORTED_VERSION);
+            os.flush();
+            return;
+        }
+        os.write(BinaryFrames.MAGIC);
+        os.write(BinaryFrames.ACCEPTED);
+        os.flush();
 
-                        } catch (NumberFormatException e) {
-                            return "ERROR:Invalid Amount Format"; // 금액이 숫자가 아닐 경우 에러 처리
-                        }
-                    } else {
-                        System.out.println("[Server] 결제 요청 포맷 오류. 받은 개수: " + p.length);
-                        return "ERROR:Format Error (Expected 8 parts)";
-                    }
-                    
-                case "GET_MENUS":
-                    java.util.List<Menu> menus = menuService.getAllMenus();
-                    StringBuilder sb2 = new StringBuilder("MENU_LIST:");
-                    for (Menu m : menus) {
-                        String isAvailableStr = String.valueOf(m.getIsAvailable());
-                        sb2.append(m.getMenuId()).append(",")
-                          .append(m.getName()).append(",")
-                          .append(m.getPrice()).append(",")
-                          .append(m.getCategory()).append(",")
-                          .append(isAvailableStr).append(",")
-                          .append(m.getStock()).append("/");
-                    }
-                    return sb2.toString();
-                case "GET_ROOM_SALES":
-                    // 형식: GET_ROOM_SALES:yyyy-MM-dd:yyyy-MM-dd
-                    // 요청 형식 검사 후 HotelService에 집계를 위임합니다.
-                    // 클라이언트는 시작/종료 날짜(yyyy-MM-dd)를 전달하고,
-                    // 서버는 "ROOM_SALES:yyyy-MM-dd=amount,yyyy-MM-dd=amount,..." 형태의 한 줄 응답을 반환합니다.
-                    // LinkedHashMap을 사용해 날짜 순서가 유지되므로 클라이언트가 순서대로 그래프를 그릴 수 있습니다.
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
+        FrameWriter writer = new FrameWriter();
+        byte[] payload = new byte[256];
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException ex) {
+                return; // 클라이언트가 연결을 닫음
+            }
+            if (length < BinaryFrames.HEADER_BYTES || length > BinaryFrames.MAX_FRAME_BYTES) {
+                throw new ProtocolException("프레임 길이가 잘못되었습니다: " + length);
+            }
+            if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+            in.readFully(payload, 0, length);
 
-                        // HotelService에서 날짜별 매출을 계산해서 맵으로 돌려받습니다.
-                        java.util.Map<java.time.LocalDate, Integer> sales = hotelService.getRoomSalesByDateRange(start, end);
+            FrameReader request = new FrameReader(ByteBuffer.wrap(payload, 0, length));
+            writer.begin(request.correlationId());
+            boolean negotiating = false;
+            try {
+                String[] fields = request.fields();
+                String joined = String.join(":", fields);
+                Log.access("(binary) " + joined);
+                String negotiated = compressor.negotiate(joined);
+                String subscribed = (negotiated != null) ? null
+                        : subscriptions.handle(joined, date -> binarySubscriber(os, request.correlationId()));
+                if (negotiated != null) {
+                    writer.string(negotiated);
+                    negotiating = true; // 압축 설정 응답 자체는 압축하지 않음
+                } else if (subscribed != null) {
+                    writer.string(subscribed);
+                } else {
+                    registry.dispatch(fields, writer);
+                }
+            } catch (ProtocolException ex) {
+                writer.resetFields();
+                writer.string("ERROR:Format (" + ex.getMessage() + ")");
+            }
+            // 현황판 알림도 같은 스트림에 쓰므로 os 로 동기화
+            synchronized (os) {
+                ByteBuffer frame = negotiating ? writer.finish() : compressor.encodeFrame(writer.finish());
+                os.write(frame.array(), 0, frame.limit());
+                if (in.available() == 0) os.flush();
+            }
+        }
+    }
 
-                        // 응답 문자열을 구성합니다. 각 항목은 date=value(날짜=매출)로 콤마로 구분됩니다.
-                        //ex ROOM_SALES:2025-10-01=220000,2025-10-02=440000,...
-                        StringBuilder salesSb = new StringBuilder("ROOM_SALES:");
-                        boolean first = true;
-                        for (java.util.Map.Entry<java.time.LocalDate, Integer> en : sales.entrySet()) {
-                            if (!first) salesSb.append(",");
-                            salesSb.append(en.getKey().toString()).append("=").append(en.getValue());
-                            first = false;
-                        }
-                        return salesSb.toString();
-                    }
-                    return "ERROR:Format";
-                    
-                case "ADD_MENU":
-                {
-                    String[] menuParts = request.split(":");
-                    // 형식 검사: 토큰이 7개인지 확인
-                    if (menuParts.length != 7) return "ADD_FAIL:Format";
-                    String menuId = menuParts[1];
-                    String name = menuParts[2];
-                    String priceStr = menuParts[3];
-                    String category = menuParts[4];
-                    String isavailableStr = menuParts[5];
-                    String stockStr = menuParts[6];
-                    if (blank(menuId) || blank(name) || blank(priceStr) || blank(category) || blank(isavailableStr) || blank(stockStr)) {
-                        return "ADD_FAIL:FieldRequired";
-                    }
-                    int price;
-                    int stock;
-                    try {
-                        price = Integer.parseInt(priceStr.trim());
-                        stock = Integer.parseInt(stockStr.trim());
-                    } catch (NumberFormatException e) {
-                        return "ADD_FAIL:InvaildPriceFormat";
-                    }
-                    boolean isAvailable = Boolean.parseBoolean(isavailableStr.trim());
-                    boolean ok = menuService.AddMenu(menuId, name, price, category, isAvailable, stock);
-                    return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateIdOrError";
+    /** 텍스트 연결의 현황판 구독자: 알림에 SUBSCRIBE 요청의 상관ID를 붙여 전송 */
+    private DashboardFeed.Subscriber textSubscriber(String tag) {
+        return (date, rows) -> push(() -> send(tag, DashboardSubscriptions.text(date, rows)));
+    }
+
+    /** 바이너리 연결의 현황판 구독자: SUBSCRIBE 요청의 상관ID로 알림 프레임 전송 */
+    private DashboardFeed.Subscriber binarySubscriber(OutputStream os, int correlationId) {
+        return (date, rows) -> push(() -> {
+            FrameWriter writer = new FrameWriter();
+            writer.begin(correlationId);
+            DashboardSubscriptions.write(writer, date, rows);
+            synchronized (os) {
+                try {
+                    ByteBuffer frame = compressor.encodeFrame(writer.finish());
+                    os.write(frame.array(), 0, frame.limit());
+                    os.flush();
+                } catch (IOException ex) {
+                    // 연결이 끊어진 경우: 읽기 쪽에서 종료 처리
                 }
-                
-                case "DELETE_MENU":
-                    // 형식: DELETE_MENU:menuId (총 2개 토큰)
-                {
-                    if (parts.length != 2) return "DELETE_FAIL:Format";
-                    String menuId = parts[1];
-                    
-                    if (blank(menuId)) {
-                        return "DELETE_FAIL:FieldRequired";
-                    }
-                    
-                    // Service 호출
-                    boolean ok = menuService.deleteMenu(menuId);
-                    
-                    // 결과 반환
-                    return ok ? "DELETE_SUCCESS" : "DELETE_FAIL:NotFound";
+            }
+        });
+    }
+
+    /**
+     * 알림 전송 작업을 순서대로 실행하도록 예약 (알림 스레드는 소켓 쓰기를 기다리지 않음)
+     * @return 대기 중인 알림이 너무 많으면 false (느린 클라이언트)
+     */
+    private boolean push(Runnable task) {
+        synchronized (pushes) {
+            if (pushes.size() >= MAX_PENDING_PUSHES) return false;
+            pushes.add(task);
+            if (pushing) return true; // 이미 전송 중인 작업이 이어서 처리
+            pushing = true;
+        }
+        try {
+            pipelineExecutor.execute(this::drainPushes);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            synchronized (pushes) {
+                pushes.clear();
+                pushing = false;
+            }
+            return false;
+        }
+    }
+
+    private void drainPushes() {
+        while (true) {
+            Runnable task;
+            synchronized (pushes) {
+                task = pushes.poll();
+                if (task == null) {
+                    pushing = false;
+                    return;
                 }
-                
-                case "UPDATE_MENU":
-                {
-                    String[] menuParts = request.split(":");
-                    // 형식 검사: 토큰이 7개인지 확인
-                    if (menuParts.length != 7) return "UPDATE_FAIL:Format";
-                    String menuId = menuParts[1];
-                    String name = menuParts[2];
-                    String priceStr = menuParts[3];
-                    String category = menuParts[4];
-                    String isavailableStr = menuParts[5];
-                    String stockStr = menuParts[6];
-                    if (blank(menuId) || blank(name) || blank(priceStr) || blank(category) || blank(isavailableStr) || blank(stockStr)) {
-                        return "UPDATE_FAIL:FieldRequired";
-                    }
-                    int price;
-                    int stock;
+            }
+            task.run();
+        }
+    }
+
+    /** 상관ID가 붙은 요청 처리: 조회는 동시에, 변경은 앞선 요청이 끝난 뒤 단독으로 */
+    private void pipeline(String tag, String body) throws InterruptedException {
+        CommandSpec spec = registry.lookup(body);
+        if (spec != null && spec.isReadOnly()) {
+            inFlight.acquire();
+            try {
+                pipelineExecutor.execute(() -> {
                     try {
-                        price = Integer.parseInt(priceStr.trim());
-                        stock = Integer.parseInt(stockStr.trim());
-                    } catch (NumberFormatException e) {
-                        return "UPDATE_FAIL:InvaildPriceFormat";
+                        send(tag, handleRequest(body));
+                    } finally {
+                        inFlight.release();
                     }
-                    boolean isAvailable = Boolean.parseBoolean(isavailableStr.trim());
-                    boolean ok = menuService.updateMenu(menuId, name, price, category, isAvailable, stock);
-                    return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL:NotFound";
-                }
-                
-                            case "ORDER_MENU": {
-                                String[] orderParts = request.split(":", 5);
-                                if (orderParts.length != 5) return "ORDER_FAIL:Format";
-                                String guestName = orderParts[1];
-                                int totalPrice;
-                                try {
-                                    totalPrice = Integer.parseInt(orderParts[2]);
-                                } catch (NumberFormatException e) {
-                                    return "ORDER_FAIL:PriceFormat";
-                                }
-                                String payment = orderParts[3];
-                                String foodNamesStr = orderParts[4];
-                                String[] foodNamesArr = foodNamesStr.split("\\|");
-                                java.util.List<String> foodNames = java.util.Arrays.asList(foodNamesArr);
-                                // 주문 ID 생성
-                                String saleId = "S-" + (System.currentTimeMillis() % 1000000);
-                                java.time.LocalDateTime now = java.time.LocalDateTime.now();
-                                // 주문 저장
-                                server.model.MenuOrder order = new server.model.MenuOrder(saleId, guestName, now, totalPrice, payment, foodNames);
-                                menuOrderService.saveOrder(order);
-                                // 재고 차감 및 판매중지 처리
-                                boolean allOk = true;
-                                for (String food : foodNames) {
-                                    java.util.Optional<server.model.Menu> menuOpt = menuService.getAllMenus().stream().filter(m -> m.getName().equals(food)).findFirst();
-                                    if (menuOpt.isPresent()) {
-                                        server.model.Menu menu = menuOpt.get();
-                                        int stock = menu.getStock();
-                                        if (stock > 0) {
-                                            menu.setStock(stock - 1);
-                                            if (menu.getStock() == 0) {
-                                                menu.setIsAvailable(false);
-                                            }
-                                            menuService.updateMenu(menu.getMenuId(), menu.getName(), menu.getPrice(), menu.getCategory(), menu.getIsAvailable(), menu.getStock());
-                                        } else {
-                                            allOk = false;
-                                        }
-                                    } else {
-                                        allOk = false;
-                                    }
-                                }
-                                return allOk ? "ORDER_SUCCESS" : "ORDER_PARTIAL_FAIL:재고부족";
-                            }
-                            
-                case "GET_MENU_ORDERS_BY_GUEST": {
-                    // 형식: GET_MENU_ORDERS_BY_GUEST:GuestName
-                    String[] q = request.split(":", 2);
-                    if (q.length != 2) return "MENU_ORDERS:";
-                    String guest = q[1];
-                    java.util.List<server.model.MenuOrder> all = menuOrderService.getAllOrders();
-                    StringBuilder msb = new StringBuilder("MENU_ORDERS:");
-                    boolean first = true;
-                    for (server.model.MenuOrder mo : all) {
-                        if (mo.getGuestName().equals(guest)) {
-                            if (!first) msb.append("|");
-                            msb.append(mo.getSaleId()).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
-                            first = false;
-                        }
-                    }
-                    return msb.toString();
-                }
-                
-                case "GET_MENU_ORDERS_BY_DATE_RANGE": {
-                    // 형식: GET_MENU_ORDERS_BY_DATE_RANGE:GuestName:CheckInDate:CheckOutDate
-                    String[] q = request.split(":");
-                    if (q.length != 4) return "MENU_ORDERS_DATE:";
-                    String guest = q[1];
-                    String checkInDate = q[2];
-                    String checkOutDate = q[3];
-                    java.util.List<server.model.MenuOrder> all = menuOrderService.getAllOrders();
-                    StringBuilder msb = new StringBuilder("MENU_ORDERS_DATE:");
-                    boolean first = true;
-                    java.time.LocalDateTime checkIn = java.time.LocalDateTime.parse(checkInDate + " 00:00:00", java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    java.time.LocalDateTime checkOut = java.time.LocalDateTime.parse(checkOutDate + " 23:59:59", java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    for (server.model.MenuOrder mo : all) {
-                        if (mo.getGuestName().equals(guest) && mo.getOrderTime().isAfter(checkIn) && mo.getOrderTime().isBefore(checkOut)) {
-                            if (!first) msb.append("|");
-                            String foodNamesStr = String.join("/", mo.getFoodNames());
-                            msb.append(foodNamesStr).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
-                            first = false;
-                        }
-                    }
-                    return msb.toString();
-                }
-                  
-                case "CHECK_ALL_ROOM_STATUS":
-                    String[] statusParts = request.split(":");
-                    if (statusParts.length == 3) {  
-                        return hotelService.getRoomStatusList(statusParts[1], statusParts[2]);
-                    }   
-                    return "ERROR:Format";
-                        
-                case "GET_RES_BY_NAME":
-                    String[] nameParts = request.split(":");
-                    if (nameParts.length >= 2) {
-                        // 가격과 정원수이 포함된 데이터를 가져옴
-                        List<String> list = hotelService.getReservationsWithRoomInfo(nameParts[1]);
+                });
+                return;
+            } catch (RejectedExecutionException ex) {
+                inFlight.release(); // 실행기가 종료된 경우 아래에서 직접 처리
+            }
+        }
+        awaitInFlight();
+        send(tag, handleRequest(body));
+    }
 
-                        StringBuilder resSb = new StringBuilder("RES_LIST:");
+    /** count줄을 읽어 반환 (도중에 연결이 끊기면 null) */
+    private List<String> readLines(BufferedReader in, int count) throws IOException {
+        List<String> lines = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            String line = in.readLine();
+            if (line == null) return null;
+            lines.add(line);
+        }
+        return lines;
+    }
 
-                        // 위에서 가져온 'list'를 그대로 사용하여 응답을 만듬
-                        for (String line : list) {
-                            resSb.append(line).append("|");
-                        }
-                        return resSb.toString();
-                    }
-                    return "ERROR:Format";
-                        
-                case "GET_AVAILABLE_ROOMS":
-                    // 전체 방 목록 반환
-                    StringBuilder availSb = new StringBuilder("ROOM_LIST:");
-                    for (Room r : hotelService.getAllRooms()) {
-                        availSb.append(r.toString()).append("/");
-                    }
-                    return availSb.toString();
-                    
-                case "PAY_AND_RESERVE":
-                    String[] payParts = request.split(":");
-        
-                    if (payParts.length == 12) {
-                        String roomNum = payParts[1];
-                        String name = payParts[2];
-                        String inDate = payParts[3];
-                        String outDate = payParts[4];
-                        int guestNum;
-                        
-                        try {
-                            guestNum = Integer.parseInt(payParts[5]);
-                        }
-                        catch (NumberFormatException e) {
-                            return "FAIL:InvalidGuestNum";
-                        }             
-                        String phone = payParts[6];
-                        String reqNote = payParts[7]; // 요청사항
-                        String cardNum = payParts[8];
-                        String cvc = payParts[9];
-                        String expiry = payParts[10];
-                        String cardPw = payParts[11];
-                        String result = hotelService.createReservationWithPayment(
-                                roomNum, name, inDate, outDate, guestNum, phone, reqNote, cardNum, cvc, expiry, cardPw);
-                        return result;
-                    }
-                    return "ERROR:Format (Expected 11 parts for PAY_AND_RESERVE)";
-                    
-                case "CHECK_AVAILABILITY":
-                    String[] checkParts = request.split(":");
-                    if (checkParts.length == 3) {
-                        String types = hotelService.getAvailableRoomTypes(checkParts[1], checkParts[2]);
-                        return "AVAILABLE_TYPES:" + types;
-                    }
-                    return "ERROR:Format";
-                    
-               case "ADD_RESERVATION":
-                    // ADD_RESERVATION:타입:이름:입실:퇴실:인원:폰
-                    String[] resParts = request.split(":", -1);
-                    
-                    if (resParts.length == 8) {
-                        String assignedRoom = hotelService.createReservationByRoomNum(
-                            resParts[1], // Type
-                            resParts[2], // Name
-                            resParts[3], // In
-                            resParts[4], // Out
-                            Integer.parseInt(resParts[5]), // GuestNum
-                            resParts[6],  // Phone
-                            resParts[7]
-                        );
-                        
-                        if (assignedRoom != null) {
-                            return "RESERVE_SUCCESS:" + assignedRoom;
-                        } else {
-                            return "RESERVE_FAIL:No Room Available";
-                        }
-                    }
-                    return "ERROR:Format (Expected 8 parts)";
-                    
-                case "DELETE_RESERVATION":
-                    if (parts.length == 2) {
-                        boolean ok = hotelService.cancelReservation(parts[1]);
-                        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                    case "ADD_ROOM":
-                    // ADD_ROOM:번호:타입:가격:인원:설명 (6개)
-                    String[] ar = request.split(":"); 
-                    if (ar.length == 6) {
-                        boolean ok = hotelService.addRoom(ar[1], ar[2], 
-                                Integer.parseInt(ar[3]), Integer.parseInt(ar[4]), ar[5]);
-                        return ok ? "ADD_SUCCESS" : "ADD_FAIL";
-                    }
-                    return "ERROR:Format";
+    /** 실행 중인 파이프라인 요청이 모두 끝날 때까지 대기 */
+    private void awaitInFlight() throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
 
-                case "UPDATE_ROOM":
-                    // UPDATE_ROOM:번호:타입:가격:인원:설명 (6개)
-                    String[] ur = request.split(":");
-                    if (ur.length == 6) {
-                        boolean ok = hotelService.updateRoom(ur[1], ur[2], 
-                                Integer.parseInt(ur[3]), Integer.parseInt(ur[4]), ur[5]);
-                        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                    }
-                    
-                    case "UPDATE_GUEST_REQ":
-                        String[] reqParts = request.split(":", 3);
-                        
-                        if (reqParts.length == 3) {
-                            boolean ok = hotelService.updateReservationRequest(reqParts[1], reqParts[2]);
-                            return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                        }
-                        return "ERROR:Format";
-                            
-                    case "MANAGE_CLEANING":
-                        if (parts.length == 2) {
-                            String rNum = parts[1];
-                            String result = hotelService.toggleCleaningStatus(rNum);
-                            return result; // "SUCCESS:SetToCleaning" or "SUCCESS:SetToEmpty" or "FAIL..."
-                        }
-                        return "ERROR:Format";
-                    
-                default:    
-                    System.out.println("❌ [오류] 알 수 없는 명령어: [" + command + "]");
-                    return "ERROR:Unknown command " + command;  
-            }
+    /** 응답 전송 (압축을 켠 연결이면 큰 응답은 압축, 상관ID는 그대로) */
+    private void send(String tag, String response) {
+        synchronized (out) {
+            out.println(tag + compressor.encodeText(response)); //응답
         }
+    }
 
-        catch(Exception ex){
-                ex.printStackTrace();
-                return "ERROR:Internal server error: " + ex.getMessage();
+    private void sendPlain(String line) {
+        synchronized (out) {
+            out.println(line);
         }
     }
 
-    // 공백/널 체크 유틸
-    private boolean blank(String s){
-        return s == null || s.trim().isEmpty();
+    /**
+     * 요청 한 줄을 처리하여 응답 문자열 반환
+     * - 명령어 이름으로 등록된 핸들러를 찾아 실행 (CommandRegistry.dispatch)
+     */
+    String handleRequest(String request){
+        return registry.dispatch(request);
+    }
+
+    /**
+     * "#상관ID 요청" 형식이면 상관ID 뒤 공백의 위치, 아니면 -1
+     * - 상관ID는 공백 없는 1~64자
+     */
+    static int tagEnd(String request) {
+        if (request.isEmpty() || request.charAt(0) != '#') return -1;
+        int space = request.indexOf(' ');
+        if (space < 2 || space > MAX_TAG_LENGTH) return -1;
+        return space;
     }
 }
@@ -0,0 +1,467 @@
+package server.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import server.log.Log;
+import server.model.DashboardRow;
+import server.net.binary.BinaryFrames;
+import server.net.binary.FrameReader;
+import server.net.binary.FrameWriter;
+import server.net.command.BatchExecutor;
+import server.net.command.CommandRegistry;
+import server.net.compress.CompressionPolicy;
+import server.net.compress.ResponseCompressor;
+import server.net.push.DashboardSubscriptions;
+import server.service.DashboardFeed;
+
+/**
+ *  Selector 기반 논블로킹 전송 계층
+ *  - 셀렉터 스레드 1개가 모든 연결의 읽기/쓰기를 처리
+ *  - 줄바꿈('\n') 단위로 요청을 잘라 작은 워커 풀에 넘기고, 응답은 셀렉터 스레드가 전송
+ *  - 유휴 연결은 스레드를 점유하지 않으므로 수천 개의 폴링 단말도 적은 스레드로 유지 가능
+ *  - 한 연결의 요청은 도착 순서대로 하나씩 처리 (응답 순서 보장)
+ *  - "BATCH:n" 헤더 뒤의 n줄은 셀렉터 스레드가 모아서 한 요청으로 넘김
+ *  - PAGE 요청은 일반 명령어처럼 처리 (응답은 한 페이지 크기로 제한됨, PageExecutor)
+ *  - COMPRESS:DEFLATE를 요청한 연결은 큰 응답을 압축해 전송 (ResponseCompressor)
+ *  - SUBSCRIBE_DASHBOARD를 요청한 연결에는 현황판 변경 알림을 워커가 응답과 같은 순서 큐로 전송
+ *  - 첫 바이트가 BinaryFrames.MAGIC인 연결은 길이 접두 바이너리 프레임 단위로 요청을 자름
+ *  - 처리/전송 대기가 MAX_QUEUED보다 많은 연결은 읽기를 멈춤 (응답을 읽지 않고 요청만 보내는 클라이언트가 힙을 채우지 못하도록)
+ * @author user
+ */
+public class NioServer {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_LINE_BYTES = 1024 * 1024; // 한 줄 요청 최대 크기
+    private static final int MAX_PENDING_PUSHES = 64;       // 보내지 못한 응답이 이보다 많으면 현황판 알림 구독 해지
+    private static final int MAX_QUEUED = 256;              // 처리 대기 요청 + 전송 대기 응답이 이만큼 쌓이면 읽기 중지
+
+    private final int port;
+    private final int backlog;
+    private final int maxConnections;
+    private final CommandRegistry registry;
+    private final BatchExecutor batchExecutor;
+    private final CompressionPolicy compression;
+    private final DashboardFeed dashboardFeed;
+    private final ExecutorService workers;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    // 워커가 응답을 만든 연결 목록 (셀렉터 스레드가 OP_WRITE 등록)
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+
+    public NioServer(int port, int backlog, int maxConnections, int workerCount, CommandRegistry registry, BatchExecutor batchExecutor,
+                     CompressionPolicy compression, DashboardFeed dashboardFeed) {
+        this.port = port;
+        this.backlog = backlog;
+        this.maxConnections = maxConnections;
+        this.registry = registry;
+        this.batchExecutor = batchExecutor;
+        this.compression = compression;
+        this.dashboardFeed = dashboardFeed;
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("nio-worker-", 0).factory());
+    }
+
+    /** 셀렉터 루프 실행 (호출한 스레드를 점유) */
+    public void run() throws IOException {
+        selector = Selector.open();
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), backlog);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+
+            while (true) {
+                selector.select();
+                registerPendingWrites();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) accept(server);
+                        if (key.isValid() && key.isReadable()) read(key);
+                        if (key.isValid() && key.isWritable()) write(key);
+                    } catch (IOException ex) {
+                        close(key);
+                    }
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            if (openConnections.get() >= maxConnections) {
+                // 접속 한도 초과: 거절 응답 후 종료
+                Log.warn("동시 접속 한도 초과로 연결 거절: " + channel.getRemoteAddress());
+                try {
+                    channel.write(ByteBuffer.wrap((ServerMain.BUSY_RESPONSE + "\n").getBytes(StandardCharsets.UTF_8)));
+                } catch (IOException ignored) {
+                }
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(key));
+            openConnections.incrementAndGet();
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buf = conn.readBuffer;
+        int n;
+        while ((n = channel.read(buf)) > 0) {
+            buf.flip();
+            conn.frame(buf);
+            buf.clear();
+            if (conn.queued() >= MAX_QUEUED) {
+                // 응답이 빠질 때까지 읽지 않음 (write에서 다시 켬)
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                return;
+            }
+        }
+        if (n < 0) {
+            // 클라이언트가 연결을 닫음
+            close(key);
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer head;
+        while ((head = conn.outbound.peek()) != null) {
+            channel.write(head);
+            if (head.hasRemaining()) break; // 소켓 버퍼가 가득 참, 다음 OP_WRITE에서 이어서 전송
+            conn.outbound.poll();
+        }
+        int ops = key.interestOps();
+        if (head == null) ops &= ~SelectionKey.OP_WRITE;
+        if ((ops & SelectionKey.OP_READ) == 0 && conn.queued() < MAX_QUEUED) {
+            ops |= SelectionKey.OP_READ; // 대기가 줄었으므로 읽기 재개
+        }
+        key.interestOps(ops);
+    }
+
+    private void registerPendingWrites() {
+        Connection conn;
+        while ((conn = pendingWrites.poll()) != null) {
+            SelectionKey key = conn.key;
+            if (conn.failed) {
+                close(key);
+            } else if (key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        Object att = key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        if (att instanceof Connection conn && conn.closed.compareAndSet(0, 1)) {
+            openConnections.decrementAndGet();
+            conn.subscriptions.close();
+            conn.compressor.close();
+        }
+    }
+
+    /** 연결별 상태: 읽기 버퍼, 미완성 줄/프레임, 처리 대기 요청, 전송 대기 응답 */
+    private final class Connection {
+        private static final int UNDECIDED = 0, TEXT = 1, BINARY_HANDSHAKE = 2, BINARY = 3;
+
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private int protocol = UNDECIDED;                           // 셀렉터 스레드 전용
+        private byte[] partial = new byte[256];
+        private int partialLength;
+        private int frameLength = -1;                               // 바이너리: 읽는 중인 프레임 길이 (-1: 길이 필드 읽는 중)
+        private List<String> batchLines;                            // 모으는 중인 BATCH (헤더 + 하위 명령)
+        private int batchExpected;
+        private final Queue<Supplier<ByteBuffer>> requests = new ArrayDeque<>(); // this 로 동기화, 요청 1건 = 응답을 만드는 작업
+        private boolean processing;                                 // this 로 동기화
+        private volatile boolean failed;                            // 워커가 응답을 만들지 못함 -> 셀렉터 스레드가 닫음
+        private FrameWriter frameWriter;                            // 바이너리 응답 작성기 (drain 중인 워커만 사용)
+        private final ResponseCompressor compressor = compression.newCompressor();
+        private final DashboardSubscriptions subscriptions = new DashboardSubscriptions(dashboardFeed);
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        Connection(SelectionKey key) {
+            this.key = key;
+        }
+
+        /** 읽은 바이트에서 완성된 요청(줄 또는 바이너리 프레임)을 잘라 요청 큐에 넣음 */
+        void frame(ByteBuffer buf) throws IOException {
+            if (protocol == UNDECIDED && buf.hasRemaining()) {
+                if ((buf.get(buf.position()) & 0xFF) == BinaryFrames.MAGIC) {
+                    buf.get();
+                    protocol = BINARY_HANDSHAKE;
+                    frameWriter = new FrameWriter();
+                } else {
+                    protocol = TEXT;
+                }
+            }
+            if (protocol == TEXT) {
+                frameLines(buf);
+            } else {
+                frameBinary(buf);
+            }
+        }
+
+        private void frameLines(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                byte b = buf.get();
+                if (b == '\n') {
+                    int len = partialLength;
+                    if (len > 0 && partial[len - 1] == '\r') len--;
+                    String line = new String(partial, 0, len, StandardCharsets.UTF_8);
+                    partialLength = 0;
+                    collect(line);
+                } else {
+                    if (partialLength == partial.length) {
+                        if (partial.length >= MAX_LINE_BYTES) {
+                            throw new IOException("요청 줄이 너무 깁니다");
+                        }
+                        partial = Arrays.copyOf(partial, Math.min(partial.length * 2, MAX_LINE_BYTES));
+                    }
+                    partial[partialLength++] = b;
+                }
+            }
+        }
+
+        private void frameBinary(ByteBuffer buf) throws IOException {
+            if (protocol == BINARY_HANDSHAKE && buf.hasRemaining()) {
+                // 협상 응답은 아직 다른 응답이 없으므로 바로 전송
+                int version = buf.get() & 0xFF;
+                boolean ok = version == BinaryFrames.VERSION;
+                SocketChannel channel = (SocketChannel) key.channel();
+                channel.write(ByteBuffer.wrap(new byte[] {(byte) BinaryFrames.MAGIC,
+                        (byte) (ok ? BinaryFrames.ACCEPTED : BinaryFrames.UNSUPPORTED_VERSION)}));
+                if (!ok) throw new ProtocolException("지원하지 않는 바이너리 프로토콜 버전: " + version);
+                protocol = BINARY;
+            }
+            while (buf.hasRemaining()) {
+                if (frameLength < 0) {
+                    // 4바이트 길이 필드
+                    partial[partialLength++] = buf.get();
+                    if (partialLength < 4) continue;
+                    frameLength = ByteBuffer.wrap(partial, 0, 4).getInt();
+                    partialLength = 0;
+                    if (frameLength < BinaryFrames.HEADER_BYTES || frameLength > BinaryFrames.MAX_FRAME_BYTES) {
+                        throw new ProtocolException("프레임 길이가 잘못되었습니다: " + frameLength);
+                    }
+                    if (partial.length < frameLength) {
+                        partial = new byte[Math.max(frameLength, partial.length * 2)];
+                    }
+                    continue;
+                }
+                int n = Math.min(buf.remaining(), frameLength - partialLength);
+                buf.get(partial, partialLength, n);
+                partialLength += n;
+                if (partialLength == frameLength) {
+                    byte[] payload = Arrays.copyOf(partial, frameLength);
+                    partialLength = 0;
+                    frameLength = -1;
+                    enqueue(() -> binaryResponse(payload));
+                }
+            }
+        }
+
+        /** 완성된 줄을 요청 단위로 묶음 (BATCH는 헤더와 하위 명령 줄을 모두 모은 뒤 넘김) */
+        private void collect(String line) {
+            if (batchLines != null) {
+                batchLines.add(line);
+                if (batchLines.size() > batchExpected) {
+                    List<String> lines = batchLines;
+                    enqueue(() -> textResponse(lines));
+                    batchLines = null;
+                }
+                return;
+            }
+            int tagEnd = ClientHandler.tagEnd(line);
+            int items = BatchExecutor.itemCount(tagEnd < 0 ? line : line.substring(tagEnd + 1));
+            if (items > 0) {
+                batchLines = new ArrayList<>();
+                batchLines.add(line);
+                batchExpected = items;
+                return;
+            }
+            enqueue(() -> textResponse(List.of(line)));
+        }
+
+        private void enqueue(Supplier<ByteBuffer> request) {
+            synchronized (this) {
+                if (failed) return; // 닫히는 중인 연결
+                requests.add(request);
+                if (processing) return; // 이미 워커가 이 연결을 처리 중
+                processing = true;
+            }
+            workers.execute(this::drain);
+        }
+
+        /** 처리 대기 요청 + 전송 대기 응답 수 */
+        int queued() {
+            int waiting;
+            synchronized (this) {
+                waiting = requests.size();
+            }
+            return waiting + outbound.size();
+        }
+
+        /**
+         * 워커 스레드: 이 연결의 대기 요청을 순서대로 처리
+         * - 응답을 만들다 예외가 나면 (압축기/구독/프레임 작성기 상태를 믿을 수 없으므로) 연결을 닫음
+         */
+        private void drain() {
+            boolean idle = false;
+            try {
+                while (true) {
+                    Supplier<ByteBuffer> request;
+                    synchronized (this) {
+                        request = requests.poll();
+                        if (request == null) {
+                            processing = false;
+                            idle = true;
+                            return;
+                        }
+                    }
+                    ByteBuffer response;
+                    try {
+                        response = request.get();
+                    } catch (RuntimeException ex) {
+                        Log.error("요청 처리 오류로 연결 종료", ex);
+                        failed = true; // 닫기는 셀렉터 스레드에서 (registerPendingWrites)
+                        pendingWrites.add(this);
+                        selector.wakeup();
+                        return;
+                    }
+                    outbound.add(response);
+                    pendingWrites.add(this);
+                    selector.wakeup();
+                }
+            } finally {
+                if (!idle) {
+                    synchronized (this) {
+                        requests.clear();
+                        processing = false;
+                    }
+                }
+            }
+        }
+
+        /** 텍스트 요청 처리 (lines: 요청 한 줄, 또는 BATCH 헤더 + 하위 명령 줄) */
+        private ByteBuffer textResponse(List<String> lines) {
+            String request = lines.get(0);
+            Log.access(request);
+            // 상관ID("#id ")가 붙은 요청은 응답에도 같은 상관ID를 붙임 (이 전송 계층에서는 순서대로 처리)
+            int tagEnd = ClientHandler.tagEnd(request);
+            String body = (tagEnd < 0) ? request : request.substring(tagEnd + 1);
+            String tag = (tagEnd < 0) ? "" : request.substring(0, tagEnd + 1);
+            String result = compressor.negotiate(body); // 압축 설정 응답 자체는 압축하지 않음
+            if (result == null) {
+                result = subscriptions.handle(body, date -> (d, rows) -> push(() -> textPush(tag, d, rows)));
+            }
+            if (result == null) {
+                result = compressor.encodeText((BatchExecutor.itemCount(body) >= 0)
+                        ? batchExecutor.execute(lines.subList(1, lines.size()))
+                        : registry.dispatch(body));
+            }
+            return ByteBuffer.wrap((tag + result + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** 바이너리 요청 프레임 처리 (응답 프레임은 전송 큐에 넣을 수 있도록 복사) */
+        private ByteBuffer binaryResponse(byte[] payload) {
+            FrameWriter writer = frameWriter;
+            boolean negotiating = false;
+            try {
+                FrameReader request = new FrameReader(ByteBuffer.wrap(payload));
+                writer.begin(request.correlationId());
+                try {
+                    String[] fields = request.fields();
+                    String joined = String.join(":", fields);
+                    Log.access("(binary) " + joined);
+                    String negotiated = compressor.negotiate(joined);
+                    int correlationId = request.correlationId();
+                    String subscribed = (negotiated != null) ? null
+                            : subscriptions.handle(joined, date -> (d, rows) -> push(() -> binaryPush(correlationId, d, rows)));
+                    if (negotiated != null) {
+                        writer.string(negotiated);
+                        negotiating = true; // 압축 설정 응답 자체는 압축하지 않음
+                    } else if (subscribed != null) {
+                        writer.string(subscribed);
+                    } else {
+                        registry.dispatch(fields, writer);
+                    }
+                } catch (ProtocolException ex) {
+                    writer.resetFields();
+                    writer.string("ERROR:Format (" + ex.getMessage() + ")");
+                }
+            } catch (ProtocolException ex) {
+                // 프레임 길이는 셀렉터 스레드에서 이미 확인했으므로 여기에 오지 않음
+                writer.begin(0).string("ERROR:Format (" + ex.getMessage() + ")");
+            }
+            return finishFrame(writer, !negotiating);
+        }
+
+        /** 작성한 프레임을 (압축하거나) 전송 큐에 넣을 수 있도록 복사 */
+        private ByteBuffer finishFrame(FrameWriter writer, boolean compress) {
+            ByteBuffer frame = writer.finish();
+            if (compress) {
+                ByteBuffer compressed = compressor.encodeFrame(frame);
+                if (compressed != frame) return compressed;
+            }
+            ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+            copy.put(frame).flip();
+            return copy;
+        }
+
+        /**
+         * 현황판 알림을 요청과 같은 큐에 넣음 (알림 스레드가 호출, 응답 순서와 압축기 사용이 워커 하나로 직렬화됨)
+         * @return 클라이언트가 응답을 읽지 않아 전송 대기가 쌓였으면 false
+         */
+        private boolean push(Supplier<ByteBuffer> notification) {
+            if (closed.get() != 0 || outbound.size() >= MAX_PENDING_PUSHES) return false;
+            enqueue(notification);
+            return true;
+        }
+
+        private ByteBuffer textPush(String tag, String date, List<DashboardRow> rows) {
+            String line = tag + compressor.encodeText(DashboardSubscriptions.text(date, rows)) + "\n";
+            return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private ByteBuffer binaryPush(int correlationId, String date, List<DashboardRow> rows) {
+            frameWriter.begin(correlationId);
+            DashboardSubscriptions.write(frameWriter, date, rows);
+            return finishFrame(frameWriter, true);
+        }
+    }
+}
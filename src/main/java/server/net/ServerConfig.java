@@ -0,0 +1,52 @@
+package server.net;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+import server.log.Log;
+
+/**
+ *  config.properties 설정값을 읽어 보관하는 클래스
+ *  - 파일이 없거나 값이 잘못된 경우 기본값을 사용
+ * @author user
+ */
+public class ServerConfig {
+    private final Properties prop = new Properties();
+
+    private ServerConfig() {
+    }
+
+    /** 클래스패스의 config.properties를 읽어 설정 객체 생성 */
+    public static ServerConfig load() {
+        ServerConfig config = new ServerConfig();
+        try (InputStream input = ServerConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (input != null) {
+                config.prop.load(input);
+            }
+        } catch (Exception e) {
+            Log.warn("config.properties를 읽지 못했습니다. 기본 설정 사용");
+        }
+        return config;
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = prop.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            Log.warn(key + " 값이 숫자가 아닙니다. 기본값 " + defaultValue + " 사용");
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = prop.getProperty(key);
+        return (value == null) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
@@ -1,7 +1,20 @@
 package server.net;
 import java.io.*;
 import java.net.*;
-import java.util.Properties;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import server.log.Log;
+import server.log.LogLevel;
+import server.metrics.Metrics;
+import server.net.command.*;
+import server.net.compress.CompressionPolicy;
+import server.net.compress.CompressionStats;
+import server.net.push.DashboardSubscriptions;
+import server.repository.Storage;
 import server.service.*;
 /**
  *  HMS서버 메인 클래스
@@ -10,54 +23,184 @@ import server.service.*;
 public class ServerMain {
 
     // private static final int PORT = 5000; // TCP서버 포트번호
-    
+
+    /** 동시 접속 한도를 넘었을 때 클라이언트에 보내는 응답 */
+    static final String BUSY_RESPONSE = "ERROR:ServerBusy";
+
     public static void main(String[] args) {
-        System.out.println("HMS 서버 시작");
-
-        // config.properties에서 포트 읽기
-        int port = 5000;
-        try (InputStream input = ServerMain.class.getClassLoader().getResourceAsStream("config.properties")) {
-            if (input != null) {
-                Properties prop = new Properties();
-                prop.load(input);
-                String portStr = prop.getProperty("server.port");
-                if (portStr != null) {
-                    port = Integer.parseInt(portStr);
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("[경고] config.properties에서 포트 정보를 읽지 못했습니다. 기본값 5000 사용");
-        }
+        // config.properties에서 서버 설정 읽기
+        ServerConfig config = ServerConfig.load();
+        configureLogging(config);
+        Log.info("HMS 서버 시작");
+        int port = config.getInt("server.port", 5000);
+        String executorMode = config.getString("server.executor", "virtual");
+        int maxConnections = config.getInt("server.maxConnections", 512);
+        int backlog = config.getInt("server.backlog", 128);
+        int admissionTimeoutMs = config.getInt("server.admissionTimeoutMs", 200);
+        String transport = config.getString("server.transport", "blocking");
+        int maxInFlight = config.getInt("server.pipeline.maxInFlight", 16);
+        int maxBatchItems = config.getInt("server.batch.maxItems", 1000);
+        int maxPageSize = config.getInt("server.page.maxSize", 1000);
+        CompressionPolicy compression = new CompressionPolicy(
+                config.getBoolean("server.compress.enabled", true),
+                config.getInt("server.compress.threshold", 1024),
+                config.getInt("server.compress.level", 6),
+                new CompressionStats());
+
+        // 저장 엔진은 저장소(서비스)를 만들기 전에 정함
+        Storage.select(config.getString("storage.engine", "csv"));
+        Log.info("저장 엔진: " + Storage.engineName());
 
         // 서비스 객체들을 서버 시작 시점에 '단 한 번'만 생성
         AuthService authService = new AuthService();
-        HotelService hotelService = new HotelService();
+        HotelService hotelService = HotelService.create();
         MenuService menuService = new MenuService();
         MenuOrderService menuOrderService = new MenuOrderService();
         ReportService reportService = new ReportService(hotelService.getReservationRepository(), hotelService.getRoomRepository(), menuOrderService);
+        // SUBSCRIBE_DASHBOARD 연결에 객실 현황 변경을 알림 (모든 연결 공유)
+        DashboardFeed dashboardFeed = new DashboardFeed(hotelService);
+        dashboardFeed.start();
+
+        // 명령어 등록 (모든 연결이 공유)
+        CommandRegistry registry = new CommandRegistry();
+        new AuthCommands(authService).registerTo(registry);
+        new HotelCommands(hotelService).registerTo(registry);
+        new MenuCommands(menuService, menuOrderService).registerTo(registry);
+        new ReportCommands(reportService).registerTo(registry);
+        new ServerCommands(compression.stats()).registerTo(registry);
+
+        // 명령어/저장소 지표를 주기적으로 파일에 기록 (GET_METRICS로도 조회 가능)
+        int metricsInterval = config.getInt("server.metrics.dumpIntervalSec", 60);
+        if (metricsInterval > 0) {
+            Metrics.startDump(config.getString("server.metrics.dumpFile", "logs/metrics.txt"), metricsInterval);
+        }
+        BatchExecutor batchExecutor = new BatchExecutor(registry, maxBatchItems);
+        PageExecutor pageExecutor = new PageExecutor(registry, maxPageSize);
+        new ConditionalExecutor(registry); // IF_VERSION:버전:명령어 -> NOT_MODIFIED 또는 VERSION:버전:응답
+
+        if ("nio".equalsIgnoreCase(transport)) {
+            // 논블로킹 전송: 셀렉터 1개 + 작은 워커 풀, 요청 처리는 같은 CommandRegistry 사용
+            int workerCount = config.getInt("server.nio.workers", Runtime.getRuntime().availableProcessors());
+            Log.info("전송 모드: nio, 워커: " + workerCount + ", 최대 동시 접속: " + maxConnections);
+            try {
+                new NioServer(port, backlog, maxConnections, workerCount, registry, batchExecutor, compression, dashboardFeed).run();
+            } catch (IOException ex) {
+                Log.error("NIO 서버 오류", ex);
+            }
+            return;
+        }
+
+        // 연결 실행기: virtual(가상 스레드, 기본값) 또는 platform(연결마다 OS 스레드)
+        ThreadFactory factory = "platform".equalsIgnoreCase(executorMode)
+                ? Thread.ofPlatform().name("client-", 0).factory()
+                : Thread.ofVirtual().name("client-", 0).factory();
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(factory);
+        // 한도가 찬 동안 들어온 연결이 빈 슬롯을 기다리는 가상 스레드 (거절될 연결에 OS 스레드를 쓰지 않음)
+        ExecutorService admission = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("admission-", 0).factory());
+        // 상관ID가 붙은 조회 요청을 동시에 실행할 가상 스레드 실행기 (모든 연결 공유)
+        ExecutorService pipelineExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        // 동시 접속 수 제한 (허용 슬롯)
+        Semaphore slots = new Semaphore(maxConnections);
+        Log.info("연결 실행 모드: " + executorMode + ", 최대 동시 접속: " + maxConnections + ", backlog: " + backlog);
 
         try{
-            ServerSocket serverSocket = new ServerSocket(port);
+            ServerSocket serverSocket = new ServerSocket(port, backlog);
             while(true){
                 Socket clientSocket = serverSocket.accept();
-                System.out.println("클라이언트 접속");
-
-                ClientHandler handler = new ClientHandler(
-                    clientSocket,
-                    authService,
-                    hotelService,
-                    menuService,
-                    menuOrderService,
-                    reportService
-                );
-
-                Thread t = new Thread(handler);
-                t.start();
+
+                // accept 스레드는 기다리지 않음: 빈 슬롯이 있으면 바로 연결 스레드를 시작하고,
+                // 없으면 가상 스레드가 admissionTimeoutMs까지 기다렸다가 시작하거나 거절
+                Runnable session = () -> {
+                    Log.debug("클라이언트 접속");
+                    try {
+                        ClientHandler handler = new ClientHandler(clientSocket, registry, batchExecutor, pageExecutor, compression.newCompressor(),
+                                new DashboardSubscriptions(dashboardFeed), pipelineExecutor, maxInFlight);
+                        handler.run();
+                    } finally {
+                        closeQuietly(clientSocket);
+                        slots.release();
+                    }
+                };
+                if (slots.tryAcquire()) {
+                    start(executor, session, clientSocket, slots);
+                    continue;
+                }
+                try {
+                    admission.execute(() -> {
+                        if (acquire(slots, admissionTimeoutMs)) {
+                            start(executor, session, clientSocket, slots);
+                        } else {
+                            reject(clientSocket);
+                        }
+                    });
+                } catch (RuntimeException ex) {
+                    // 실행기 등록 실패 시 거절
+                    reject(clientSocket);
+                }
             }
         }
 
         catch(IOException ex){
-            ex.printStackTrace();
+            Log.error("서버 소켓 오류", ex);
+        }
+        finally {
+            executor.shutdown();
+            admission.shutdown();
+            pipelineExecutor.shutdown();
+        }
+    }
+
+    /** 로그 수준, 요청 로그 표본 비율, 콘솔/파일 출력 설정 */
+    private static void configureLogging(ServerConfig config) {
+        Log.setLevel(LogLevel.parse(config.getString("server.log.level", "INFO"), LogLevel.INFO));
+        Log.setAccessSampleRate(config.getInt("server.log.accessSampleRate", 1));
+        Log.setConsole(config.getBoolean("server.log.console", true));
+        String file = config.getString("server.log.file", "logs/server.log");
+        if (file.isBlank()) return;
+        try {
+            Log.toFile(file, config.getInt("server.log.maxSizeMb", 10) * 1024L * 1024L, config.getInt("server.log.maxFiles", 5));
+        } catch (IOException ex) {
+            Log.error("로그 파일을 열 수 없습니다: " + file, ex);
+        }
+    }
+
+    /** 빈 슬롯을 얻은 연결의 처리를 시작 (실행기 등록 실패 시 슬롯을 돌려주고 거절) */
+    private static void start(ExecutorService executor, Runnable session, Socket socket, Semaphore slots) {
+        try {
+            executor.execute(session);
+        } catch (RuntimeException ex) {
+            slots.release();
+            reject(socket);
+        }
+    }
+
+    /** 빈 슬롯을 timeoutMs까지 기다림 (대기용 가상 스레드에서, 인터럽트되면 거절) */
+    private static boolean acquire(Semaphore slots, int timeoutMs) {
+        try {
+            return slots.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** 접속 한도 초과 시 거절 응답을 보내고 소켓을 닫음 */
+    private static void reject(Socket socket) {
+        Log.warn("동시 접속 한도 초과로 연결 거절: " + socket.getRemoteSocketAddress());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write((BUSY_RESPONSE + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException ignored) {
+            // 거절 응답 전송 실패는 무시
+        }
+        closeQuietly(socket);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
         }
     }
 }
@@ -0,0 +1,43 @@
+package server.net.binary;
+
+/**
+ *  길이 접두 바이너리 프로토콜 상수
+ *  <pre>
+ *  협상: 클라이언트가 접속 직후 [MAGIC][VERSION] 2바이트 전송 -> 서버가 [MAGIC][상태] 2바이트 응답
+ *        (첫 바이트가 MAGIC이 아니면 기존 줄 단위 텍스트 프로토콜로 처리)
+ *  요청 프레임: int32 길이 | int32 상관ID | int32 필드 수 | 필드...   (필드 0 = 명령어 이름)
+ *  응답 프레임: int32 길이 | int32 상관ID | int32 필드 수 | 필드...   (필드 0 = 응답 종류 또는 텍스트 응답 전체)
+ *  압축 응답: int32 길이 | int32 상관ID | int32 COMPRESSED(-1) | int32 원본 길이 | deflate(필드 수 + 필드)
+ *             (COMPRESS:DEFLATE로 압축을 켠 연결에서만, ResponseCompressor 참고)
+ *  필드: 1바이트 타입 + 값
+ *        STRING: int32 바이트 수 + UTF-8 / INT: int32 / LONG: int64 / BOOL: 1바이트(0, 1)
+ *  </pre>
+ *  - 길이는 길이 필드 자신을 뺀 나머지 바이트 수, 모든 정수는 빅엔디안
+ *  - 필드 값에 ':' 나 ',' 가 들어 있어도 이스케이프 없이 그대로 전달됨
+ * @author user
+ */
+public final class BinaryFrames {
+    /** 협상 바이트 (UTF-8 텍스트의 첫 바이트로는 나올 수 없는 값) */
+    public static final int MAGIC = 0xB1;
+    public static final int VERSION = 1;
+
+    /** 협상 응답 상태 */
+    public static final int ACCEPTED = 0;
+    public static final int UNSUPPORTED_VERSION = 1;
+
+    /** 필드 타입 */
+    public static final byte STRING = 1;
+    public static final byte INT = 2;
+    public static final byte LONG = 3;
+    public static final byte BOOL = 4;
+
+    /** 응답 프레임의 필드 수 자리에 오면 나머지가 deflate로 압축되어 있음 */
+    public static final int COMPRESSED = -1;
+
+    /** 상관ID + 필드 수 */
+    public static final int HEADER_BYTES = 8;
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private BinaryFrames() {
+    }
+}
@@ -0,0 +1,80 @@
+package server.net.binary;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  요청 프레임 본문(길이 필드 제외) 해석
+ *  - 필드는 핸들러가 쓰는 문자열 토큰으로 변환 (INT/LONG/BOOL은 10진수/true/false 표기)
+ * @author user
+ */
+public final class FrameReader {
+    private final ByteBuffer payload;
+    private final int correlationId;
+
+    /** payload의 position부터 limit까지가 프레임 본문 */
+    public FrameReader(ByteBuffer payload) throws ProtocolException {
+        if (payload.remaining() < BinaryFrames.HEADER_BYTES) {
+            throw new ProtocolException("프레임이 너무 짧습니다");
+        }
+        this.payload = payload;
+        this.correlationId = payload.getInt();
+    }
+
+    public int correlationId() {
+        return correlationId;
+    }
+
+    /** 요청 필드 목록 (0번은 명령어 이름) */
+    public String[] fields() throws ProtocolException {
+        int count = payload.getInt();
+        if (count < 1 || count > payload.remaining()) {
+            throw new ProtocolException("필드 수가 잘못되었습니다: " + count);
+        }
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = readField();
+        }
+        return fields;
+    }
+
+    private String readField() throws ProtocolException {
+        need(1);
+        byte type = payload.get();
+        switch (type) {
+            case BinaryFrames.STRING:
+                need(4);
+                int len = payload.getInt();
+                if (len < 0) throw new ProtocolException("문자열 길이가 잘못되었습니다: " + len);
+                need(len);
+                String s;
+                if (payload.hasArray()) {
+                    s = new String(payload.array(), payload.arrayOffset() + payload.position(), len, StandardCharsets.UTF_8);
+                    payload.position(payload.position() + len);
+                } else {
+                    byte[] bytes = new byte[len];
+                    payload.get(bytes);
+                    s = new String(bytes, StandardCharsets.UTF_8);
+                }
+                return s;
+            case BinaryFrames.INT:
+                need(4);
+                return Integer.toString(payload.getInt());
+            case BinaryFrames.LONG:
+                need(8);
+                return Long.toString(payload.getLong());
+            case BinaryFrames.BOOL:
+                need(1);
+                return payload.get() != 0 ? "true" : "false";
+            default:
+                throw new ProtocolException("알 수 없는 필드 타입: " + type);
+        }
+    }
+
+    private void need(int bytes) throws ProtocolException {
+        if (payload.remaining() < bytes) {
+            throw new ProtocolException("프레임이 필드 도중에 끝났습니다");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package server.net.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  응답 프레임 작성기
+ *  - 필드를 중간 문자열/바이트 배열 없이 버퍼에 바로 인코딩
+ *  - 연결마다 하나를 두고 재사용 (스레드 안전하지 않음)
+ *  <pre>
+ *  writer.begin(correlationId).string("USER_LIST").int32(rows)...; ByteBuffer frame = writer.finish();
+ *  </pre>
+ * @author user
+ */
+public final class FrameWriter {
+    private static final int FIELDS_START = 4 + BinaryFrames.HEADER_BYTES;
+
+    private ByteBuffer buf = ByteBuffer.allocate(4096);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private int fieldCount;
+
+    /** 새 응답 프레임 시작 */
+    public FrameWriter begin(int correlationId) {
+        buf.clear();
+        buf.putInt(0);            // 길이 (finish에서 채움)
+        buf.putInt(correlationId);
+        buf.putInt(0);            // 필드 수 (finish에서 채움)
+        fieldCount = 0;
+        return this;
+    }
+
+    /** 지금까지 쓴 필드를 버림 (핸들러 도중 오류가 나서 오류 응답으로 바꿀 때) */
+    public void resetFields() {
+        buf.position(FIELDS_START);
+        fieldCount = 0;
+    }
+
+    public FrameWriter string(String value) {
+        if (value == null) value = "";
+        ensure(1 + 4 + value.length() * 3); // UTF-8은 char 하나당 최대 3바이트
+        buf.put(BinaryFrames.STRING);
+        int lengthPos = buf.position();
+        buf.putInt(0);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(value), buf, true);
+        encoder.flush(buf);
+        buf.putInt(lengthPos, buf.position() - lengthPos - 4);
+        fieldCount++;
+        return this;
+    }
+
+    public FrameWriter int32(int value) {
+        ensure(5);
+        buf.put(BinaryFrames.INT).putInt(value);
+        fieldCount++;
+        return this;
+    }
+
+    public FrameWriter int64(long value) {
+        ensure(9);
+        buf.put(BinaryFrames.LONG).putLong(value);
+        fieldCount++;
+        return this;
+    }
+
+    public FrameWriter bool(boolean value) {
+        ensure(2);
+        buf.put(BinaryFrames.BOOL).put((byte) (value ? 1 : 0));
+        fieldCount++;
+        return this;
+    }
+
+    /** 길이/필드 수를 채우고 전송할 프레임 반환 (다음 begin 전까지 유효) */
+    public ByteBuffer finish() {
+        buf.putInt(0, buf.position() - 4);
+        buf.putInt(8, fieldCount);
+        buf.flip();
+        return buf;
+    }
+
+    private void ensure(int bytes) {
+        if (buf.remaining() >= bytes) return;
+        int capacity = buf.capacity();
+        while (capacity - buf.position() < bytes) capacity *= 2;
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        buf.flip();
+        bigger.put(buf);
+        buf = bigger;
+    }
+}
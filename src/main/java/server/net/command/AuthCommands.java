@@ -0,0 +1,85 @@
+package server.net.command;
+
+import java.util.List;
+
+import server.model.User;
+import server.net.binary.FrameWriter;
+import server.repository.Slice;
+import server.service.AuthService;
+
+/**
+ *  로그인 및 사용자 관리 명령어
+ *  LOGIN, GET_USERS, ADD_USER, DELETE_USER, MODIFY_USER
+ * @author user
+ */
+public class AuthCommands {
+    private final AuthService authService;
+
+    public AuthCommands(AuthService authService) {
+        this.authService = authService;
+    }
+
+    public void registerTo(CommandRegistry registry) {
+        registry.register(CommandSpec.of("LOGIN", this::login).limit(3).tokens(3).formatError("ERROR:Invalid LOGIN format").readOnly());
+        registry.register(CommandSpec.of("GET_USERS", this::getUsers).readOnly().binary(this::writeUsers)
+                .paged("USER_LIST", this::pageUsers));
+        // 형식(필수): ADD_USER:id:name:pw:role:phone  => 총 6토큰, 모두 공백불가
+        registry.register(CommandSpec.of("ADD_USER", this::addUser).tokens(6).formatError("ADD_FAIL:Format"));
+        registry.register(CommandSpec.of("DELETE_USER", this::deleteUser).limit(3).tokens(2, 3).formatError("DELETE_FAIL:Format"));
+        registry.register(CommandSpec.of("MODIFY_USER", this::modifyUser).tokens(6).formatError("MODIFY_FAIL:Format"));
+    }
+
+    private String login(RequestTokens t) {
+        User user = authService.login(t.get(1), t.get(2));
+        if (user != null) {
+            return "LOGIN_SUCCESS:" + user.getRole(); //로그인 성공
+        }
+        return "LOGIN_FAIL:Invalid credentials"; // 로그인 실패
+    }
+
+    private String getUsers(RequestTokens t) {
+        //서비스에서 모든 유저 가져오기
+        List<User> users = authService.getAllUsers();
+        StringBuilder sb = new StringBuilder("USER_LIST:");
+        for (User u : users) {
+            sb.append(userRow(u)).append("/");
+        }
+        return sb.toString();
+    }
+
+    // PAGE:크기:커서:GET_USERS
+    private Slice<String> pageUsers(RequestTokens t, long cursor, int size) {
+        return authService.getUsers(cursor, size).map(AuthCommands::userRow);
+    }
+
+    // 아이디,비밀번호,권한,전화번호,이름
+    private static String userRow(User u) {
+        return u.getId() + "," + u.getPassword() + "," + u.getRole() + "," + u.getPhone() + "," + u.getName();
+    }
+
+    // 바이너리: "USER_LIST", 행 수, 행마다 5개 필드 (아이디, 비밀번호, 권한, 전화번호, 이름)
+    private void writeUsers(RequestTokens t, FrameWriter out) {
+        List<User> users = authService.getAllUsers();
+        out.string("USER_LIST").int32(users.size());
+        for (User u : users) {
+            out.string(u.getId()).string(u.getPassword()).string(u.getRole()).string(u.getPhone()).string(u.getName());
+        }
+    }
+
+    private String addUser(RequestTokens t) {
+        if (t.isBlank(1) || t.isBlank(2) || t.isBlank(3) || t.isBlank(4) || t.isBlank(5)) return "ADD_FAIL:FieldRequired";
+        boolean ok = authService.addUser(t.get(1), t.get(2), t.get(3), t.get(4), t.get(5));
+        return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateOrError";
+    }
+
+    private String deleteUser(RequestTokens t) {
+        boolean ok = authService.deleteUser(t.get(1));
+        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
+    }
+
+    private String modifyUser(RequestTokens t) {
+        if (t.isBlank(1) || t.isBlank(2) || t.isBlank(3) || t.isBlank(4) || t.isBlank(5)) return "MODIFY_FAIL:FieldRequired";
+        boolean ok = authService.modifyUser(t.get(1), t.get(2), t.get(3), t.get(4), t.get(5));
+        return ok ? "MODIFY_SUCCESS" : "MODIFY_FAIL";
+    }
+}
@@ -0,0 +1,105 @@
+package server.net.command;
+
+import java.util.List;
+
+import server.metrics.CommandMetrics;
+import server.metrics.Metrics;
+
+/**
+ *  BATCH 요청 처리
+ *  <pre>
+ *  요청: BATCH:3            응답: BATCH_RESULT:3
+ *        CHECK_OUT:R-1001         SUCCESS
+ *        CHECK_OUT:R-1002         FAIL
+ *        UPDATE_RESERVATION_STATUS:R-1003:Confirmed   UPDATE_SUCCESS
+ *  </pre>
+ *  - 헤더 다음 줄부터 개수만큼의 줄이 하위 명령 (연결 계층이 모아서 전달)
+ *  - 연속된 하위 명령이 같은 BatchScope를 쓰면 한 범위 안에서 실행 (잠금 1회, 파일 쓰기 1회)
+ *  - 결과는 하위 명령 순서대로 한 줄씩 반환
+ *  - 묶어 쓰기에 실패하면 그 범위의 변경은 모두 취소되고 범위 안의 하위 명령은 ERROR:WriteFailed
+ * @author user
+ */
+public class BatchExecutor {
+    public static final String COMMAND = "BATCH";
+    private static final String PREFIX = COMMAND + ":";
+    private static final String WRITE_FAILED = "ERROR:WriteFailed";
+
+    private final CommandRegistry registry;
+    private final int maxItems;
+    private final CommandMetrics metrics = Metrics.command(COMMAND); // BATCH 전체 처리 시간
+
+    public BatchExecutor(CommandRegistry registry, int maxItems) {
+        this.registry = registry;
+        this.maxItems = maxItems;
+        // 헤더 형식이 잘못된 경우 일반 명령어 처리로 넘어오므로 형식 오류 응답
+        registry.register(CommandSpec.of(COMMAND, t -> "ERROR:Format (Expected BATCH:count followed by count lines)"));
+    }
+
+    /** BATCH 헤더("BATCH:n")면 뒤따르는 하위 명령 줄 수, 아니면 -1 */
+    public static int itemCount(String request) {
+        if (!request.startsWith(PREFIX)) return -1;
+        try {
+            int n = Integer.parseInt(request.substring(PREFIX.length()).trim());
+            return n >= 0 ? n : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** 하위 명령들을 실행하고 "BATCH_RESULT:n" + 결과 n줄을 반환 */
+    public String execute(List<String> items) {
+        if (items.size() > maxItems) {
+            return "ERROR:BatchTooLarge (max " + maxItems + ")";
+        }
+        long start = metrics.begin();
+        try {
+            return run(items);
+        } finally {
+            metrics.end(start, false);
+        }
+    }
+
+    private String run(List<String> items) {
+        String[] results = new String[items.size()];
+        int i = 0;
+        while (i < items.size()) {
+            CommandSpec spec = registry.lookup(items.get(i));
+            if (spec != null && spec.name().equals(PageExecutor.COMMAND)) {
+                // 여러 줄 응답은 BATCH 결과(하위 명령당 한 줄)에 넣을 수 없음
+                results[i++] = "ERROR:NotAllowedInBatch " + PageExecutor.COMMAND;
+                continue;
+            }
+            BatchScope scope = (spec != null) ? spec.batchScope() : null;
+            if (scope == null) {
+                results[i] = registry.dispatch(items.get(i));
+                i++;
+                continue;
+            }
+            // 같은 범위를 쓰는 연속된 하위 명령을 한 번에 실행
+            int end = i + 1;
+            while (end < items.size()) {
+                CommandSpec next = registry.lookup(items.get(end));
+                if (next == null || next.batchScope() != scope) break;
+                end++;
+            }
+            int from = i;
+            int to = end;
+            boolean written = scope.run(() -> {
+                for (int k = from; k < to; k++) {
+                    results[k] = registry.dispatch(items.get(k));
+                }
+            });
+            if (!written) {
+                // 범위 안의 변경이 모두 되돌려졌으므로 하위 명령의 응답을 실패로 바꿈
+                for (int k = from; k < to; k++) results[k] = WRITE_FAILED;
+            }
+            i = end;
+        }
+
+        StringBuilder sb = new StringBuilder("BATCH_RESULT:").append(results.length);
+        for (String r : results) {
+            sb.append('\n').append(r);
+        }
+        return sb.toString();
+    }
+}
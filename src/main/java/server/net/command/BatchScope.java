@@ -0,0 +1,15 @@
+package server.net.command;
+
+/**
+ *  BATCH 안에서 같은 저장소를 쓰는 하위 명령들을 한 번에 묶어 실행하는 범위
+ *  - 예: 예약 저장소는 잠금 한 번, 파일 쓰기 한 번으로 여러 변경을 적용
+ * @author user
+ */
+@FunctionalInterface
+public interface BatchScope {
+    /**
+     * body 안에서 실행되는 변경들을 하나의 잠금/쓰기 범위로 묶어 실행
+     * @return 묶어 쓰기에 실패해 body의 변경을 모두 되돌렸으면 false
+     */
+    boolean run(Runnable body);
+}
@@ -0,0 +1,15 @@
+package server.net.command;
+
+import server.net.binary.FrameWriter;
+
+/**
+ *  바이너리 프로토콜 전용 응답 작성기
+ *  - 목록 응답을 텍스트로 만들지 않고 타입이 있는 필드로 바로 기록
+ *  - 필드 0은 응답 종류(예: "USER_LIST"), 필드 1은 행 수, 이후 행마다 정해진 개수의 필드
+ *  - 등록되지 않은 명령어는 텍스트 응답 전체를 STRING 필드 하나로 보냄
+ * @author user
+ */
+@FunctionalInterface
+public interface BinaryHandler {
+    void write(RequestTokens tokens, FrameWriter out) throws Exception;
+}
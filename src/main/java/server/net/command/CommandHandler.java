@@ -0,0 +1,15 @@
+package server.net.command;
+
+/**
+ *  명령어 하나의 처리 로직
+ *  - 토큰 개수 검사는 CommandRegistry가 먼저 수행하므로 핸들러는 인자 사용만 신경쓰면 됨
+ * @author user
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * @param args 토큰화된 요청 (args.get(0)은 명령어)
+     * @return 클라이언트에 보낼 응답 한 줄
+     */
+    String handle(RequestTokens args) throws Exception;
+}
@@ -0,0 +1,164 @@
+package server.net.command;
+
+import server.log.Log;
+import server.metrics.CommandMetrics;
+import server.metrics.Metrics;
+import server.net.binary.FrameWriter;
+
+/**
+ *  명령어 이름 -> 명령어 정의 매핑 및 요청 분배
+ *  - 서버 시작 시 한 번 등록해두고 모든 연결이 공유 (등록 이후에는 읽기 전용)
+ *  - 요청 문자열에서 명령어 구간을 잘라내지 않고 바로 해시 테이블에서 찾음
+ *  - 토큰 정보(RequestTokens)는 스레드별로 재사용
+ *  - 텍스트 요청(한 줄)과 바이너리 요청(필드 배열)을 같은 핸들러로 처리
+ *  - 명령어별 처리 수, 오류 수("ERROR"로 시작하는 응답, 형식 오류, 예외), 지연시간을 Metrics에 기록
+ * @author user
+ */
+public class CommandRegistry {
+    private static final CommandMetrics UNKNOWN = Metrics.command("(unknown)");
+
+    private CommandSpec[] table = new CommandSpec[64]; // 개방 주소법 해시 테이블 (크기는 2의 거듭제곱)
+    private int size;
+    private final ThreadLocal<RequestTokens> tokenCache = ThreadLocal.withInitial(RequestTokens::new);
+    private final ThreadLocal<Boolean> dispatching = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /** 명령어 등록 (같은 이름이 있으면 예외) */
+    public synchronized void register(CommandSpec spec) {
+        if (find(spec.name(), 0, spec.name().length()) != null) {
+            throw new IllegalArgumentException("이미 등록된 명령어: " + spec.name());
+        }
+        if ((size + 1) * 2 > table.length) resize();
+        insert(table, spec);
+        size++;
+    }
+
+    /** 등록된 명령어 정의 조회 (없으면 null) */
+    public CommandSpec get(String name) {
+        return find(name, 0, name.length());
+    }
+
+    /**
+     * 요청 한 줄을 처리하여 응답 문자열 반환
+     * - 알 수 없는 명령어, 토큰 개수 오류, 처리 중 예외를 모두 응답 문자열로 변환
+     */
+    public String dispatch(String request) {
+        long range = commandRange(request);
+        int start = (int) (range >>> 32);
+        int nameEnd = (int) range;
+
+        CommandSpec spec = find(request, start, nameEnd);
+        if (spec == null) {
+            String command = request.substring(start, nameEnd);
+            Log.warn("알 수 없는 명령어: [" + command + "]");
+            UNKNOWN.error();
+            return "ERROR:Unknown command " + command;
+        }
+        return invoke(spec, request, null, null);
+    }
+
+    /**
+     * 바이너리 요청(필드 0 = 명령어)을 처리하여 응답 필드를 out에 기록
+     * - 바이너리 응답 작성기가 있는 명령어는 필드를 직접 쓰고, 없으면 텍스트 응답을 STRING 필드 하나로 기록
+     */
+    public void dispatch(String[] fields, FrameWriter out) {
+        String command = fields[0].trim();
+        CommandSpec spec = get(command);
+        if (spec == null) {
+            Log.warn("알 수 없는 명령어: [" + command + "]");
+            UNKNOWN.error();
+            out.string("ERROR:Unknown command " + command);
+            return;
+        }
+        String response = invoke(spec, null, fields, out);
+        if (response != null) out.string(response);
+    }
+
+    // 텍스트 요청(request) 또는 바이너리 필드(fields)를 토큰화해 핸들러 실행
+    // 바이너리 응답 작성기가 out에 직접 기록한 경우 null 반환
+    private String invoke(CommandSpec spec, String request, String[] fields, FrameWriter out) {
+        // 핸들러 안에서 다시 dispatch하는 경우(중첩)에는 스레드 캐시를 덮어쓰지 않도록 새로 생성
+        boolean nested = dispatching.get();
+        RequestTokens tokens = nested ? new RequestTokens() : tokenCache.get();
+        if (!nested) dispatching.set(Boolean.TRUE);
+        CommandMetrics metrics = spec.metrics();
+        long start = metrics.begin();
+        boolean error = true;
+        try {
+            if (fields != null) {
+                tokens.fields(fields);
+            } else {
+                tokens.tokenize(request, spec.limit());
+            }
+            if (!spec.accepts(tokens.count())) {
+                return spec.formatError();
+            }
+            if (out != null && spec.binaryHandler() != null) {
+                spec.binaryHandler().write(tokens, out);
+                error = false;
+                return null;
+            }
+            String response = spec.handler().handle(tokens);
+            error = response == null || response.startsWith("ERROR");
+            return response;
+        } catch (Exception ex) {
+            if (out != null) out.resetFields(); // 쓰다 만 필드 대신 오류 응답
+            Log.error("명령어 처리 오류: " + spec.name(), ex);
+            return "ERROR:Internal server error: " + ex.getMessage();
+        } finally {
+            metrics.end(start, error);
+            if (!nested) dispatching.set(Boolean.FALSE);
+        }
+    }
+
+    /** 요청 한 줄의 명령어에 해당하는 정의 (없으면 null) */
+    public CommandSpec lookup(String request) {
+        long range = commandRange(request);
+        return find(request, (int) (range >>> 32), (int) range);
+    }
+
+    // 첫 ':' 앞의 명령어 구간(앞뒤 공백 제외)을 [시작 << 32 | 끝]으로 반환
+    private static long commandRange(String request) {
+        int end = request.indexOf(':');
+        if (end < 0) end = request.length();
+        int start = 0;
+        while (start < end && Character.isWhitespace(request.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(request.charAt(end - 1))) end--;
+        return ((long) start << 32) | end;
+    }
+
+    private CommandSpec find(String s, int start, int end) {
+        CommandSpec[] t = table;
+        int mask = t.length - 1;
+        int idx = hash(s, start, end) & mask;
+        CommandSpec spec;
+        while ((spec = t[idx]) != null) {
+            String name = spec.name();
+            if (name.length() == end - start && s.regionMatches(start, name, 0, name.length())) {
+                return spec;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return null;
+    }
+
+    private void resize() {
+        CommandSpec[] bigger = new CommandSpec[table.length * 2];
+        for (CommandSpec spec : table) {
+            if (spec != null) insert(bigger, spec);
+        }
+        table = bigger;
+    }
+
+    private static void insert(CommandSpec[] t, CommandSpec spec) {
+        int mask = t.length - 1;
+        int idx = hash(spec.name(), 0, spec.name().length()) & mask;
+        while (t[idx] != null) idx = (idx + 1) & mask;
+        t[idx] = spec;
+    }
+
+    private static int hash(String s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + s.charAt(i);
+        return h ^ (h >>> 16);
+    }
+}
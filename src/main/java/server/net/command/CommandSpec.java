@@ -0,0 +1,142 @@
+package server.net.command;
+
+import java.util.function.LongSupplier;
+
+import server.metrics.CommandMetrics;
+import server.metrics.Metrics;
+
+/**
+ *  명령어 정의: 이름, 분할 규칙, 허용 토큰 개수, 형식 오류 응답, 핸들러
+ *  <pre>
+ *  CommandSpec.of("LOGIN", this::login).limit(3).tokens(3).formatError("ERROR:Invalid LOGIN format")
+ *  </pre>
+ * @author user
+ */
+public final class CommandSpec {
+    private final String name;
+    private final CommandHandler handler;
+    private final CommandMetrics metrics;  // 처리 수, 오류 수, 지연시간 (GET_METRICS)
+    private int limit = 0;                 // String.split(":", limit)과 같은 분할 규칙
+    private int minTokens = 1;             // 명령어 포함 최소 토큰 수
+    private int maxTokens = Integer.MAX_VALUE;
+    private String formatError = "ERROR:Format";
+    private boolean readOnly;              // 데이터를 바꾸지 않는 조회 명령어인지
+    private BatchScope batchScope;         // BATCH 안에서 묶어 실행할 저장소 범위 (없으면 개별 실행)
+    private BinaryHandler binaryHandler;   // 바이너리 프로토콜에서 필드를 직접 쓰는 응답 작성기 (없으면 텍스트 응답 사용)
+    private String pageName;               // PAGE 응답 머리줄의 목록 이름 (예: "USER_LIST")
+    private PagedHandler pagedHandler;     // PAGE 요청 처리기 (없으면 페이지 조회 불가)
+    private LongSupplier version;           // 응답 내용의 데이터 버전 (IF_VERSION 조건부 조회, 없으면 불가)
+
+    private CommandSpec(String name, CommandHandler handler) {
+        this.name = name;
+        this.handler = handler;
+        this.metrics = Metrics.command(name);
+    }
+
+    public static CommandSpec of(String name, CommandHandler handler) {
+        return new CommandSpec(name, handler);
+    }
+
+    /** 분할 규칙 (기본 0: 끝의 빈 토큰 제거) */
+    public CommandSpec limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /** 명령어를 포함한 토큰 개수가 정확히 n개여야 함 */
+    public CommandSpec tokens(int n) {
+        return tokens(n, n);
+    }
+
+    /** 명령어를 포함한 토큰 개수 범위 */
+    public CommandSpec tokens(int min, int max) {
+        this.minTokens = min;
+        this.maxTokens = max;
+        return this;
+    }
+
+    /** 토큰 개수가 맞지 않을 때 보낼 응답 */
+    public CommandSpec formatError(String response) {
+        this.formatError = response;
+        return this;
+    }
+
+    /** 조회 전용 명령어로 표시 (파이프라인 요청에서 다른 조회와 동시에 실행 가능) */
+    public CommandSpec readOnly() {
+        this.readOnly = true;
+        return this;
+    }
+
+    /** BATCH 안에서 같은 범위를 쓰는 연속된 명령과 묶어 실행 */
+    public CommandSpec batchScope(BatchScope scope) {
+        this.batchScope = scope;
+        return this;
+    }
+
+    /** 바이너리 프로토콜 연결에서는 텍스트 응답 대신 필드를 직접 기록 */
+    public CommandSpec binary(BinaryHandler handler) {
+        this.binaryHandler = handler;
+        return this;
+    }
+
+    /** PAGE:크기:커서:명령어 요청으로 목록을 나눠 받을 수 있게 함 (listName: 응답 머리줄의 목록 이름) */
+    public CommandSpec paged(String listName, PagedHandler handler) {
+        this.pageName = listName;
+        this.pagedHandler = handler;
+        return this;
+    }
+
+    /** IF_VERSION:버전:명령어 요청에서 데이터가 그대로면 응답을 만들지 않고 NOT_MODIFIED로 답함 */
+    public CommandSpec versioned(LongSupplier version) {
+        this.version = version;
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    BatchScope batchScope() {
+        return batchScope;
+    }
+
+    BinaryHandler binaryHandler() {
+        return binaryHandler;
+    }
+
+    String pageName() {
+        return pageName;
+    }
+
+    PagedHandler pagedHandler() {
+        return pagedHandler;
+    }
+
+    LongSupplier version() {
+        return version;
+    }
+
+    CommandMetrics metrics() {
+        return metrics;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    boolean accepts(int tokenCount) {
+        return tokenCount >= minTokens && tokenCount <= maxTokens;
+    }
+
+    String formatError() {
+        return formatError;
+    }
+
+    CommandHandler handler() {
+        return handler;
+    }
+}
@@ -0,0 +1,122 @@
+package server.net.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import server.net.binary.FrameWriter;
+
+/**
+ *  IF_VERSION 요청 처리 (데이터 버전 기반 조건부 조회)
+ *  <pre>
+ *  요청: IF_VERSION::GET_MENUS                  응답: VERSION:1730000000123:MENU_LIST:...
+ *        IF_VERSION:1730000000123:GET_MENUS           NOT_MODIFIED:1730000000123   (그대로인 경우)
+ *        IF_VERSION:1730000000123:GET_DASHBOARD:2025-10-03
+ *  바이너리: ["IF_VERSION", 버전, 명령어, 인자...] -> ["NOT_MODIFIED", 버전(LONG)]
+ *                                                 또는 ["VERSION", 버전(LONG), 명령어 응답 필드...]
+ *  </pre>
+ *  - 명령어가 CommandSpec.versioned()로 등록되어 있어야 함 (GET_MENUS, GET_AVAILABLE_ROOMS,
+ *    GET_DASHBOARD, CHECK_ALL_ROOM_STATUS)
+ *  - 버전이 같으면 메모리의 버전 값만 비교하고 파일을 읽거나 응답을 만들지 않음
+ *  - 버전이 다르면 같은 요청·같은 버전의 응답을 캐시에서 재사용 (여러 단말이 한 번의 변경 뒤에 다시 조회하는 경우)
+ *  - 버전을 비우면(또는 모르는 값이면) 항상 전체 응답
+ * @author user
+ */
+public class ConditionalExecutor {
+    public static final String COMMAND = "IF_VERSION";
+    private static final String FORMAT_ERROR = "ERROR:Format (Expected IF_VERSION:version:command)";
+    private static final int CACHE_ENTRIES = 256;
+
+    private final CommandRegistry registry;
+    // 요청 문자열 -> 마지막으로 만든 "VERSION:..." 응답 (접근 순서 LRU, this 로 동기화)
+    private final Map<String, Cached> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    private static final class Cached {
+        final long version;
+        final String response;
+
+        Cached(long version, String response) {
+            this.version = version;
+            this.response = response;
+        }
+    }
+
+    public ConditionalExecutor(CommandRegistry registry) {
+        this.registry = registry;
+        registry.register(CommandSpec.of(COMMAND, this::conditional).limit(3).tokens(3, Integer.MAX_VALUE)
+                .formatError(FORMAT_ERROR).readOnly().binary(this::writeConditional));
+    }
+
+    private String conditional(RequestTokens t) {
+        String request = t.get(2);
+        CommandSpec spec = registry.lookup(request);
+        LongSupplier source = (spec != null) ? spec.version() : null;
+        if (source == null) return notVersioned(request);
+        long since;
+        try {
+            since = parseVersion(t.get(1));
+        } catch (NumberFormatException e) {
+            return FORMAT_ERROR;
+        }
+
+        long version = source.getAsLong();
+        if (version == since) return "NOT_MODIFIED:" + version;
+        synchronized (this) {
+            Cached cached = cache.get(request);
+            if (cached != null && cached.version == version) return cached.response;
+        }
+        // 응답을 만드는 동안 데이터가 바뀌면 캐시에는 이전 버전으로 남으므로 다음 조회에서 다시 만듦
+        String response = registry.dispatch(request);
+        if (response.startsWith("ERROR")) return response;
+        String versioned = "VERSION:" + version + ":" + response;
+        synchronized (this) {
+            cache.put(request, new Cached(version, versioned));
+        }
+        return versioned;
+    }
+
+    // 바이너리: 필드 2부터가 명령어 요청
+    private void writeConditional(RequestTokens t, FrameWriter out) {
+        String command = t.get(2).trim();
+        CommandSpec spec = registry.get(command);
+        LongSupplier source = (spec != null) ? spec.version() : null;
+        if (source == null) {
+            out.string(notVersioned(command));
+            return;
+        }
+        long since;
+        try {
+            since = parseVersion(t.get(1));
+        } catch (NumberFormatException e) {
+            out.string(FORMAT_ERROR);
+            return;
+        }
+
+        long version = source.getAsLong();
+        if (version == since) {
+            out.string("NOT_MODIFIED").int64(version);
+            return;
+        }
+        String[] fields = new String[t.count() - 2];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = t.get(i + 2);
+        }
+        out.string("VERSION").int64(version);
+        registry.dispatch(fields, out);
+    }
+
+    // 빈 값은 "버전 없음"(-1)
+    private static long parseVersion(String text) {
+        return text.isBlank() ? -1 : Long.parseLong(text.trim());
+    }
+
+    private static String notVersioned(String request) {
+        int nameEnd = request.indexOf(':');
+        return "ERROR:NotVersioned " + (nameEnd < 0 ? request : request.substring(0, nameEnd)).trim();
+    }
+}
@@ -0,0 +1,361 @@
+package server.net.command;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import server.log.Log;
+import server.model.DashboardDelta;
+import server.model.DashboardRow;
+import server.model.ReservationUpdate;
+import server.model.Room;
+import server.net.binary.FrameWriter;
+import server.repository.ReservationRepository;
+import server.repository.Slice;
+import server.service.HotelService;
+
+/**
+ *  객실/예약/결제 관련 명령어
+ *  <pre>
+ *  예약 버전 (같은 예약을 두 단말이 동시에 고칠 때 나중 변경이 앞 변경을 덮지 않도록)
+ *   GET_RES_VERSION:R-1001                              RES_VERSION:1730000000123 / RES_VERSION_FAIL
+ *   CHECK_IN:R-1001:1730000000123                       SUCCESS:새버전 / CONFLICT:지금버전 / FAIL
+ *   CHECK_OUT:R-1001:1730000000123                      (CHECK_IN과 같음)
+ *   UPDATE_RESERVATION_STATUS:R-1001:Confirmed:1730000000123   UPDATE_SUCCESS:새버전 / UPDATE_CONFLICT:지금버전 / UPDATE_FAIL
+ *   UPDATE_GUEST_REQ_IF:R-1001:1730000000123:요청사항          (UPDATE_RESERVATION_STATUS와 같음)
+ *  </pre>
+ *  - 버전을 빼면 예전처럼 확인 없이 바꾸고 예전 응답(SUCCESS, UPDATE_SUCCESS)을 돌려줌
+ *  - 버전 자리에 숫자가 아닌 값이 있으면 바꾸지 않고 ERROR:Format
+ *  - 요청사항은 ':'를 포함할 수 있어 버전을 뒤에 붙이지 않고 별도 명령(UPDATE_GUEST_REQ_IF)으로 앞에 받음
+ *  - CONFLICT를 받으면 다시 조회해서 지금 내용을 확인한 뒤 새 버전으로 다시 요청
+ * @author user
+ */
+public class HotelCommands {
+    private final HotelService hotelService;
+    // BATCH 안의 연속된 예약 변경은 예약 저장소 잠금 1회, 파일 쓰기 1회로 처리
+    private final BatchScope reservationBatch;
+    private static final String DELTA_FORMAT_ERROR = "ERROR:Format (Expected GET_DASHBOARD_DELTA:date:version)";
+    private static final String CHECK_IN_FORMAT_ERROR = "ERROR:Format (Expected CHECK_IN:resId[:version])";
+    private static final String CHECK_OUT_FORMAT_ERROR = "ERROR:Format (Expected CHECK_OUT:resId[:version])";
+    private static final String VERSION_FORMAT_ERROR = "ERROR:Format (Expected UPDATE_GUEST_REQ_IF:resId:version:request)";
+
+    public HotelCommands(HotelService hotelService) {
+        this.hotelService = hotelService;
+        this.reservationBatch = hotelService::runReservationBatch;
+    }
+
+    public void registerTo(CommandRegistry registry) {
+        registry.register(CommandSpec.of("GET_DASHBOARD", this::getDashboard).limit(3).readOnly().binary(this::writeDashboard)
+                .versioned(hotelService::getDashboardVersion));
+        // GET_DASHBOARD_DELTA:yyyy-MM-dd:기준버전 (기준버전을 비우면 전체 행)
+        registry.register(CommandSpec.of("GET_DASHBOARD_DELTA", this::getDashboardDelta).limit(3).tokens(3).readOnly()
+                .formatError(DELTA_FORMAT_ERROR).binary(this::writeDashboardDelta));
+        registry.register(CommandSpec.of("CHECK_IN", this::checkIn).tokens(2, Integer.MAX_VALUE).batchScope(reservationBatch));
+        registry.register(CommandSpec.of("CHECK_OUT", this::checkOut).tokens(2, Integer.MAX_VALUE).batchScope(reservationBatch));
+        registry.register(CommandSpec.of("UPDATE_RESERVATION_STATUS", this::updateReservationStatus).tokens(3, 4).batchScope(reservationBatch));
+        // 프로토콜: UPDATE_PAYMENT:ResID:Method:Card:CVC:Expiry:PW:Amount
+        registry.register(CommandSpec.of("UPDATE_PAYMENT", this::updatePayment));
+        // 형식: GET_ROOM_SALES:yyyy-MM-dd:yyyy-MM-dd
+        registry.register(CommandSpec.of("GET_ROOM_SALES", this::getRoomSales).limit(3).tokens(3).readOnly());
+        registry.register(CommandSpec.of("CHECK_ALL_ROOM_STATUS", this::checkAllRoomStatus).tokens(3).readOnly()
+                .versioned(hotelService::getDashboardVersion));
+        registry.register(CommandSpec.of("GET_RES_BY_NAME", this::getReservationsByName).tokens(2, Integer.MAX_VALUE).readOnly()
+                .paged("RES_LIST", this::pageReservationsByName));
+        registry.register(CommandSpec.of("GET_AVAILABLE_ROOMS", this::getAvailableRooms).readOnly().versioned(hotelService::getRoomVersion));
+        registry.register(CommandSpec.of("PAY_AND_RESERVE", this::payAndReserve).tokens(12)
+                .formatError("ERROR:Format (Expected 11 parts for PAY_AND_RESERVE)"));
+        registry.register(CommandSpec.of("CHECK_AVAILABILITY", this::checkAvailability).tokens(3).readOnly());
+        // ADD_RESERVATION:타입:이름:입실:퇴실:인원:폰:요청사항 (빈 요청사항도 토큰으로 유지)
+        registry.register(CommandSpec.of("ADD_RESERVATION", this::addReservation).limit(-1).tokens(8)
+                .formatError("ERROR:Format (Expected 8 parts)"));
+        registry.register(CommandSpec.of("DELETE_RESERVATION", this::deleteReservation).limit(3).tokens(2).batchScope(reservationBatch));
+        // ADD_ROOM / UPDATE_ROOM:번호:타입:가격:인원:설명 (6개)
+        registry.register(CommandSpec.of("ADD_ROOM", this::addRoom).tokens(6));
+        registry.register(CommandSpec.of("UPDATE_ROOM", this::updateRoom).tokens(6));
+        registry.register(CommandSpec.of("UPDATE_GUEST_REQ", this::updateGuestRequest).limit(3).tokens(3).batchScope(reservationBatch));
+        registry.register(CommandSpec.of("UPDATE_GUEST_REQ_IF", this::updateGuestRequestIf).limit(4).tokens(4)
+                .formatError(VERSION_FORMAT_ERROR).batchScope(reservationBatch));
+        registry.register(CommandSpec.of("GET_RES_VERSION", this::getReservationVersion).tokens(2).readOnly());
+        registry.register(CommandSpec.of("MANAGE_CLEANING", this::manageCleaning).limit(3).tokens(2));
+    }
+
+    private String getDashboard(RequestTokens t) {
+        if (t.count() == 2) {
+            return hotelService.getRoomDashboard(t.get(1));
+        }
+        return hotelService.getRoomDashboard(LocalDate.now().toString());
+    }
+
+    // 바이너리: "DASHBOARD_LIST", 행 수, 행마다 12개 필드 (객실번호, 타입, 가격(INT), 상태, 고객명, 예약번호,
+    //           인원(INT), 전화번호, 입실일, 퇴실일, 객실설명, 요청사항)
+    private void writeDashboard(RequestTokens t, FrameWriter out) {
+        String date = (t.count() == 2) ? t.get(1) : LocalDate.now().toString();
+        out.string("DASHBOARD_LIST");
+        writeDashboardRows(out, hotelService.getRoomDashboardRows(date));
+    }
+
+    /**
+     * 응답: DASHBOARD_DELTA:버전:FULL|DELTA:행|행|...  (행 형식은 DASHBOARD_LIST와 같음)
+     * - DELTA: 기준 버전 이후에 바뀐 객실의 행만 (없으면 빈 목록), 클라이언트는 객실번호로 덮어씀
+     * - FULL: 기준 버전을 알 수 없어 전체 행 (서버 재시작, 날짜 변경 등), 클라이언트는 현황판을 통째로 바꿈
+     * - 받은 버전을 다음 요청의 기준 버전으로 사용
+     */
+    private String getDashboardDelta(RequestTokens t) {
+        long since;
+        try {
+            since = parseSinceVersion(t.get(2));
+        } catch (NumberFormatException e) {
+            return DELTA_FORMAT_ERROR;
+        }
+        DashboardDelta delta = hotelService.getRoomDashboardDelta(t.get(1), since);
+        StringBuilder sb = new StringBuilder("DASHBOARD_DELTA:").append(delta.getVersion()).append(':')
+                .append(delta.isFull() ? "FULL" : "DELTA").append(':');
+        for (DashboardRow row : delta.getRows()) {
+            sb.append(row).append('|');
+        }
+        return sb.toString();
+    }
+
+    // 바이너리: "DASHBOARD_DELTA", 버전(LONG), "FULL"|"DELTA", 행 수, 행마다 DASHBOARD_LIST와 같은 12개 필드
+    private void writeDashboardDelta(RequestTokens t, FrameWriter out) {
+        long since;
+        try {
+            since = parseSinceVersion(t.get(2));
+        } catch (NumberFormatException e) {
+            out.string(DELTA_FORMAT_ERROR);
+            return;
+        }
+        DashboardDelta delta = hotelService.getRoomDashboardDelta(t.get(1), since);
+        out.string("DASHBOARD_DELTA").int64(delta.getVersion()).string(delta.isFull() ? "FULL" : "DELTA");
+        writeDashboardRows(out, delta.getRows());
+    }
+
+    // 빈 값은 "기준 없음"(-1): 항상 전체 행
+    private static long parseSinceVersion(String text) {
+        return text.isBlank() ? -1 : Long.parseLong(text.trim());
+    }
+
+    /** 행 수(INT) + 행마다 12개 필드 (DASHBOARD_LIST, DASHBOARD_UPDATE 공통) */
+    public static void writeDashboardRows(FrameWriter out, List<DashboardRow> rows) {
+        out.int32(rows.size());
+        for (DashboardRow row : rows) {
+            Room r = row.getRoom();
+            out.string(r.getRoomNumber()).string(r.getType()).int32(r.getPrice())
+               .string(row.getStatus()).string(row.getGuestName()).string(row.getReservationId())
+               .int32(row.getGuestNum()).string(row.getPhoneNumber()).string(row.getCheckInDate())
+               .string(row.getCheckOutDate()).string(r.getDescription()).string(row.getDetail());
+        }
+    }
+
+    // CHECK_IN:예약번호[:기대버전] (세 번째 토큰이 없거나 비어 있으면 예전처럼 확인 없이)
+    private String checkIn(RequestTokens t) {
+        long expected;
+        try {
+            expected = optionalVersion(t);
+        } catch (NumberFormatException e) {
+            return CHECK_IN_FORMAT_ERROR;
+        }
+        if (expected == ReservationRepository.ANY_VERSION) return hotelService.checkIn(t.get(1)) ? "SUCCESS" : "FAIL";
+        return versioned("", hotelService.checkIn(t.get(1), expected));
+    }
+
+    private String checkOut(RequestTokens t) {
+        long expected;
+        try {
+            expected = optionalVersion(t);
+        } catch (NumberFormatException e) {
+            return CHECK_OUT_FORMAT_ERROR;
+        }
+        if (expected == ReservationRepository.ANY_VERSION) return hotelService.checkOut(t.get(1)) ? "SUCCESS" : "FAIL";
+        return versioned("", hotelService.checkOut(t.get(1), expected));
+    }
+
+    // 세 번째 토큰이 없거나 비어 있으면 ANY_VERSION, 있는데 숫자가 아니면 NumberFormatException
+    // (잘못된 버전을 확인 없는 변경으로 처리하면 덮어쓰기 확인을 건너뛰게 됨)
+    private static long optionalVersion(RequestTokens t) {
+        if (t.count() < 3 || t.isBlank(2)) return ReservationRepository.ANY_VERSION;
+        return version(t, 2);
+    }
+
+    // i번째 토큰의 기대 버전 (음수는 ANY_VERSION과 겹치므로 형식 오류로 봄)
+    private static long version(RequestTokens t, int i) {
+        long version = t.getLong(i);
+        if (version < 0) throw new NumberFormatException("negative version: " + version);
+        return version;
+    }
+
+    // UPDATE_RESERVATION_STATUS:예약번호:상태[:기대버전]
+    private String updateReservationStatus(RequestTokens t) {
+        if (t.count() == 3) {
+            boolean ok = hotelService.updateReservationStatus(t.get(1), t.get(2));
+            return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
+        }
+        long expected;
+        try {
+            expected = version(t, 3);
+        } catch (NumberFormatException e) {
+            return "ERROR:Format (Expected UPDATE_RESERVATION_STATUS:resId:status[:version])";
+        }
+        return versioned("UPDATE_", hotelService.updateReservationStatus(t.get(1), t.get(2), expected));
+    }
+
+    // 버전을 준 변경의 응답: 접두어 + SUCCESS:새버전 / CONFLICT:지금버전 / FAIL
+    private static String versioned(String prefix, ReservationUpdate result) {
+        switch (result.getOutcome()) {
+            case UPDATED:
+            case UNSYNCED:
+                return prefix + "SUCCESS:" + result.getVersion();
+            case CONFLICT:
+                return prefix + "CONFLICT:" + result.getVersion();
+            default:
+                return prefix + "FAIL";
+        }
+    }
+
+    private String getReservationVersion(RequestTokens t) {
+        long version = hotelService.getReservationVersion(t.get(1));
+        return (version < 0) ? "RES_VERSION_FAIL" : "RES_VERSION:" + version;
+    }
+
+    private String updatePayment(RequestTokens t) {
+        if (t.count() != 8) {
+            Log.warn("결제 요청 포맷 오류. 받은 개수: " + t.count());
+            return "ERROR:Format Error (Expected 8 parts)";
+        }
+        int amount;
+        try {
+            // 마지막 데이터(금액) 파싱
+            amount = t.getInt(7);
+        } catch (NumberFormatException e) {
+            return "ERROR:Invalid Amount Format"; // 금액이 숫자가 아닐 경우 에러 처리
+        }
+        boolean ok = hotelService.processPayment(
+                t.get(1), // ResID
+                t.get(2), // Method
+                t.get(3), // CardNum
+                t.get(4), // CVC
+                t.get(5), // Expiry
+                t.get(6), // PW
+                amount    // Amount
+        );
+        return ok ? "PAYMENT_SUCCESS" : "PAYMENT_FAIL";
+    }
+
+    private String getRoomSales(RequestTokens t) {
+        // HotelService에서 날짜별 매출을 계산해서 맵으로 돌려받습니다. (LinkedHashMap이라 날짜 순서 유지)
+        Map<LocalDate, Integer> sales = hotelService.getRoomSalesByDateRange(t.get(1), t.get(2));
+
+        // 각 항목은 date=value(날짜=매출)로 콤마로 구분됩니다.
+        //ex ROOM_SALES:2025-10-01=220000,2025-10-02=440000,...
+        StringBuilder salesSb = new StringBuilder("ROOM_SALES:");
+        boolean first = true;
+        for (Map.Entry<LocalDate, Integer> en : sales.entrySet()) {
+            if (!first) salesSb.append(",");
+            salesSb.append(en.getKey().toString()).append("=").append(en.getValue());
+            first = false;
+        }
+        return salesSb.toString();
+    }
+
+    private String checkAllRoomStatus(RequestTokens t) {
+        return hotelService.getRoomStatusList(t.get(1), t.get(2));
+    }
+
+    private String getReservationsByName(RequestTokens t) {
+        // 가격과 정원수이 포함된 데이터를 가져옴
+        List<String> list = hotelService.getReservationsWithRoomInfo(t.get(1));
+        StringBuilder resSb = new StringBuilder("RES_LIST:");
+        for (String line : list) {
+            resSb.append(line).append("|");
+        }
+        return resSb.toString();
+    }
+
+    // PAGE:크기:커서:GET_RES_BY_NAME:이름
+    private Slice<String> pageReservationsByName(RequestTokens t, long cursor, int size) {
+        return hotelService.getReservationsWithRoomInfo(t.get(1), cursor, size);
+    }
+
+    private String getAvailableRooms(RequestTokens t) {
+        // 전체 방 목록 반환
+        StringBuilder availSb = new StringBuilder("ROOM_LIST:");
+        for (Room r : hotelService.getAllRooms()) {
+            availSb.append(r.toString()).append("/");
+        }
+        return availSb.toString();
+    }
+
+    private String payAndReserve(RequestTokens t) {
+        int guestNum;
+        try {
+            guestNum = t.getInt(5);
+        } catch (NumberFormatException e) {
+            return "FAIL:InvalidGuestNum";
+        }
+        return hotelService.createReservationWithPayment(
+                t.get(1),  // 방 번호
+                t.get(2),  // 이름
+                t.get(3),  // 입실
+                t.get(4),  // 퇴실
+                guestNum,
+                t.get(6),  // 전화번호
+                t.get(7),  // 요청사항
+                t.get(8),  // 카드번호
+                t.get(9),  // CVC
+                t.get(10), // 유효기간
+                t.get(11)  // 카드 비밀번호
+        );
+    }
+
+    private String checkAvailability(RequestTokens t) {
+        return "AVAILABLE_TYPES:" + hotelService.getAvailableRoomTypes(t.get(1), t.get(2));
+    }
+
+    private String addReservation(RequestTokens t) {
+        String assignedRoom = hotelService.createReservationByRoomNum(
+                t.get(1), // Type
+                t.get(2), // Name
+                t.get(3), // In
+                t.get(4), // Out
+                t.getInt(5), // GuestNum
+                t.get(6), // Phone
+                t.get(7)  // Request
+        );
+        return (assignedRoom != null) ? "RESERVE_SUCCESS:" + assignedRoom : "RESERVE_FAIL:No Room Available";
+    }
+
+    private String deleteReservation(RequestTokens t) {
+        return hotelService.cancelReservation(t.get(1)) ? "DELETE_SUCCESS" : "DELETE_FAIL";
+    }
+
+    private String addRoom(RequestTokens t) {
+        boolean ok = hotelService.addRoom(t.get(1), t.get(2), t.getInt(3), t.getInt(4), t.get(5));
+        return ok ? "ADD_SUCCESS" : "ADD_FAIL";
+    }
+
+    private String updateRoom(RequestTokens t) {
+        boolean ok = hotelService.updateRoom(t.get(1), t.get(2), t.getInt(3), t.getInt(4), t.get(5));
+        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
+    }
+
+    private String updateGuestRequest(RequestTokens t) {
+        boolean ok = hotelService.updateReservationRequest(t.get(1), t.get(2));
+        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
+    }
+
+    // UPDATE_GUEST_REQ_IF:예약번호:기대버전:요청사항
+    private String updateGuestRequestIf(RequestTokens t) {
+        long expected;
+        try {
+            expected = version(t, 2);
+        } catch (NumberFormatException e) {
+            return VERSION_FORMAT_ERROR;
+        }
+        return versioned("UPDATE_", hotelService.updateReservationRequest(t.get(1), t.get(3), expected));
+    }
+
+    private String manageCleaning(RequestTokens t) {
+        // "SUCCESS:SetToCleaning" or "SUCCESS:SetToEmpty" or "FAIL..."
+        return hotelService.toggleCleaningStatus(t.get(1));
+    }
+}
@@ -0,0 +1,205 @@
+package server.net.command;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import server.model.Menu;
+import server.model.MenuOrder;
+import server.repository.Slice;
+import server.service.MenuOrderService;
+import server.service.MenuService;
+
+/**
+ *  식음료 메뉴 및 주문 관련 명령어
+ * @author user
+ */
+public class MenuCommands {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MenuService menuService;
+    private final MenuOrderService menuOrderService;
+
+    public MenuCommands(MenuService menuService, MenuOrderService menuOrderService) {
+        this.menuService = menuService;
+        this.menuOrderService = menuOrderService;
+    }
+
+    public void registerTo(CommandRegistry registry) {
+        registry.register(CommandSpec.of("GET_MENUS", this::getMenus).readOnly().versioned(menuService::getVersion));
+        // ADD_MENU / UPDATE_MENU:menuId:name:price:category:isAvailable:stock (7개)
+        registry.register(CommandSpec.of("ADD_MENU", this::addMenu).tokens(7).formatError("ADD_FAIL:Format"));
+        registry.register(CommandSpec.of("UPDATE_MENU", this::updateMenu).tokens(7).formatError("UPDATE_FAIL:Format"));
+        // 형식: DELETE_MENU:menuId (총 2개 토큰)
+        registry.register(CommandSpec.of("DELETE_MENU", this::deleteMenu).limit(3).tokens(2).formatError("DELETE_FAIL:Format"));
+        // ORDER_MENU:GuestName:TotalPrice:Payment:음식1|음식2|...
+        // -> ORDER_SUCCESS / ORDER_FAIL:재고부족 / ORDER_FAIL:메뉴없음 / ORDER_FAIL:저장실패 (실패하면 주문을 저장하지 않고 재고도 그대로)
+        registry.register(CommandSpec.of("ORDER_MENU", this::orderMenu).limit(5).tokens(5).formatError("ORDER_FAIL:Format"));
+        // 형식: GET_MENU_ORDERS_BY_GUEST:GuestName
+        registry.register(CommandSpec.of("GET_MENU_ORDERS_BY_GUEST", this::getOrdersByGuest).limit(2).tokens(2).formatError("MENU_ORDERS:").readOnly()
+                .paged("MENU_ORDERS", this::pageOrdersByGuest));
+        // 형식: GET_MENU_ORDERS_BY_DATE_RANGE:GuestName:CheckInDate:CheckOutDate
+        registry.register(CommandSpec.of("GET_MENU_ORDERS_BY_DATE_RANGE", this::getOrdersByDateRange).tokens(4).formatError("MENU_ORDERS_DATE:").readOnly()
+                .paged("MENU_ORDERS_DATE", this::pageOrdersByDateRange));
+    }
+
+    private String getMenus(RequestTokens t) {
+        List<Menu> menus = menuService.getAllMenus();
+        StringBuilder sb = new StringBuilder("MENU_LIST:");
+        for (Menu m : menus) {
+            sb.append(m.getMenuId()).append(",")
+              .append(m.getName()).append(",")
+              .append(m.getPrice()).append(",")
+              .append(m.getCategory()).append(",")
+              .append(m.getIsAvailable()).append(",")
+              .append(m.getStock()).append("/");
+        }
+        return sb.toString();
+    }
+
+    private String addMenu(RequestTokens t) {
+        if (anyBlank(t)) return "ADD_FAIL:FieldRequired";
+        int price;
+        int stock;
+        try {
+            price = t.getInt(3);
+            stock = t.getInt(6);
+        } catch (NumberFormatException e) {
+            return "ADD_FAIL:InvaildPriceFormat";
+        }
+        boolean isAvailable = Boolean.parseBoolean(t.get(5).trim());
+        boolean ok = menuService.AddMenu(t.get(1), t.get(2), price, t.get(4), isAvailable, stock);
+        return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateIdOrError";
+    }
+
+    private String updateMenu(RequestTokens t) {
+        if (anyBlank(t)) return "UPDATE_FAIL:FieldRequired";
+        int price;
+        int stock;
+        try {
+            price = t.getInt(3);
+            stock = t.getInt(6);
+        } catch (NumberFormatException e) {
+            return "UPDATE_FAIL:InvaildPriceFormat";
+        }
+        boolean isAvailable = Boolean.parseBoolean(t.get(5).trim());
+        boolean ok = menuService.updateMenu(t.get(1), t.get(2), price, t.get(4), isAvailable, stock);
+        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL:NotFound";
+    }
+
+    private String deleteMenu(RequestTokens t) {
+        if (t.isBlank(1)) {
+            return "DELETE_FAIL:FieldRequired";
+        }
+        boolean ok = menuService.deleteMenu(t.get(1));
+        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL:NotFound";
+    }
+
+    private String orderMenu(RequestTokens t) {
+        String guestName = t.get(1);
+        int totalPrice;
+        try {
+            totalPrice = Integer.parseInt(t.get(2));
+        } catch (NumberFormatException e) {
+            return "ORDER_FAIL:PriceFormat";
+        }
+        String payment = t.get(3);
+        List<String> foodNames = Arrays.asList(t.get(4).split("\\|"));
+        // 재고를 먼저 차감 (모두 또는 하나도): 모자라면 주문을 저장하지 않고 재고도 그대로
+        switch (menuService.takeStock(foodNames)) {
+            case UNKNOWN_MENU:
+                return "ORDER_FAIL:메뉴없음";
+            case OUT_OF_STOCK:
+                return "ORDER_FAIL:재고부족";
+            default:
+                break;
+        }
+        // 주문 ID 생성
+        String saleId = "S-" + (System.currentTimeMillis() % 1000000);
+        // 주문 저장
+        MenuOrder order = new MenuOrder(saleId, guestName, LocalDateTime.now(), totalPrice, payment, foodNames);
+        boolean saved = false;
+        try {
+            saved = menuOrderService.saveOrder(order);
+        } finally {
+            // 주문을 저장하지 못했으면 (예외 포함) 차감한 재고를 되돌림
+            if (!saved) menuService.returnStock(foodNames);
+        }
+        return saved ? "ORDER_SUCCESS" : "ORDER_FAIL:저장실패";
+    }
+
+    private String getOrdersByGuest(RequestTokens t) {
+        Predicate<MenuOrder> filter = byGuest(t);
+        List<MenuOrder> all = menuOrderService.getAllOrders();
+        StringBuilder msb = new StringBuilder("MENU_ORDERS:");
+        boolean first = true;
+        for (MenuOrder mo : all) {
+            if (filter.test(mo)) {
+                if (!first) msb.append("|");
+                msb.append(orderRow(mo));
+                first = false;
+            }
+        }
+        return msb.toString();
+    }
+
+    private String getOrdersByDateRange(RequestTokens t) {
+        Predicate<MenuOrder> filter = byGuestAndStay(t);
+        // 입실일~퇴실일에 걸친 달의 주문만 읽음
+        List<MenuOrder> all = menuOrderService.getOrdersBetween(LocalDate.parse(t.get(2)), LocalDate.parse(t.get(3)));
+        StringBuilder msb = new StringBuilder("MENU_ORDERS_DATE:");
+        boolean first = true;
+        for (MenuOrder mo : all) {
+            if (filter.test(mo)) {
+                if (!first) msb.append("|");
+                msb.append(orderDateRow(mo));
+                first = false;
+            }
+        }
+        return msb.toString();
+    }
+
+    // PAGE:크기:커서:GET_MENU_ORDERS_BY_GUEST:GuestName
+    private Slice<String> pageOrdersByGuest(RequestTokens t, long cursor, int size) {
+        return menuOrderService.getOrders(cursor, size, byGuest(t)).map(MenuCommands::orderRow);
+    }
+
+    // PAGE:크기:커서:GET_MENU_ORDERS_BY_DATE_RANGE:GuestName:CheckInDate:CheckOutDate
+    private Slice<String> pageOrdersByDateRange(RequestTokens t, long cursor, int size) {
+        return menuOrderService.getOrders(cursor, size, LocalDate.parse(t.get(2)), LocalDate.parse(t.get(3)), byGuestAndStay(t))
+                .map(MenuCommands::orderDateRow);
+    }
+
+    private static Predicate<MenuOrder> byGuest(RequestTokens t) {
+        String guest = t.get(1);
+        return mo -> mo.getGuestName().equals(guest);
+    }
+
+    // 고객 이름 + 입실일 00:00:00 ~ 퇴실일 23:59:59 사이 주문
+    private static Predicate<MenuOrder> byGuestAndStay(RequestTokens t) {
+        String guest = t.get(1);
+        LocalDateTime checkIn = LocalDateTime.parse(t.get(2) + " 00:00:00", DATE_TIME);
+        LocalDateTime checkOut = LocalDateTime.parse(t.get(3) + " 23:59:59", DATE_TIME);
+        return mo -> mo.getGuestName().equals(guest) && mo.getOrderTime().isAfter(checkIn) && mo.getOrderTime().isBefore(checkOut);
+    }
+
+    // 주문번호,금액,결제수단
+    private static String orderRow(MenuOrder mo) {
+        return mo.getSaleId() + "," + mo.getTotalPrice() + "," + mo.getPayment();
+    }
+
+    // 음식1/음식2,금액,결제수단
+    private static String orderDateRow(MenuOrder mo) {
+        return String.join("/", mo.getFoodNames()) + "," + mo.getTotalPrice() + "," + mo.getPayment();
+    }
+
+    private boolean anyBlank(RequestTokens t) {
+        for (int i = 1; i < t.count(); i++) {
+            if (t.isBlank(i)) return true;
+        }
+        return false;
+    }
+}
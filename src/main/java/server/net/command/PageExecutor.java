@@ -0,0 +1,132 @@
+package server.net.command;
+
+import java.io.IOException;
+
+import server.log.Log;
+import server.metrics.CommandMetrics;
+import server.metrics.Metrics;
+import server.repository.Slice;
+
+/**
+ *  PAGE 요청 처리 (커서 기반 목록 나눠 받기)
+ *  <pre>
+ *  요청: PAGE:100::GET_USERS                 응답: PAGE:USER_LIST
+ *        (크기:커서:명령어, 첫 페이지는 커서 비움)     admin,1234,Admin,010-0000-0000,관리자
+ *                                                  ...
+ *                                                  PAGE_END:100:137
+ *  다음: PAGE:100:137:GET_USERS              마지막: PAGE_END:12:END
+ *  </pre>
+ *  - 명령어가 CommandSpec.paged()로 등록되어 있어야 함 (GET_USERS, GET_MENU_ORDERS_BY_GUEST,
+ *    GET_MENU_ORDERS_BY_DATE_RANGE, GET_RES_BY_NAME)
+ *  - 행 형식은 전체 목록 응답의 구분자 사이 항목과 같고, 한 줄에 한 행
+ *  - 행의 첫 필드에는 ':'가 들어갈 수 없으므로 "PAGE_END:" 줄과 구분됨
+ *  - 페이지 크기는 최대 maxPageSize행으로 줄여서 처리 (메모리 사용량 상한)
+ *  - 오류는 머리줄 없이 한 줄로 응답 (ERROR:..., 또는 명령어의 형식 오류 응답)
+ * @author user
+ */
+public class PageExecutor {
+    public static final String COMMAND = "PAGE";
+    private static final String PREFIX = COMMAND + ":";
+    private static final String END_PREFIX = "PAGE_END:";
+    private static final String FORMAT_ERROR = "ERROR:Format (Expected PAGE:size:cursor:command)";
+
+    private final CommandRegistry registry;
+    private final int maxPageSize;
+    private final CommandMetrics metrics = Metrics.command(COMMAND);
+
+    public PageExecutor(CommandRegistry registry, int maxPageSize) {
+        this.registry = registry;
+        this.maxPageSize = maxPageSize;
+        // 연결 계층이 직접 처리하지 않는 경우(NIO, 바이너리): 한 페이지를 응답 문자열 하나로 만듦
+        registry.register(CommandSpec.of(COMMAND, this::dispatch).limit(4).tokens(4, Integer.MAX_VALUE)
+                .formatError(FORMAT_ERROR).readOnly());
+    }
+
+    /** PAGE 요청인지 */
+    public static boolean isPageRequest(String request) {
+        return request.startsWith(PREFIX);
+    }
+
+    /**
+     * 페이지 응답을 out에 기록 (마지막 줄바꿈 없음)
+     * - 행은 만들어지는 대로 out에 쓰므로 소켓 Writer를 넘기면 응답 전체를 문자열로 만들지 않음
+     */
+    public void execute(String request, Appendable out) throws IOException {
+        long start = metrics.begin();
+        boolean error = true;
+        try {
+            String[] parts = request.split(":", 4);
+            if (parts.length < 4) {
+                out.append(FORMAT_ERROR);
+            } else {
+                error = !write(parts[1], parts[2], parts[3], out);
+            }
+        } finally {
+            metrics.end(start, error);
+        }
+    }
+
+    // 일반 명령어 경로: 바이너리 요청은 필드가 나뉘어 오므로 3번 이후를 다시 ':'로 이어 명령어 요청으로 만듦
+    private String dispatch(RequestTokens t) throws IOException {
+        StringBuilder inner = new StringBuilder(t.get(3));
+        for (int i = 4; i < t.count(); i++) {
+            inner.append(':').append(t.get(i));
+        }
+        StringBuilder sb = new StringBuilder();
+        write(t.get(1), t.get(2), inner.toString(), sb);
+        return sb.toString();
+    }
+
+    /** @return 페이지를 기록했으면 true, 오류 응답을 기록했으면 false */
+    private boolean write(String sizeText, String cursorText, String request, Appendable out) throws IOException {
+        int size;
+        long cursor;
+        try {
+            size = Integer.parseInt(sizeText.trim());
+            cursor = cursorText.isBlank() ? 0 : Long.parseLong(cursorText.trim());
+        } catch (NumberFormatException e) {
+            out.append(FORMAT_ERROR);
+            return false;
+        }
+        if (size < 1 || cursor < 0) {
+            out.append(FORMAT_ERROR);
+            return false;
+        }
+        size = Math.min(size, maxPageSize);
+
+        CommandSpec spec = registry.lookup(request);
+        if (spec == null || spec.pagedHandler() == null) {
+            int nameEnd = request.indexOf(':');
+            out.append("ERROR:NotPageable ").append((nameEnd < 0 ? request : request.substring(0, nameEnd)).trim());
+            return false;
+        }
+        RequestTokens tokens = new RequestTokens();
+        tokens.tokenize(request, spec.limit());
+        if (!spec.accepts(tokens.count())) {
+            out.append(spec.formatError());
+            return false;
+        }
+
+        // 명령어 지표에는 페이지 조회 시간만 기록 (전송 시간 제외)
+        CommandMetrics commandMetrics = spec.metrics();
+        long start = commandMetrics.begin();
+        Slice<String> page;
+        try {
+            page = spec.pagedHandler().page(tokens, cursor, size);
+        } catch (Exception ex) {
+            commandMetrics.end(start, true);
+            Log.error("명령어 처리 오류: " + spec.name(), ex);
+            out.append("ERROR:Internal server error: ").append(ex.getMessage());
+            return false;
+        }
+        commandMetrics.end(start, false);
+
+        out.append(PREFIX).append(spec.pageName());
+        for (String row : page.items()) {
+            out.append('\n').append(row);
+        }
+        out.append('\n').append(END_PREFIX).append(Integer.toString(page.items().size())).append(':')
+           .append(page.next() == Slice.END ? "END" : Long.toString(page.next()));
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package server.net.command;
+
+import server.repository.Slice;
+
+/**
+ *  PAGE 요청에 응답하는 목록 명령어의 페이지 조회기
+ *  - cursor부터 최대 size행을 응답 행 문자열로 반환 (행 형식은 전체 목록 응답의 구분자 사이 항목과 같음)
+ *  - 다음 커서는 Slice.next() (마지막 페이지면 Slice.END)
+ * @author user
+ */
+@FunctionalInterface
+public interface PagedHandler {
+    Slice<String> page(RequestTokens tokens, long cursor, int size) throws Exception;
+}
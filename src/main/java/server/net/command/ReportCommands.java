@@ -0,0 +1,54 @@
+package server.net.command;
+
+import java.util.List;
+import java.util.Map;
+
+import server.service.ReportService;
+
+/**
+ *  통계/보고서 명령어
+ *  GET_MENU_SALES, GET_PAST_OCCUPANCY, GET_CURRENT_OCCUPANCY, GET_FUTURE_OCCUPANCY
+ * @author user
+ */
+public class ReportCommands {
+    private final ReportService reportService;
+
+    public ReportCommands(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    public void registerTo(CommandRegistry registry) {
+        // 형식: GET_MENU_SALES:yyyy-MM-dd:yyyy-MM-dd
+        registry.register(CommandSpec.of("GET_MENU_SALES", this::getMenuSales).limit(3).tokens(3).readOnly());
+        // 형식: GET_PAST_OCCUPANCY / GET_FUTURE_OCCUPANCY:yyyy-MM-dd:yyyy-MM-dd
+        registry.register(CommandSpec.of("GET_PAST_OCCUPANCY", this::getPastOccupancy).limit(3).tokens(3).formatError("PAST_OCCUPANCY:").readOnly());
+        registry.register(CommandSpec.of("GET_CURRENT_OCCUPANCY", t -> reportService.handleCurrentOccupancyRequest()).readOnly());
+        registry.register(CommandSpec.of("GET_FUTURE_OCCUPANCY", this::getFutureOccupancy).limit(3).tokens(3).formatError("FUTURE_OCCUPANCY:").readOnly());
+    }
+
+    private String getMenuSales(RequestTokens t) {
+        // ReportService에서 통합 매출 데이터 조회
+        Map<String, Object> result = reportService.getMenuSalesByDateRange(t.get(1), t.get(2));
+        double averageSales = (double) result.get("averageSales");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> salesTable = (List<Map<String, Object>>) result.get("salesTable");
+        // 응답 문자열: MENU_SALES:평균매출|날짜,매출,최다판매메뉴;날짜,매출,최다판매메뉴;...
+        StringBuilder sb = new StringBuilder("MENU_SALES:");
+        sb.append(String.format("%.2f", averageSales)).append("|");
+        boolean first = true;
+        for (Map<String, Object> row : salesTable) {
+            if (!first) sb.append(";");
+            sb.append(row.get("date")).append(",").append(row.get("totalSales")).append(",").append(row.get("topMenu"));
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    private String getPastOccupancy(RequestTokens t) {
+        return reportService.handlePastOccupancyRequest(t.get(1), t.get(2));
+    }
+
+    private String getFutureOccupancy(RequestTokens t) {
+        return reportService.handleFutureOccupancyRequest(t.get(1), t.get(2));
+    }
+}
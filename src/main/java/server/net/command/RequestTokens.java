@@ -0,0 +1,106 @@
+package server.net.command;
+
+/**
+ *  요청 한 줄을 ':' 기준으로 나눈 토큰 위치 정보
+ *  - 문자열을 잘라 배열을 만들지 않고 각 토큰의 시작/끝 위치만 기록
+ *  - 토큰 문자열은 핸들러가 get()으로 요청할 때만 만들어짐
+ *  - 분할 규칙은 String.split(":", limit)과 동일
+ *    (limit > 0: 최대 limit개, 마지막 토큰이 나머지 전체 / 0: 무제한, 끝의 빈 토큰 제거 / 음수: 무제한, 빈 토큰 유지)
+ *  - 바이너리 프로토콜 요청은 필드 경계를 그대로 토큰으로 사용 (필드 안의 ':'로 나누지 않음)
+ * @author user
+ */
+public final class RequestTokens {
+    private String source;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+
+    /** 요청 문자열을 분할 규칙(limit)에 따라 토큰화 */
+    void tokenize(String request, int limit) {
+        this.source = request;
+        this.count = 0;
+        int start = 0;
+        int length = request.length();
+        while (true) {
+            if (limit > 0 && count == limit - 1) {
+                add(start, length);
+                break;
+            }
+            int idx = request.indexOf(':', start);
+            if (idx < 0) {
+                add(start, length);
+                break;
+            }
+            add(start, idx);
+            start = idx + 1;
+        }
+        if (limit == 0) {
+            // String.split(":")처럼 끝의 빈 토큰은 버림
+            while (count > 0 && starts[count - 1] == ends[count - 1]) count--;
+        }
+    }
+
+    /** 바이너리 요청 필드를 그대로 토큰으로 사용 (source()는 필드를 ':'로 이어 붙인 문자열) */
+    void fields(String[] values) {
+        StringBuilder sb = new StringBuilder();
+        this.count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(':');
+            int start = sb.length();
+            sb.append(values[i]);
+            add(start, sb.length());
+        }
+        this.source = sb.toString();
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            starts = java.util.Arrays.copyOf(starts, count * 2);
+            ends = java.util.Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /** 명령어를 포함한 토큰 개수 */
+    public int count() {
+        return count;
+    }
+
+    /** i번째 토큰 (0번은 명령어) */
+    public String get(int i) {
+        return source.substring(starts[i], ends[i]);
+    }
+
+    /** i번째 토큰의 앞뒤 공백 제거 후 정수 변환 (NumberFormatException 가능) */
+    public int getInt(int i) {
+        int s = starts[i];
+        int e = ends[i];
+        while (s < e && Character.isWhitespace(source.charAt(s))) s++;
+        while (e > s && Character.isWhitespace(source.charAt(e - 1))) e--;
+        return Integer.parseInt(source, s, e, 10);
+    }
+
+    /** i번째 토큰의 앞뒤 공백 제거 후 long 변환 (NumberFormatException 가능) */
+    public long getLong(int i) {
+        int s = starts[i];
+        int e = ends[i];
+        while (s < e && Character.isWhitespace(source.charAt(s))) s++;
+        while (e > s && Character.isWhitespace(source.charAt(e - 1))) e--;
+        return Long.parseLong(source, s, e, 10);
+    }
+
+    /** i번째 토큰이 비어있거나 공백뿐인지 */
+    public boolean isBlank(int i) {
+        for (int p = starts[i]; p < ends[i]; p++) {
+            if (!Character.isWhitespace(source.charAt(p))) return false;
+        }
+        return true;
+    }
+
+    /** 토큰화된 원본 요청 */
+    public String source() {
+        return source;
+    }
+}
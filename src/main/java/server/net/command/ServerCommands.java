@@ -0,0 +1,24 @@
+package server.net.command;
+
+import server.metrics.Metrics;
+import server.net.compress.CompressionStats;
+
+/**
+ *  서버 운영 정보 명령어
+ *  GET_COMPRESSION_STATS, GET_METRICS
+ * @author user
+ */
+public class ServerCommands {
+    private final CompressionStats compressionStats;
+
+    public ServerCommands(CompressionStats compressionStats) {
+        this.compressionStats = compressionStats;
+    }
+
+    public void registerTo(CommandRegistry registry) {
+        // 응답: COMPRESSION_STATS:시도,원본유지,원본바이트,전송바이트,압축률,총압축시간(us),평균압축시간(us)
+        registry.register(CommandSpec.of("GET_COMPRESSION_STATS", t -> compressionStats.summary()).readOnly());
+        // 응답: METRICS:명령어,처리수,오류수,처리중,p50,p99,p999,최대|...;타이머,횟수,p50,p99,p999,최대|... (us)
+        registry.register(CommandSpec.of("GET_METRICS", t -> Metrics.report()).readOnly());
+    }
+}
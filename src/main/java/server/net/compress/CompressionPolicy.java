@@ -0,0 +1,45 @@
+package server.net.compress;
+
+/**
+ *  응답 압축 설정 (config.properties의 server.compress.*)
+ *  - 연결마다 newCompressor()로 압축기를 만들어 사용
+ * @author user
+ */
+public class CompressionPolicy {
+    private final boolean enabled;
+    private final int defaultThreshold;
+    private final int level;
+    private final CompressionStats stats;
+
+    /**
+     * @param enabled 클라이언트가 압축을 요청할 수 있는지
+     * @param defaultThreshold 이 바이트 수 이상인 응답만 압축 (COMPRESS 요청에서 바꿀 수 있음)
+     * @param level deflate 압축 수준 (0~9, -1은 기본값)
+     */
+    public CompressionPolicy(boolean enabled, int defaultThreshold, int level, CompressionStats stats) {
+        this.enabled = enabled;
+        this.defaultThreshold = defaultThreshold;
+        this.level = level;
+        this.stats = stats;
+    }
+
+    public ResponseCompressor newCompressor() {
+        return new ResponseCompressor(this);
+    }
+
+    public CompressionStats stats() {
+        return stats;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int defaultThreshold() {
+        return defaultThreshold;
+    }
+
+    int level() {
+        return level;
+    }
+}
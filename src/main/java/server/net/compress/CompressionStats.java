@@ -0,0 +1,39 @@
+package server.net.compress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  응답 압축 통계 (서버 전체 공유)
+ *  - 압축을 시도한 응답 수, 압축 전/후 바이트, 압축에 쓴 시간을 누적
+ *  - 압축해도 작아지지 않아 원본으로 보낸 응답도 시도 횟수에 포함 (전송 바이트 = 원본 바이트)
+ * @author user
+ */
+public class CompressionStats {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder keptRaw = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    void record(long raw, long sent, long elapsedNanos, boolean compressed) {
+        attempts.increment();
+        if (!compressed) keptRaw.increment();
+        rawBytes.add(raw);
+        sentBytes.add(sent);
+        nanos.add(elapsedNanos);
+    }
+
+    /**
+     * 통계 응답 문자열
+     * COMPRESSION_STATS:시도,원본유지,원본바이트,전송바이트,압축률(전송/원본),총압축시간(us),평균압축시간(us)
+     */
+    public String summary() {
+        long n = attempts.sum();
+        long raw = rawBytes.sum();
+        long sent = sentBytes.sum();
+        long micros = nanos.sum() / 1000;
+        double ratio = (raw == 0) ? 1.0 : (double) sent / raw;
+        return "COMPRESSION_STATS:" + n + "," + keptRaw.sum() + "," + raw + "," + sent + ","
+                + String.format("%.3f", ratio) + "," + micros + "," + (n == 0 ? 0 : micros / n);
+    }
+}
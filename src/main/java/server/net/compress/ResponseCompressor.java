@@ -0,0 +1,133 @@
+package server.net.compress;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.Deflater;
+
+import server.net.binary.BinaryFrames;
+
+/**
+ *  연결별 응답 압축기 (java.util.zip deflate)
+ *  <pre>
+ *  협상: COMPRESS:DEFLATE[:기준바이트]  -> COMPRESS_OK:DEFLATE:기준바이트
+ *        COMPRESS:NONE                 -> COMPRESS_OK:NONE
+ *  텍스트 응답: 기준 이상이면 "Z:" + base64(deflate(UTF-8 응답)) 한 줄로 전송 (상관ID는 압축하지 않음)
+ *  바이너리 응답: 필드 수 자리에 BinaryFrames.COMPRESSED(-1), 이어서 int32 원본 길이 + deflate(필드 수 + 필드)
+ *  </pre>
+ *  - 압축해도 작아지지 않으면 원본 그대로 전송
+ *  - 기준보다 작은 응답은 압축하지 않으므로 짧은 명령의 지연은 그대로
+ *  - 같은 연결의 여러 스레드가 쓸 수 있으므로 메서드는 동기화
+ * @author user
+ */
+public class ResponseCompressor {
+    public static final String COMMAND = "COMPRESS";
+    public static final String TEXT_PREFIX = "Z:";
+    private static final int OFF = -1;
+
+    private final CompressionPolicy policy;
+    private int threshold = OFF;
+    private Deflater deflater;
+    private byte[] out = new byte[4096];
+
+    ResponseCompressor(CompressionPolicy policy) {
+        this.policy = policy;
+    }
+
+    /** COMPRESS 요청이면 설정을 바꾸고 응답 문자열 반환, 아니면 null */
+    public synchronized String negotiate(String request) {
+        if (!request.startsWith(COMMAND)) return null;
+        if (request.length() > COMMAND.length() && request.charAt(COMMAND.length()) != ':') return null;
+
+        String[] parts = request.split(":");
+        if (parts.length < 2 || parts.length > 3) return "COMPRESS_FAIL:Format";
+        String method = parts[1].trim();
+        if (method.equalsIgnoreCase("NONE")) {
+            threshold = OFF;
+            return "COMPRESS_OK:NONE";
+        }
+        if (!method.equalsIgnoreCase("DEFLATE")) return "COMPRESS_FAIL:Unsupported " + method;
+        if (!policy.isEnabled()) return "COMPRESS_FAIL:Disabled";
+        int t = policy.defaultThreshold();
+        if (parts.length == 3) {
+            try {
+                t = Integer.parseInt(parts[2].trim());
+            } catch (NumberFormatException e) {
+                return "COMPRESS_FAIL:Format";
+            }
+            if (t < 0) return "COMPRESS_FAIL:Format";
+        }
+        if (deflater == null) deflater = new Deflater(policy.level());
+        threshold = t;
+        return "COMPRESS_OK:DEFLATE:" + t;
+    }
+
+    /** 텍스트 응답 한 줄 압축 (압축하지 않으면 그대로 반환) */
+    public synchronized String encodeText(String response) {
+        if (threshold == OFF || response.length() * 3 < threshold) return response;
+        byte[] raw = response.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < threshold) return response;
+
+        long start = System.nanoTime();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int n = 0;
+        while (!deflater.finished()) {
+            if (n == out.length) out = Arrays.copyOf(out, out.length * 2);
+            n += deflater.deflate(out, n, out.length - n);
+        }
+        ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(out, 0, n));
+        int sent = TEXT_PREFIX.length() + encoded.remaining();
+        long elapsed = System.nanoTime() - start;
+        if (sent >= raw.length) {
+            policy.stats().record(raw.length, raw.length, elapsed, false);
+            return response;
+        }
+        policy.stats().record(raw.length, sent, elapsed, true);
+        return TEXT_PREFIX + new String(encoded.array(), 0, encoded.remaining(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 완성된 바이너리 응답 프레임(길이 필드 포함) 압축
+     * - 압축하지 않으면 frame을 그대로, 압축하면 새 버퍼를 반환
+     */
+    public synchronized ByteBuffer encodeFrame(ByteBuffer frame) {
+        int base = frame.position();
+        int rawLength = frame.remaining() - 8; // 길이 + 상관ID 뒤의 필드 수 + 필드
+        if (threshold == OFF || rawLength < threshold) return frame;
+
+        long start = System.nanoTime();
+        deflater.reset();
+        deflater.setInput(frame.slice(base + 8, rawLength));
+        deflater.finish();
+        ByteBuffer compressed = ByteBuffer.allocate(16 + rawLength);
+        compressed.position(16);
+        while (!deflater.finished() && compressed.hasRemaining()) {
+            deflater.deflate(compressed);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!deflater.finished()) {
+            // 원본보다 커짐
+            policy.stats().record(rawLength, rawLength, elapsed, false);
+            return frame;
+        }
+        compressed.putInt(0, compressed.position() - 4);
+        compressed.putInt(4, frame.getInt(base + 4));
+        compressed.putInt(8, BinaryFrames.COMPRESSED);
+        compressed.putInt(12, rawLength);
+        compressed.flip();
+        policy.stats().record(rawLength, compressed.remaining() - 8, elapsed, true);
+        return compressed;
+    }
+
+    /** 연결 종료 시 네이티브 자원 해제 */
+    public synchronized void close() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        threshold = OFF;
+    }
+}
@@ -0,0 +1,129 @@
+package server.net.push;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import server.model.DashboardRow;
+import server.net.binary.FrameWriter;
+import server.net.command.HotelCommands;
+import server.service.DashboardFeed;
+
+/**
+ *  연결별 객실 현황판 구독 (DashboardFeed)
+ *  <pre>
+ *  요청: SUBSCRIBE_DASHBOARD[:yyyy-MM-dd]    응답: SUBSCRIBED:날짜
+ *        UNSUBSCRIBE_DASHBOARD[:yyyy-MM-dd]        UNSUBSCRIBED:날짜 (날짜 생략 시 UNSUBSCRIBED:ALL)
+ *  알림: DASHBOARD_UPDATE:날짜:행|행|...   (행 형식은 DASHBOARD_LIST와 같음)
+ *  </pre>
+ *  - 구독 직후 한 번은 전체 행, 이후에는 바뀐 객실의 행만 알림으로 옴
+ *  - 알림에는 SUBSCRIBE 요청의 상관ID가 붙음 (텍스트: "#id ", 바이너리: 프레임 상관ID)
+ *  - 바이너리 알림: "DASHBOARD_UPDATE", 날짜, 행 수(INT), 행마다 DASHBOARD_LIST와 같은 12개 필드
+ *  - 알림은 응답 사이에 끼어들 수 있으므로 클라이언트는 접두어로 구분
+ *  - 연결이 끊기면 close()로 모든 구독 해지
+ * @author user
+ */
+public class DashboardSubscriptions {
+    public static final String SUBSCRIBE = "SUBSCRIBE_DASHBOARD";
+    public static final String UNSUBSCRIBE = "UNSUBSCRIBE_DASHBOARD";
+    public static final String UPDATE = "DASHBOARD_UPDATE";
+    private static final int MAX_DATES = 8; // 연결 하나가 동시에 구독할 수 있는 날짜 수
+
+    private final DashboardFeed feed;
+    private final Map<String, Subscription> byDate = new HashMap<>(); // this 로 동기화
+
+    public DashboardSubscriptions(DashboardFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * 구독 요청이면 처리하고 응답 문자열 반환, 아니면 null
+     * @param sink 날짜 -> 그 날짜의 변경 행을 이 연결로 보내는 구독자 (요청의 상관ID를 담아 전송 계층이 만듦)
+     */
+    public synchronized String handle(String request, Function<String, DashboardFeed.Subscriber> sink) {
+        boolean subscribe = isCommand(request, SUBSCRIBE);
+        if (!subscribe && !isCommand(request, UNSUBSCRIBE)) return null;
+
+        String[] parts = request.split(":");
+        if (parts.length > 2) return "FAIL:Format";
+        String date;
+        if (parts.length == 2) {
+            date = parts[1].trim();
+            try {
+                LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                return "FAIL:Format";
+            }
+        } else if (subscribe) {
+            date = LocalDate.now().toString();
+        } else {
+            close();
+            return "UNSUBSCRIBED:ALL";
+        }
+
+        if (!subscribe) {
+            Subscription old = byDate.remove(date);
+            if (old == null) return "FAIL:NotSubscribed";
+            old.cancel();
+            return "UNSUBSCRIBED:" + date;
+        }
+        // 같은 날짜를 다시 구독하면 새 상관ID로 바꾸고 전체 행을 다시 보냄
+        Subscription old = byDate.remove(date);
+        if (old != null) old.cancel();
+        else if (byDate.size() >= MAX_DATES) return "FAIL:TooManySubscriptions";
+        Subscription s = new Subscription(date, sink.apply(date));
+        byDate.put(date, s);
+        feed.subscribe(date, s);
+        return "SUBSCRIBED:" + date;
+    }
+
+    /** 연결 종료: 모든 구독 해지 */
+    public synchronized void close() {
+        for (Subscription s : byDate.values()) s.cancel();
+        byDate.clear();
+    }
+
+    /** 텍스트 알림 한 줄 (상관ID 제외) */
+    public static String text(String date, List<DashboardRow> rows) {
+        StringBuilder sb = new StringBuilder(UPDATE).append(':').append(date).append(':');
+        for (DashboardRow row : rows) {
+            sb.append(row).append('|');
+        }
+        return sb.toString();
+    }
+
+    /** 바이너리 알림 필드 작성 (writer.begin(상관ID) 이후 호출) */
+    public static void write(FrameWriter writer, String date, List<DashboardRow> rows) {
+        writer.string(UPDATE).string(date);
+        HotelCommands.writeDashboardRows(writer, rows);
+    }
+
+    private static boolean isCommand(String request, String name) {
+        return request.startsWith(name) && (request.length() == name.length() || request.charAt(name.length()) == ':');
+    }
+
+    /** 구독 1건: 해지된 뒤에 도착한 알림은 버림 */
+    private final class Subscription implements DashboardFeed.Subscriber {
+        private final String date;
+        private final DashboardFeed.Subscriber sink;
+        private volatile boolean active = true;
+
+        Subscription(String date, DashboardFeed.Subscriber sink) {
+            this.date = date;
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean push(String date, List<DashboardRow> rows) {
+            return !active || sink.push(date, rows);
+        }
+
+        void cancel() {
+            active = false;
+            feed.unsubscribe(date, this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package server.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import server.log.Log;
+
+/**
+ *  BinaryTable 커서: 블록을 하나씩 읽어 CRC를 확인하고, 블록 안의 행을 차례로 돌려줌
+ *  - 필드는 길이가 앞에 있으므로 경계를 찾지 않고 바로 위치를 정함 (따옴표 필드 없음)
+ *  - CRC가 맞지 않는 블록을 만나면 경고를 남기고 거기서 끝냄 (그 뒤의 행은 읽지 않음)
+ * @author user
+ */
+final class BinaryRows extends Rows {
+    private final Path file;
+    private final FileChannel channel;
+    private final long end;        // 읽을 범위의 끝 (열 때 색인한 블록까지)
+    private final ByteBuffer header = ByteBuffer.allocate(BinaryTable.BLOCK_HEADER);
+    private long position;         // 다음 블록의 파일 위치
+    private int remaining;         // 현재 블록에서 남은 행 수
+    private int pos;               // 현재 블록 안에서 다음 행의 위치
+
+    BinaryRows(Path file, FileChannel channel, long offset, long end) {
+        this.file = file;
+        this.channel = channel;
+        this.position = offset;
+        this.end = end;
+        this.buf = ByteBuffer.allocate(0);
+    }
+
+    @Override
+    boolean next() throws IOException {
+        while (remaining == 0) {
+            if (position + BinaryTable.BLOCK_HEADER > end || !readBlock()) return false;
+        }
+        remaining--;
+        count = 0;
+        int fields = varint();
+        for (int i = 0; i < fields; i++) {
+            int length = varint();
+            add(pos, pos + length, false);
+            pos += length;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // pos의 varint를 읽고 pos를 그 뒤로 옮김 (BinaryTable.writeVarint)
+    private int varint() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get(pos++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    // 다음 블록을 buf에 읽음 (CRC가 맞지 않으면 false)
+    private boolean readBlock() throws IOException {
+        header.clear();
+        BinaryTable.readFully(channel, header, position);
+        int length = header.getInt(0);
+        if (buf.capacity() < length) buf = ByteBuffer.allocate(Math.max(length, buf.capacity() * 2));
+        buf.clear().limit(length);
+        BinaryTable.readFully(channel, buf, position + BinaryTable.BLOCK_HEADER);
+        if (BinaryTable.crc(buf.array(), length) != header.getInt(8)) {
+            Log.warn("[BinaryRows] " + file + ": 위치 " + position + "의 블록 CRC 불일치, 이후 행을 읽지 않음");
+            position = end;
+            return false;
+        }
+        position += BinaryTable.BLOCK_HEADER + length;
+        remaining = header.getInt(4);
+        pos = 0;
+        return true;
+    }
+}
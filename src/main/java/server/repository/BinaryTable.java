@@ -0,0 +1,275 @@
+package server.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import server.log.Log;
+
+/**
+ *  블록 단위 레코드 파일 테이블 (storage.engine=binary)
+ *  - 파일 이름은 CSV 경로에서 .csv를 뺀 뒤 .rec (data/rooms.csv -> data/rooms.rec)
+ *  - 행을 문자열로 나누거나 따옴표를 해석하지 않고, 필드 길이를 앞에 적어 바이트 그대로 저장
+ *  - 블록마다 CRC32C를 두고 읽을 때 확인, 덧붙이려고 열 때 쓰다 만 마지막 블록은 잘라냄
+ *  - 블록 위치와 그 블록의 첫 행 순번을 메모리 색인으로 두어 PAGE 커서 위치까지 블록 단위로 건너뜀
+ *  - 처음 열 때 .rec 파일이 없고 CSV 파일이 있으면 CSV 내용을 한 번 옮겨 담음 (CSV 파일은 그대로 둠)
+ * <pre>
+ *  파일  = MAGIC("HMSREC01") 블록*
+ *  블록  = [int 내용 길이][int 행 수][int CRC32C(내용)] 내용
+ *  내용  = 행*, 행 = [varint 필드 수] ([varint 길이][UTF-8 바이트])*
+ * </pre>
+ *  varint: 7비트씩 낮은 자리부터, 이어지는 바이트가 있으면 최상위 비트 1 (짧은 필드는 길이 1바이트)
+ *  덧붙이기는 append 한 번에 블록 하나, replace는 BLOCK_SIZE 정도씩 묶어서 씀
+ * @author user
+ */
+final class BinaryTable extends FileTable {
+    static final byte[] MAGIC = "HMSREC01".getBytes(StandardCharsets.US_ASCII);
+    static final int BLOCK_HEADER = 12;
+    private static final int BLOCK_SIZE = 64 << 10; // replace/옮겨 담기에서 블록 하나의 목표 크기
+
+    // 블록 색인 (this 모니터로 보호, 파일 앞에서부터 확인한 완전한 블록까지)
+    private long[] offsets = new long[16];  // 블록 시작 위치
+    private long[] firstRows = new long[16]; // 블록의 첫 행 순번
+    private int blocks;
+    private long indexedEnd;                 // 색인한 마지막 블록의 끝 (0이면 아직 MAGIC도 확인 안 함)
+    private long indexedRows;
+
+    BinaryTable(String csvPath, String header, int limit) {
+        super(Path.of(recordPath(csvPath)));
+        importCsv(csvPath, header, limit);
+    }
+
+    static String recordPath(String csvPath) {
+        return (csvPath.endsWith(".csv") ? csvPath.substring(0, csvPath.length() - 4) : csvPath) + ".rec";
+    }
+
+    @Override
+    public Rows rows(long from) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long offset, firstRow, end;
+            synchronized (this) {
+                index(channel);
+                end = indexedEnd;
+                int block = blockOf(from);
+                offset = (block < 0) ? end : offsets[block];
+                firstRow = (block < 0) ? indexedRows : firstRows[block];
+            }
+            BinaryRows rows = new BinaryRows(file, channel, offset, end);
+            for (long i = firstRow; i < from && rows.next(); i++) {
+                // 블록 안에서 커서 위치까지 건너뜀
+            }
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized long append(List<String[]> rows) throws IOException {
+        // 파일을 여는 것(prepare)과 쓰는 것을 같은 잠금 안에서 해서 색인이 파일 끝과 어긋나지 않게 함
+        byte[] block = encode(rows);
+        long ticket = appendBytes(block);
+        addBlock(indexedEnd, rows.size(), block.length); // prepare가 색인을 파일 끝까지 맞춰 둔 상태
+        return ticket;
+    }
+
+    @Override
+    public void replace(List<String[]> rows) throws IOException {
+        close(); // 덧붙이던 파일을 닫고 교체
+        DurableFiles.replaceBytes(file.toString(), out -> {
+            out.write(MAGIC);
+            BlockWriter writer = new BlockWriter(out);
+            for (String[] row : rows) writer.add(row);
+            writer.flush();
+        });
+        reset();
+    }
+
+    @Override
+    protected byte[] encode(List<String[]> rows) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        for (String[] row : rows) writeRow(payload, row);
+        return block(payload, rows.size());
+    }
+
+    @Override
+    protected synchronized byte[] prepare(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < MAGIC.length) {
+            // 새 파일 (MAGIC을 쓰다 멈춘 파일도 처음부터 다시 씀)
+            channel.truncate(0);
+            channel.position(0);
+            reset();
+            indexedEnd = MAGIC.length;
+            return MAGIC.clone();
+        }
+        index(channel);
+        if (blocks > 0 && !verify(channel, blocks - 1)) {
+            // 마지막 블록을 쓰다 멈춤: 길이는 맞지만 내용이 다 기록되지 않음
+            blocks--;
+            indexedEnd = offsets[blocks];
+            indexedRows = firstRows[blocks];
+        }
+        if (indexedEnd < size) {
+            Log.warn("[BinaryTable] " + file + ": 끝의 불완전한 블록 " + (size - indexedEnd) + "바이트를 잘라냄");
+            channel.truncate(indexedEnd);
+        }
+        channel.position(indexedEnd);
+        return new byte[0];
+    }
+
+    @Override
+    protected synchronized void reset() {
+        blocks = 0;
+        indexedEnd = 0;
+        indexedRows = 0;
+    }
+
+    // 색인 끝 이후에 새로 생긴 완전한 블록을 색인에 추가 (this 모니터를 가진 상태)
+    private void index(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (indexedEnd == 0) {
+            if (size < MAGIC.length) return;
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            readFully(channel, magic, 0);
+            if (!Arrays.equals(magic.array(), MAGIC)) throw new IOException("레코드 파일 형식이 아님: " + file);
+            indexedEnd = MAGIC.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+        while (indexedEnd + BLOCK_HEADER <= size) {
+            header.clear();
+            readFully(channel, header, indexedEnd);
+            int length = header.getInt(0);
+            int count = header.getInt(4);
+            if (length < 0 || count < 0 || indexedEnd + BLOCK_HEADER + length > size) break; // 쓰다 만 블록
+            addBlock(indexedEnd, count, BLOCK_HEADER + length);
+        }
+    }
+
+    // this 모니터를 가진 상태
+    private void addBlock(long offset, int count, int length) {
+        if (blocks == offsets.length) {
+            offsets = Arrays.copyOf(offsets, blocks * 2);
+            firstRows = Arrays.copyOf(firstRows, blocks * 2);
+        }
+        offsets[blocks] = offset;
+        firstRows[blocks] = indexedRows;
+        blocks++;
+        indexedEnd = offset + length;
+        indexedRows += count;
+    }
+
+    // row번째 행이 들어 있는 블록 (색인 범위 밖이면 -1, this 모니터를 가진 상태)
+    private int blockOf(long row) {
+        if (row >= indexedRows) return -1;
+        int found = Arrays.binarySearch(firstRows, 0, blocks, row);
+        if (found >= 0) {
+            while (found + 1 < blocks && firstRows[found + 1] == row) found++; // 빈 블록은 건너뜀
+            return found;
+        }
+        return -found - 2;
+    }
+
+    private boolean verify(FileChannel channel, int block) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+        readFully(channel, header, offsets[block]);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+        readFully(channel, payload, offsets[block] + BLOCK_HEADER);
+        return crc(payload.array(), payload.limit()) == header.getInt(8);
+    }
+
+    // 처음 한 번: CSV 파일 내용을 레코드 파일로 옮겨 담음
+    private void importCsv(String csvPath, String header, int limit) {
+        if (Files.exists(file) || !Files.exists(Path.of(csvPath))) return;
+        try (CsvScanner csv = CsvScanner.open(csvPath, limit)) {
+            if (header != null) csv.next();
+            long[] imported = new long[1];
+            DurableFiles.replaceBytes(file.toString(), out -> {
+                out.write(MAGIC);
+                BlockWriter writer = new BlockWriter(out);
+                while (csv.next()) {
+                    if (csv.isBlank()) continue;
+                    writer.add(csv.toArray());
+                    imported[0]++;
+                }
+                writer.flush();
+            });
+            Log.info("[BinaryTable] " + csvPath + " -> " + file + " 옮겨 담기 완료 (" + imported[0] + "행)");
+        } catch (IOException ex) {
+            Log.error("[BinaryTable] " + csvPath + " 옮겨 담기 실패", ex);
+        }
+    }
+
+    static int crc(byte[] data, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            int read = channel.read(into, position + into.position());
+            if (read < 0) throw new IOException("레코드 파일이 예상보다 짧음");
+        }
+    }
+
+    private static void writeRow(ByteArrayOutputStream out, String[] row) {
+        writeVarint(out, row.length);
+        for (String field : row) {
+            byte[] bytes = (field == null ? "" : field).getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    // 블록 헤더 + 내용
+    private static byte[] block(ByteArrayOutputStream payload, int count) {
+        byte[] content = payload.toByteArray();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER + content.length);
+        block.putInt(content.length).putInt(count).putInt(crc(content, content.length)).put(content);
+        return block.array();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // 행을 모아 BLOCK_SIZE가 넘을 때마다 블록 하나로 씀 (replace, 옮겨 담기)
+    private static final class BlockWriter {
+        private final OutputStream out;
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+        private int count;
+
+        BlockWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void add(String[] row) throws IOException {
+            writeRow(payload, row);
+            count++;
+            if (payload.size() >= BLOCK_SIZE) flush();
+        }
+
+        void flush() throws IOException {
+            if (count == 0) return;
+            out.write(block(payload, count));
+            payload.reset();
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package server.repository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  CSV 파일 행 단위 스캐너 (저장소 공용, 한 스레드에서만 사용)
+ *  - 파일을 메모리 매핑(FileChannel.map)해서 바이트 위에서 바로 필드 경계만 찾음
+ *    -> 행마다 String[]이나 필드별 부분 문자열을 만들지 않고, 필요한 열만 꺼낼 때 문자열로 만듦
+ *  - 숫자와 날짜는 바이트에서 바로 해석 (Rows.intField, epochDay, dateTime)
+ *  - 큰따옴표로 시작하는 필드는 따옴표 필드로 해석 ("" -> ", 따옴표 안의 ',' 와 줄바꿈은 값의 일부)
+ *  - 줄 끝은 \n 또는 \r\n, 파일 앞의 UTF-8 BOM은 건너뜀
+ *  - MAP_THRESHOLD보다 작은 파일은 매핑하지 않고 힙에 한 번에 읽음
+ *    (작은 파일은 매핑 비용이 더 크고, Windows에서는 매핑이 해제될 때까지 파일을 바꿀 수 없음)
+ *  - 큰 파일은 WINDOW 크기씩 나눠 매핑하고, 행이 경계에 걸치면 그 행의 시작부터 다시 매핑
+ * <pre>
+ *  try (CsvScanner rows = CsvScanner.open(path, 0)) {
+ *      rows.next();                         // 헤더
+ *      while (rows.next()) {
+ *          if (rows.fields() < 5) continue;
+ *          String id = rows.trimmed(0);
+ *          int price = rows.intField(2);
+ *      }
+ *  }
+ * </pre>
+ * @author user
+ */
+final class CsvScanner extends Rows {
+    private static final int MAP_THRESHOLD = 1 << 20;  // 1MB
+    private static final int WINDOW = 64 << 20;        // 64MB
+
+    private final FileChannel channel; // 힙에 읽은 경우 null
+    private final long size;
+    private final int limit;
+    private long base;                 // buf가 시작하는 파일 위치
+    private int window = WINDOW;
+    private int pos;                   // 다음 행의 시작 (buf 안의 위치)
+
+    private CsvScanner(FileChannel channel, long size, ByteBuffer buf, int limit) {
+        this.channel = channel;
+        this.size = size;
+        this.buf = buf;
+        this.limit = limit;
+        if (buf.limit() >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) {
+            pos = 3;
+        }
+    }
+
+    /**
+     * 파일 열기 (없으면 NoSuchFileException)
+     * @param limit String.split(",", limit)과 같은 의미: 양수면 limit-1번째 ',' 뒤는 그대로 마지막 필드
+     *              (따옴표 해석 없음), 0이면 끝의 빈 필드를 셈하지 않음
+     */
+    static CsvScanner open(String path, int limit) throws IOException {
+        FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer heap = ByteBuffer.allocate((int) size);
+                while (heap.hasRemaining()) {
+                    if (channel.read(heap) < 0) throw new EOFException(path);
+                }
+                heap.flip();
+                channel.close();
+                return new CsvScanner(null, size, heap, limit);
+            }
+            return new CsvScanner(channel, size, channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW, size)), limit);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    boolean next() throws IOException {
+        while (true) {
+            if (pos >= buf.limit()) {
+                if (atEof()) return false;
+                slide(pos);
+            }
+            int next = tokenize();
+            if (next >= 0) {
+                pos = next;
+                return true;
+            }
+            // 행이 구간 끝에 걸침: 행 시작부터 다시 매핑 (구간 전체가 한 행이면 구간을 늘림)
+            if (pos == 0) window = (int) Math.min(Integer.MAX_VALUE, (long) window * 2);
+            slide(pos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    // 현재 행을 나눔: 다음 행의 시작 위치, 행이 구간 끝에 걸쳐 더 읽어야 하면 -1
+    private int tokenize() {
+        int end = buf.limit();
+        count = 0;
+        int i = pos;
+        while (true) {
+            if (limit > 0 && count == limit - 1) {
+                int j = lineEnd(i, end);
+                if (j < 0) return -1;
+                add(i, withoutCr(i, j), false);
+                return finish(j);
+            }
+            if (i < end && buf.get(i) == '"') {
+                int j = i + 1;
+                while (j < end) {
+                    if (buf.get(j) == '"') {
+                        if (j + 1 >= end && !atEof()) return -1;
+                        if (j + 1 < end && buf.get(j + 1) == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                if (j >= end && !atEof()) return -1;
+                add(i + 1, Math.min(j, end), true);
+                // 닫는 따옴표 뒤에서 구분자까지의 내용은 버림
+                int k = Math.min(j + 1, end);
+                while (k < end && buf.get(k) != ',' && buf.get(k) != '\n') k++;
+                if (k >= end && !atEof()) return -1;
+                if (k >= end || buf.get(k) == '\n') return finish(k);
+                i = k + 1;
+                continue;
+            }
+            int j = i;
+            while (j < end) {
+                byte b = buf.get(j);
+                if (b == ',' || b == '\n') break;
+                j++;
+            }
+            if (j >= end && !atEof()) return -1;
+            if (j >= end || buf.get(j) == '\n') {
+                add(i, withoutCr(i, j), false);
+                return finish(j);
+            }
+            add(i, j, false);
+            i = j + 1;
+        }
+    }
+
+    // 줄바꿈 위치 (파일 끝이면 end, 구간 끝에 걸치면 -1)
+    private int lineEnd(int from, int end) {
+        for (int j = from; j < end; j++) {
+            if (buf.get(j) == '\n') return j;
+        }
+        return atEof() ? end : -1;
+    }
+
+    private int finish(int lineEnd) {
+        if (limit == 0) dropTrailingEmpty();
+        return lineEnd < buf.limit() ? lineEnd + 1 : lineEnd;
+    }
+
+    private int withoutCr(int from, int to) {
+        return (to > from && buf.get(to - 1) == '\r') ? to - 1 : to;
+    }
+
+    private boolean atEof() {
+        return base + buf.limit() >= size;
+    }
+
+    // 파일의 (base + from) 위치부터 다시 매핑
+    private void slide(int from) throws IOException {
+        base += from;
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
+        pos = 0;
+    }
+}
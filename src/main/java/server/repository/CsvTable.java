@@ -0,0 +1,89 @@
+package server.repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ *  CSV 파일 테이블 (기본 저장 엔진)
+ *  - 파일 경로와 형식은 예전과 같음: 첫 줄 헤더, 한 줄에 한 행, 필드는 ','로 구분
+ *  - ',' 나 줄바꿈이 들어 있거나 큰따옴표로 시작하는 필드는 큰따옴표로 감싸서 씀 (CsvScanner가 읽는 형식)
+ *  - limit이 양수면 마지막 필드는 그대로 씀 (요청사항, 음식 이름처럼 ','를 포함할 수 있는 열)
+ * @author user
+ */
+final class CsvTable extends FileTable {
+    private final String path;
+    private final String header;
+    private final int limit;
+
+    CsvTable(String path, String header, int limit) {
+        super(Path.of(path));
+        this.path = path;
+        this.header = header;
+        this.limit = limit;
+    }
+
+    @Override
+    public Rows rows(long from) throws IOException {
+        CsvScanner rows = CsvScanner.open(path, limit);
+        try {
+            if (header != null) rows.next();
+            for (long i = 0; i < from && rows.next(); i++) {
+                // 커서 위치까지 건너뜀 (필드 경계만 찾음)
+            }
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            rows.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void replace(List<String[]> rows) throws IOException {
+        close(); // 덧붙이던 파일을 닫고 교체
+        DurableFiles.replace(path, out -> {
+            if (header != null) {
+                out.write(header);
+                out.newLine();
+            }
+            for (String[] row : rows) {
+                out.write(line(row));
+                out.newLine();
+            }
+        });
+    }
+
+    @Override
+    protected byte[] encode(List<String[]> rows) {
+        StringBuilder text = new StringBuilder();
+        for (String[] row : rows) text.append(line(row)).append('\n');
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected byte[] prepare(FileChannel channel) throws IOException {
+        return DurableFiles.prefix(channel, header).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 한 행 -> CSV 한 줄
+    private String line(String[] row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) line.append(',');
+            String value = (row[i] == null) ? "" : row[i];
+            boolean last = limit > 0 && i == limit - 1;
+            if (!last && needsQuotes(value)) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    private static boolean needsQuotes(String value) {
+        return value.startsWith("\"") || value.indexOf(',') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    }
+}
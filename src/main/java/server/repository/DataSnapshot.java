@@ -0,0 +1,65 @@
+package server.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ *  목록 데이터(객실, 메뉴 주문)의 읽기 전용 시점 사본
+ *  - 저장소가 쓰기를 마칠 때마다 새 사본을 volatile 참조로 내보내고, 읽는 쪽은 잠금 없이 씀
+ *  - 덧붙이기만 하는 목록은 배열을 다음 사본과 공유: 사본마다 자기 길이까지만 보이므로
+ *    뒤에 덧붙여도 이전 사본은 바뀌지 않음 (appended)
+ *  - 담긴 객체는 바뀌지 않는 것으로 봄
+ * @author user
+ */
+public final class DataSnapshot<T> {
+    private final long version;
+    private final Object[] items;   // [0, size)만 이 사본의 내용
+    private final int size;
+
+    private DataSnapshot(long version, Object[] items, int size) {
+        this.version = version;
+        this.items = items;
+        this.size = size;
+    }
+
+    static <T> DataSnapshot<T> of(long version, List<? extends T> items) {
+        return new DataSnapshot<>(version, items.toArray(), items.size());
+    }
+
+    /**
+     * item을 덧붙인 다음 사본 (배열에 자리가 있으면 공유)
+     * - 항상 가장 최근 사본에서만, 저장소의 잠금 안에서 부름 (이전 사본에서 부르면 이후 사본의 내용을 덮어씀)
+     */
+    DataSnapshot<T> appended(long version, T item) {
+        Object[] array = items;
+        if (size == array.length) array = Arrays.copyOf(array, Math.max(16, size * 2));
+        array[size] = item;
+        return new DataSnapshot<>(version, array, size + 1);
+    }
+
+    /** 이 사본을 만들 때의 데이터 버전 */
+    public long version() {
+        return version;
+    }
+
+    /** 사본의 내용 (수정할 수 없는 목록, 복사하지 않음) */
+    public List<T> items() {
+        return new View();
+    }
+
+    private final class View extends AbstractList<T> implements RandomAccess {
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return (T) items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package server.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
+
+/**
+ *  저장소 공용 파일 쓰기 (디스크에 기록된 뒤에 반환)
+ *  - replace: 임시 파일(경로.tmp)에 전부 쓰고 fsync한 뒤 이름을 바꿔 교체
+ *    -> 쓰는 도중에 멈춰도 원래 파일은 그대로 남음 (남은 .tmp는 다음 교체 때 덮어씀)
+ *  - 덧붙이기는 GroupCommitLog (파일 열기, 쓰기, fsync는 여기 함수를 같이 씀)
+ *  - 텍스트는 모두 UTF-8
+ * @author user
+ */
+final class DurableFiles {
+    static final LatencyHistogram SYNC_TIME = Metrics.timer("repo.fsync");
+
+    /** 텍스트 파일 내용 쓰기 (replace) */
+    interface Content {
+        void write(BufferedWriter out) throws IOException;
+    }
+
+    /** 바이너리 파일 내용 쓰기 (replaceBytes) */
+    interface Output {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private DurableFiles() {}
+
+    /** path 파일을 content로 통째로 교체 */
+    static void replace(String path, Content content) throws IOException {
+        replaceBytes(path, stream -> {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            content.write(out);
+            out.flush();
+        });
+    }
+
+    /** path 파일을 output이 쓴 바이트로 통째로 교체 */
+    static void replaceBytes(String path, Output output) throws IOException {
+        Path target = Path.of(path);
+        Path tmp = Path.of(path + ".tmp");
+        createParent(target);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            output.write(out);
+            out.flush();
+            force(channel);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target);
+    }
+
+    // 덧붙이기용으로 열고 파일 끝으로 이동 (폴더가 없으면 만듦, prefix에서 마지막 바이트를 읽으므로 APPEND 대신 READ+WRITE)
+    static FileChannel openForAppend(Path path) throws IOException {
+        createParent(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.position(channel.size());
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        return channel;
+    }
+
+    // 첫 기록 앞에 붙일 내용: 빈 파일이면 헤더, 마지막 줄이 끝나지 않았으면 줄바꿈
+    static String prefix(FileChannel channel, String header) throws IOException {
+        long size = channel.size();
+        if (size == 0) return (header == null) ? "" : header + "\n";
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return (last.get(0) == '\n') ? "" : "\n";
+    }
+
+    static void writeFully(FileChannel channel, byte[] data) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(data);
+        while (bytes.hasRemaining()) channel.write(bytes);
+    }
+
+    static void force(FileChannel channel) throws IOException {
+        long start = System.nanoTime();
+        channel.force(false);
+        SYNC_TIME.recordSince(start);
+    }
+
+    private static void createParent(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+
+    // 이름 바꾸기를 디스크에 기록 (폴더를 열 수 없는 OS(Windows)에서는 건너뜀)
+    private static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ex) {
+            // 폴더 fsync를 지원하지 않으면 파일 fsync까지만 보장
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package server.repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  파일 하나에 저장하는 테이블의 공통 부분 (CsvTable, BinaryTable)
+ *  - 덧붙이기와 묶음 fsync는 GroupCommitLog, 파일 교체는 DurableFiles
+ *  - 하위 클래스는 행을 바이트로 바꾸는 방법(encode)과 읽는 방법(rows)만 정함
+ * @author user
+ */
+abstract class FileTable implements Table {
+    protected final Path file;
+    private final GroupCommitLog appender;
+
+    FileTable(Path file) {
+        this.file = file;
+        this.appender = new GroupCommitLog(file, this::prepare);
+    }
+
+    /** 덧붙일 행들의 바이트 */
+    protected abstract byte[] encode(List<String[]> rows);
+
+    /** 덧붙이려고 파일을 연 직후 호출 (GroupCommitLog.Opener) */
+    protected abstract byte[] prepare(FileChannel channel) throws IOException;
+
+    /** 파일이 통째로 바뀌거나 없어진 뒤 호출 (읽어 둔 파일 정보를 버림) */
+    protected void reset() {
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    @Override
+    public long append(List<String[]> rows) throws IOException {
+        return appendBytes(encode(rows));
+    }
+
+    protected final long appendBytes(byte[] data) throws IOException {
+        return appender.append(data);
+    }
+
+    @Override
+    public void sync(long ticket) throws IOException {
+        appender.sync(ticket);
+    }
+
+    @Override
+    public void close() throws IOException {
+        appender.close();
+    }
+
+    @Override
+    public void moveTo(Table target) throws IOException {
+        FileTable to = (FileTable) target;
+        close();
+        to.close();
+        if (!exists()) return;
+        if (!to.exists()) {
+            Files.move(file, to.file);
+        } else {
+            // 이전에 옮긴 내용이 남아 있으면 그 뒤에 이어 붙임
+            List<String[]> rows = new ArrayList<>();
+            try (Rows cursor = rows(0)) {
+                while (cursor.next()) rows.add(cursor.toArray());
+            }
+            if (!rows.isEmpty()) to.append(rows);
+            to.close();
+            Files.delete(file);
+        }
+        reset();
+        to.reset();
+    }
+
+    @Override
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+        reset();
+    }
+}
@@ -0,0 +1,148 @@
+package server.repository;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ *  덧붙이기 전용 파일의 묶음 fsync (group commit)
+ *  - append: 파일에 바로 쓰고(OS 버퍼까지) 티켓(지금까지 쓴 바이트 수)을 돌려줌
+ *    호출하는 저장소의 잠금 안에서 부르면 파일의 기록 순서가 잠금 순서와 같음
+ *  - sync(티켓): 그 기록이 디스크에 닿을 때까지 기다림. 잠금 밖에서 부름
+ *    한 스레드가 fsync하는 동안 들어온 기록은 다음 fsync 한 번에 함께 기록됨
+ *    -> 동시에 쓰는 스레드가 많아도 fsync 횟수는 기록 수가 아니라 "fsync 시간당 1번"
+ *  - 파일은 처음 쓸 때 열어 두고 계속 씀, close 후에 쓰면 다시 엶 (로그 교체, 파일 통째 교체 전에 close)
+ *  - 파일을 열 때 Opener가 쓰기 위치를 정하고 첫 기록 앞에 붙일 내용(헤더 등)을 돌려줌
+ * @author user
+ */
+final class GroupCommitLog {
+    /** 파일을 연 직후 호출: 쓰기 위치를 정하고 첫 기록 앞에 쓸 바이트 반환 (없으면 빈 배열) */
+    interface Opener {
+        byte[] prepare(FileChannel channel) throws IOException;
+    }
+
+    private final Path path;
+    private final Opener opener;
+
+    // this 모니터로 보호
+    private FileChannel channel;
+    private long written;               // 지금까지 쓴 바이트 수 (다시 열어도 계속 증가)
+
+    // syncLock으로 보호
+    private final Object syncLock = new Object();
+    private boolean syncing;
+    private long synced;                // 디스크에 기록된 것이 확인된 티켓
+
+    GroupCommitLog(Path path, Opener opener) {
+        this.path = path;
+        this.opener = opener;
+    }
+
+    /** data를 덧붙이고 티켓 반환 (아직 fsync 전) */
+    synchronized long append(byte[] data) throws IOException {
+        try {
+            if (channel == null) {
+                channel = DurableFiles.openForAppend(path);
+                DurableFiles.writeFully(channel, opener.prepare(channel));
+            }
+            DurableFiles.writeFully(channel, data);
+        } catch (IOException ex) {
+            if (channel != null) closeQuietly();
+            throw ex;
+        }
+        written += data.length;
+        return written;
+    }
+
+    /** 티켓까지의 기록이 디스크에 닿을 때까지 대기 (0이면 바로 반환) */
+    void sync(long ticket) throws IOException {
+        while (true) {
+            synchronized (syncLock) {
+                while (syncing && synced < ticket) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("fsync 대기 중 인터럽트");
+                    }
+                }
+                if (synced >= ticket) return;
+                syncing = true; // 이 스레드가 다음 fsync를 맡음
+            }
+            long target = 0;
+            IOException failure = null;
+            try {
+                target = forceWritten();
+            } catch (IOException ex) {
+                failure = ex;
+            } finally {
+                synchronized (syncLock) {
+                    syncing = false;
+                    if (failure == null) synced = Math.max(synced, target);
+                    syncLock.notifyAll();
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /** 남은 기록을 fsync하고 파일을 닫음 (다음 append 때 다시 엶) */
+    void close() throws IOException {
+        synchronized (syncLock) {
+            while (syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("fsync 대기 중 인터럽트");
+                }
+            }
+            syncing = true; // 닫는 동안 다른 스레드가 fsync하지 않도록
+        }
+        long target = -1;
+        try {
+            synchronized (this) {
+                if (channel != null) {
+                    DurableFiles.force(channel);
+                    channel.close();
+                    channel = null;
+                }
+                target = written;
+            }
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                synced = Math.max(synced, target);
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    // 지금까지 쓴 것을 fsync하고 그 티켓 반환 (fsync 동안 append는 막지 않음)
+    private long forceWritten() throws IOException {
+        FileChannel current;
+        long target;
+        synchronized (this) {
+            current = channel;
+            target = written;
+        }
+        if (current != null) DurableFiles.force(current);
+        return target;
+    }
+
+    // this 모니터를 가진 상태: 쓰기 오류 뒤에는 다음 append 때 새로 엶 (그 전의 기록은 최대한 fsync)
+    private void closeQuietly() {
+        try {
+            channel.force(false);
+        } catch (IOException ignored) {
+            // 아래에서 닫음
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 이미 쓰기 오류를 보고함
+        }
+        channel = null;
+    }
+}
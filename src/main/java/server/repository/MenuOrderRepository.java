@@ -1,22 +1,54 @@
 package server.repository;
 
+import server.log.Log;
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
 import server.model.MenuOrder;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
- * 메뉴 주문 내역(menu_orders.csv) 파일을 관리하는 저장소 클래스
- * - 주문 내역 전체 조회 및 단일 주문 저장 기능 제공
+ * 메뉴 주문 내역을 관리하는 저장소 클래스
+ * - 주문은 주문한 달마다 따로 파일(구간, data/menu_orders/yyyy-MM.csv)에 저장하고,
+ *   구간 목록은 data/menu_orders/manifest.csv에 둠 (새 달의 첫 주문 때만 다시 씀)
+ * - 예전의 한 파일(data/menu_orders.csv)은 처음 시작할 때 달별 구간으로 나눠 옮기고
+ *   data/menu_orders.csv.migrated로 이름을 바꿔 남김 (해석할 수 없는 행은 data/menu_orders/rejected.csv)
+ * - 기간 조회(findBetween)는 기간과 겹치는 달의 구간만 읽음 -> 보고서 비용이 전체 기록이 아니라 요청한 기간에 비례
+ * - 구간마다 읽기 전용 사본(DataSnapshot): 그 구간을 처음 조회할 때 파일을 한 번 읽고,
+ *   주문을 저장할 때마다 덧붙인 사본을 내보냄 (지난 달 구간은 조회할 때까지 읽지 않음)
  * - 동기화(synchronized)로 멀티스레드 환경에서 파일 접근 충돌 방지
+ *   (구간 목록은 this 모니터, 구간 파일은 구간 객체의 모니터, 둘 다 잡을 때는 this 먼저)
  */
 public class MenuOrderRepository {
     /**
-     * 주문 내역이 저장되는 CSV 파일 경로
+     * 예전 주문 내역 파일 경로 (있으면 시작할 때 구간으로 옮김, 다른 저장 엔진은 이 경로에서 파일 이름을 정함)
      */
-    private static final String ORDER_FILE_PATH = "data/menu_orders.csv";
+    private static final String LEGACY_FILE_PATH = "data/menu_orders.csv";
+
+    /**
+     * 옮긴 뒤의 예전 파일 (지우지 않고 남김)
+     */
+    private static final String MIGRATED_PATH = LEGACY_FILE_PATH + ".migrated";
+
+    /**
+     * 구간 파일과 구간 목록이 있는 폴더
+     */
+    private static final String SEGMENT_DIR = "data/menu_orders/";
+
+    /**
+     * 옮길 때 해석할 수 없었던 행 (원래 내용 그대로)
+     */
+    private static final String REJECTED_PATH = SEGMENT_DIR + "rejected.csv";
+
+    private static final String HEADER = "SaleId,GuestName,OrderTime,TotalPrice,Payment,FoodName";
 
     /**
      * 주문 시간 포맷 (예: 2025-11-27 14:30:00)
@@ -24,71 +56,321 @@ public class MenuOrderRepository {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
-     * 모든 주문 내역을 menu_orders.csv에서 읽어와 리스트로 반환
+     * 한 행의 필드 수 (음식 이름은 마지막 필드)
+     */
+    private static final int FIELDS = 6;
+
+    /**
+     * 구간 목록 (한 행에 달 하나, yyyy-MM)
+     */
+    private final Table manifest = Storage.open(SEGMENT_DIR + "manifest.csv", "Month", 0);
+
+    /**
+     * 파일 읽기/쓰기 시간 (GET_METRICS)
+     */
+    private static final LatencyHistogram READ_TIME = Metrics.timer("repo.menuOrders.read");
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("repo.menuOrders.write");
+
+    /**
+     * 데이터 버전: 주문을 저장할 때마다 1씩 증가 (재시작해도 줄지 않도록 시작 시각(ms)에서 출발)
+     */
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * 한 달치 주문 파일 (덧붙이기는 묶음 fsync)
+     */
+    private static final class Segment {
+        final YearMonth month;
+        final Table table;
+        // 마지막으로 내보낸 이 구간의 주문 목록 (이 객체의 모니터 안에서 바꾸고, 읽을 때는 잠금 없음, null이면 아직 읽지 않음)
+        volatile DataSnapshot<MenuOrder> published;
+
+        Segment(YearMonth month) {
+            this.month = month;
+            this.table = Storage.open(SEGMENT_DIR + month + ".csv", HEADER, FIELDS);
+        }
+    }
+
+    /**
+     * 달 -> 구간 (새 구간은 this 모니터 안에서 복사해 바꿔 끼우고, 읽을 때는 잠금 없음)
+     */
+    private volatile NavigableMap<YearMonth, Segment> segments;
+
+    public MenuOrderRepository() {
+        segments = Collections.unmodifiableNavigableMap(openSegments());
+    }
+
+    /** 현재 데이터 버전 (파일을 읽지 않음) */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 구간 목록을 읽고, 목록이 없으면 예전 한 파일을 구간으로 옮김
+     * - 목록이 있으면 예전 파일은 열지 않음 (binary 엔진이 시작할 때마다 CSV를 다시 옮겨 담지 않도록)
+     * - 구간 파일을 모두 쓴 뒤에 목록을 쓰므로, 도중에 멈추면 다음 시작 때 처음부터 다시 옮김
+     */
+    private TreeMap<YearMonth, Segment> openSegments() {
+        TreeMap<YearMonth, Segment> map = new TreeMap<>();
+        try {
+            if (manifest.exists()) {
+                try (Rows rows = manifest.rows(0)) {
+                    while (rows.next()) {
+                        if (rows.isBlank()) continue;
+                        YearMonth month = YearMonth.parse(rows.trimmed(0));
+                        map.put(month, new Segment(month));
+                    }
+                }
+            } else {
+                Table legacy = Storage.open(LEGACY_FILE_PATH, HEADER, FIELDS);
+                if (legacy.exists()) migrate(legacy, map);
+            }
+        } catch (IOException | DateTimeParseException e) {
+            Log.error("[MenuOrderRepository] 구간 목록 읽기 오류", e);
+        }
+        return map;
+    }
+
+    /**
+     * 예전 파일의 행을 주문 달별 구간 파일로 나눠 씀 (파일 순서 유지) -> 구간 목록 -> 예전 파일 이름 변경
+     * - 해석할 수 없는 행(필드 수, 주문 시간, 금액)은 버리지 않고 REJECTED_PATH에 그대로 옮김
+     * - 예전 파일은 지우지 않고 MIGRATED_PATH로 이름만 바꿔 남김 (빈 줄 말고는 모든 행이 어딘가에 남음)
+     */
+    private void migrate(Table legacy, Map<YearMonth, Segment> map) throws IOException {
+        Map<YearMonth, List<String[]>> byMonth = new TreeMap<>();
+        List<String[]> rejected = new ArrayList<>();
+        int count = 0;
+        try (Rows rows = legacy.rows(0)) {
+            while (rows.next()) {
+                if (rows.isBlank()) continue;
+                MenuOrder order;
+                try {
+                    order = parse(rows);
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    order = null;
+                }
+                if (order == null) {
+                    rejected.add(rows.toArray());
+                    continue;
+                }
+                byMonth.computeIfAbsent(YearMonth.from(order.getOrderTime()), k -> new ArrayList<>()).add(rows.toArray());
+                count++;
+            }
+        }
+        for (Map.Entry<YearMonth, List<String[]>> entry : byMonth.entrySet()) {
+            Segment segment = new Segment(entry.getKey());
+            segment.table.replace(entry.getValue());
+            map.put(entry.getKey(), segment);
+        }
+        if (!rejected.isEmpty()) {
+            Storage.open(REJECTED_PATH, HEADER, FIELDS).replace(rejected);
+            Log.warn("[MenuOrderRepository] 해석할 수 없는 주문 " + rejected.size() + "행을 " + REJECTED_PATH + "에 옮김");
+        }
+        writeManifest(map);
+        legacy.moveTo(Storage.open(MIGRATED_PATH, HEADER, FIELDS));
+        Log.info("[MenuOrderRepository] 주문 " + count + "건을 월별 파일 " + byMonth.size() + "개로 옮김 (예전 파일: " + MIGRATED_PATH + ")");
+    }
+
+    private void writeManifest(Map<YearMonth, Segment> map) throws IOException {
+        List<String[]> rows = new ArrayList<>(map.size());
+        for (YearMonth month : map.keySet()) rows.add(new String[] {month.toString()});
+        manifest.replace(rows);
+    }
+
+    /**
+     * 그 달의 구간 (없으면 만들어 구간 목록에 기록, this 모니터를 가진 상태)
+     */
+    private Segment segmentFor(YearMonth month) throws IOException {
+        Segment segment = segments.get(month);
+        if (segment != null) return segment;
+        segment = new Segment(month);
+        TreeMap<YearMonth, Segment> updated = new TreeMap<>(segments);
+        updated.put(month, segment);
+        writeManifest(updated);
+        segments = Collections.unmodifiableNavigableMap(updated);
+        return segment;
+    }
+
+    /**
+     * 마지막 저장까지 반영된 한 구간의 주문 목록 사본 (파일 순서)
+     * - 구간마다 처음 한 번만 그 구간의 잠금을 잡고 파일을 읽음
+     */
+    private DataSnapshot<MenuOrder> snapshot(Segment segment) {
+        DataSnapshot<MenuOrder> current = segment.published;
+        if (current != null) return current;
+        synchronized (segment) {
+            if (segment.published == null) segment.published = DataSnapshot.of(version.get(), load(segment.table));
+            return segment.published;
+        }
+    }
+
+    /**
+     * 모든 주문 내역을 리스트로 반환 (모든 구간을 달 순서로, 사본에서 복사)
+     * @return 주문 내역 리스트
+     */
+    public List<MenuOrder> findAll() {
+        List<MenuOrder> orders = new ArrayList<>();
+        for (Segment segment : segments.values()) orders.addAll(snapshot(segment).items());
+        return orders;
+    }
+
+    /**
+     * first~last(포함) 날짜에 한 주문 (달 순서, 같은 달은 파일 순서)
+     * - 기간과 겹치는 달의 구간만 읽음
+     */
+    public List<MenuOrder> findBetween(LocalDate first, LocalDate last) {
+        List<MenuOrder> orders = new ArrayList<>();
+        for (Segment segment : overlapping(first, last).values()) {
+            for (MenuOrder order : snapshot(segment).items()) {
+                LocalDate date = order.getOrderTime().toLocalDate();
+                if (!date.isBefore(first) && !date.isAfter(last)) orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private NavigableMap<YearMonth, Segment> overlapping(LocalDate first, LocalDate last) {
+        if (last.isBefore(first)) return Collections.emptyNavigableMap();
+        return segments.subMap(YearMonth.from(first), true, YearMonth.from(last), true);
+    }
+
+    /**
+     * 구간 파일 하나를 읽어옴 (구간의 모니터를 가진 상태)
      * - 파일이 없으면 빈 리스트 반환
      * - 각 주문은 MenuOrder 객체로 변환
-     * - 파일 접근 및 파싱 중 예외 발생 시 스택 트레이스 출력
-     * - 동기화로 멀티스레드 환경에서 안전하게 동작
-     * @return 주문 내역 리스트
+     * - 파일 접근 및 파싱 중 예외 발생 시 에러 로그
      */
-    public synchronized List<MenuOrder> findAll() {
+    private static List<MenuOrder> load(Table table) {
         List<MenuOrder> orders = new ArrayList<>();
-        File file = new File(ORDER_FILE_PATH);
         // 주문 내역 파일이 없으면 빈 리스트 반환
-        if (!file.exists()) return orders;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String line = reader.readLine(); // 첫 줄(헤더) 스킵
-            while ((line = reader.readLine()) != null) {
-                // 빈 줄은 무시
-                if (line.trim().isEmpty()) continue;
-                // CSV를 6개 항목으로 분리 (SaleId, GuestName, OrderTime, TotalPrice, Payment, FoodName)
-                String[] parts = line.split(",", 6);
-                if (parts.length == 6) {
-                    // 각 필드를 파싱하여 MenuOrder 객체 생성
-                    String saleId = parts[0].trim();
-                    String guestName = parts[1].trim();
-                    LocalDateTime orderTime = LocalDateTime.parse(parts[2].trim(), FORMATTER);
-                    int totalPrice = Integer.parseInt(parts[3].trim());
-                    String payment = parts[4].trim();
-                    // 여러 음식 이름은 '|'로 구분되어 저장됨
-                    List<String> foodNames = Arrays.asList(parts[5].split("\\|"));
-                    orders.add(new MenuOrder(saleId, guestName, orderTime, totalPrice, payment, foodNames));
-                }
-                // 필드 개수가 맞지 않으면 해당 줄은 무시 (데이터 손상 방지)
+        if (!table.exists()) return orders;
+        long start = System.nanoTime();
+        try (Rows rows = table.rows(0)) {
+            while (rows.next()) {
+                MenuOrder order = parse(rows);
+                if (order != null) orders.add(order);
             }
         } catch (IOException e) {
-            // 파일 읽기 중 예외 발생 시 콘솔에 에러 출력
-            e.printStackTrace();
+            // 파일 읽기 중 예외 발생 시 에러 로그
+            Log.error("[MenuOrderRepository] 파일 읽기 오류", e);
         }
+        READ_TIME.recordSince(start);
         return orders;
     }
 
     /**
-     * 단일 주문 내역을 menu_orders.csv에 저장
-     * - 파일이 없거나 비어있으면 헤더를 먼저 작성
-     * - 주문 정보는 CSV 한 줄로 저장 (음식 이름은 '|'로 구분)
-     * - 파일 접근 중 예외 발생 시 스택 트레이스 출력
-     * - 동기화로 멀티스레드 환경에서 안전하게 동작
+     * 조건에 맞는 주문 내역 한 페이지 조회 (PAGE 명령, 모든 구간)
+     * @param from 시작 커서 (0: 처음부터)
+     * @param filter 포함할 주문 조건
+     * @return 주문 목록과 다음 커서
+     */
+    public Slice<MenuOrder> scan(long from, int max, Predicate<MenuOrder> filter) {
+        return scan(segments, from, max, filter);
+    }
+
+    /**
+     * first~last 날짜와 겹치는 달의 구간에서만 한 페이지 조회 (날짜 조건은 filter로)
+     */
+    public Slice<MenuOrder> scan(long from, int max, LocalDate first, LocalDate last, Predicate<MenuOrder> filter) {
+        return scan(overlapping(first, last), from, max, filter);
+    }
+
+    /**
+     * 구간 파일을 달 순서로 한 줄씩 읽어 조건에 맞는 주문을 최대 max개까지만 만들고 멈춤
+     * - 커서 = (달 번호 << 32) | 구간 안의 행 순번: 새 달의 구간이 생겨도 이미 준 커서의 위치는 그대로
+     */
+    private static Slice<MenuOrder> scan(NavigableMap<YearMonth, Segment> range, long from, int max, Predicate<MenuOrder> filter) {
+        List<MenuOrder> items = new ArrayList<>();
+        long fromMonth = from >>> 32;
+        long start = System.nanoTime();
+        try {
+            for (Segment segment : range.values()) {
+                long month = segment.month.getYear() * 12L + segment.month.getMonthValue();
+                if (month < fromMonth) continue;
+                long row = (month == fromMonth) ? (from & 0xFFFFFFFFL) : 0;
+                Slice<MenuOrder> part;
+                synchronized (segment) {
+                    if (!segment.table.exists()) continue;
+                    try (Rows rows = segment.table.rows(row)) {
+                        part = Slice.scan(rows, row, max - items.size(), MenuOrderRepository::parse, filter);
+                    }
+                }
+                items.addAll(part.items());
+                if (part.next() != Slice.END) return new Slice<>(items, (month << 32) | part.next());
+            }
+        } catch (IOException e) {
+            Log.error("[MenuOrderRepository] 파일 읽기 오류", e);
+            return Slice.empty();
+        } finally {
+            READ_TIME.recordSince(start);
+        }
+        return new Slice<>(items, Slice.END);
+    }
+
+    /**
+     * 테이블 한 행을 MenuOrder로 변환
+     * - 빈 줄이나 필드 개수가 맞지 않는 줄은 null (데이터 손상 방지)
+     */
+    private static MenuOrder parse(Rows row) {
+        // 빈 줄은 무시
+        if (row.isBlank()) return null;
+        // 6개 항목 (SaleId, GuestName, OrderTime, TotalPrice, Payment, FoodName)
+        if (row.fields() != FIELDS) return null;
+        // 각 필드를 파싱하여 MenuOrder 객체 생성 (주문 시간과 금액은 바이트에서 바로 해석)
+        String saleId = row.trimmed(0);
+        String guestName = row.trimmed(1);
+        LocalDateTime orderTime = row.dateTime(2);
+        int totalPrice = row.intField(3);
+        String payment = row.trimmed(4);
+        // 여러 음식 이름은 '|'로 구분되어 저장됨
+        List<String> foodNames = Arrays.asList(row.field(5).split("\\|"));
+        return new MenuOrder(saleId, guestName, orderTime, totalPrice, payment, foodNames);
+    }
+
+    /**
+     * 단일 주문 내역을 주문한 달의 구간 파일에 저장
+     * - 그 달의 첫 주문이면 구간을 만들어 구간 목록에 기록
+     * - 주문 정보는 테이블 한 행으로 저장 (음식 이름은 '|'로 구분)
+     * - 줄은 잠금 안에서 덧붙이고, 잠금을 놓은 뒤 디스크 기록(fsync)을 기다림
+     *   (동시에 들어온 주문은 fsync 한 번으로 함께 기록)
+     * - 파일 접근 중 예외 발생 시 에러 로그
+     *   (fsync만 실패하면 줄은 이미 덧붙여 조회에도 보이므로 저장된 것으로 봄)
      * @param order 저장할 주문 객체
+     * @return 주문 줄을 덧붙였으면 true
      */
-    public synchronized void save(MenuOrder order) {
-        // 파일이 없거나 비어있으면 헤더 필요
-        boolean needHeader = !(new File(ORDER_FILE_PATH)).exists() || (new File(ORDER_FILE_PATH)).length() == 0;
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(ORDER_FILE_PATH, true), StandardCharsets.UTF_8))) {
-            if (needHeader) {
-                // 첫 저장 시 헤더 작성
-                writer.write("SaleId,GuestName,OrderTime,TotalPrice,Payment,FoodName");
-                writer.newLine();
+    public boolean save(MenuOrder order) {
+        // 음식 이름 리스트를 '|'로 연결하여 문자열로 변환
+        String foodNamesStr = String.join("|", order.getFoodNames());
+        long start = System.nanoTime();
+        Segment segment;
+        long ticket;
+        try {
+            synchronized (this) {
+                segment = segmentFor(YearMonth.from(order.getOrderTime()));
+                synchronized (segment) {
+                    ticket = segment.table.append(order.getSaleId(), order.getGuestName(), order.getOrderTime().format(FORMATTER),
+                            String.valueOf(order.getTotalPrice()), order.getPayment(), foodNamesStr);
+                    version.incrementAndGet();
+                    // 파일에서 다시 읽은 것과 같은 값으로 덧붙임 (주문 시간은 초 단위로 저장됨)
+                    if (segment.published != null) {
+                        segment.published = segment.published.appended(version.get(), new MenuOrder(order.getSaleId(), order.getGuestName(),
+                                order.getOrderTime().truncatedTo(ChronoUnit.SECONDS), order.getTotalPrice(), order.getPayment(),
+                                Arrays.asList(foodNamesStr.split("\\|"))));
+                    }
+                }
             }
-            // 음식 이름 리스트를 '|'로 연결하여 문자열로 변환
-            String foodNamesStr = String.join("|", order.getFoodNames());
-            // 주문 정보를 CSV 포맷으로 변환
-            String line = String.format("%s,%s,%s,%d,%s,%s", order.getSaleId(), order.getGuestName(), order.getOrderTime().format(FORMATTER), order.getTotalPrice(), order.getPayment(), foodNamesStr);
-            writer.write(line);
-            writer.newLine();
         } catch (IOException e) {
-            // 파일 쓰기 중 예외 발생 시 콘솔에 에러 출력
-            e.printStackTrace();
+            // 파일 쓰기 중 예외 발생 시 에러 로그
+            Log.error("[MenuOrderRepository] 파일 쓰기 오류", e);
+            WRITE_TIME.recordSince(start);
+            return false;
+        }
+        try {
+            segment.table.sync(ticket);
+        } catch (IOException e) {
+            Log.error("[MenuOrderRepository] fsync 오류", e);
         }
+        WRITE_TIME.recordSince(start);
+        return true;
     }
 }
@@ -1,51 +1,54 @@
 package server.repository;
 
+import server.log.Log;
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
 import server.model.Menu;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MenuRepository {
     
     private static final String MENU_FILE_PATH = "data/menus.csv";
+    private final Table table = Storage.open(MENU_FILE_PATH, "menuId,name,price,category,IsAvailable,Stock", 0);
+    // 파일 읽기/쓰기 시간 (GET_METRICS)
+    private static final LatencyHistogram READ_TIME = Metrics.timer("repo.menus.read");
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("repo.menus.write");
+    // 데이터 버전: 파일을 쓸 때마다 1씩 증가 (재시작해도 줄지 않도록 시작 시각(ms)에서 출발)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
     
     public MenuRepository() {
-        File file = new File(MENU_FILE_PATH);
-        if(!file.exists()) {
-            try {
-                file.getParentFile().mkdirs();
-                if (file.createNewFile()) {
-                    saveAll(new ArrayList<>());
-                }
-            } catch (IOException e) {
-                System.err.println("파일 생성 중 오류: " + e.getMessage());
-            }
+        if(!table.exists()) {
+            saveAll(new ArrayList<>()); // 헤더만 있는 빈 파일 생성
         }
     }
     
+    /** 현재 데이터 버전 (파일을 읽지 않음, IF_VERSION 조건부 조회) */
+    public long version() {
+        return version.get();
+    }
+
     public List<Menu> findAll() {
         List<Menu> menus = new ArrayList<>();
-        File file = new File(MENU_FILE_PATH);
         
-        if (!file.exists()) return menus;
+        if (!table.exists()) return menus;
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
-            String line;
-            reader.readLine(); // 헤더 스킵
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
+        long start = System.nanoTime();
+        try (Rows rows = table.rows(0)) {
+            while (rows.next()) {
+                if (rows.isBlank()) continue;
                 
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
+                if (rows.fields() >= 6) {
                     try {
-                        String menuId = parts[0].trim();
-                        String name = parts[1].trim();
-                        int price = Integer.parseInt(parts[2].trim());
-                        String category = parts[3].trim();
-                        String availabilityStr = parts[4].trim();
-                        int stock = Integer.parseInt(parts[5].trim());
+                        String menuId = rows.trimmed(0);
+                        String name = rows.trimmed(1);
+                        int price = rows.intField(2);
+                        String category = rows.trimmed(3);
+                        String availabilityStr = rows.trimmed(4);
+                        int stock = rows.intField(5);
                         
                         // [수정] String -> boolean 변환
                         // (CSV에 "true"로 저장되어 있으면 true, 아니면 false 반환)
@@ -55,41 +58,38 @@ public class MenuRepository {
                         menus.add(new Menu(menuId, name, price, category, isAvailable, stock));
                         
                     } catch (NumberFormatException e) {
-                        System.err.println("데이터 변환 오류: " + e.getMessage());
+                        Log.warn("데이터 변환 오류: " + e.getMessage());
                     }
                 }
             }
         } catch (IOException e) {
-            System.err.println("파일 읽기 오류: " + e.getMessage());
+            Log.error("파일 읽기 오류: " + e.getMessage());
         }
+        READ_TIME.recordSince(start);
         return menus;
     }
     
     public void saveAll(List<Menu> menus) {
-        File file = new File(MENU_FILE_PATH);
-
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), "UTF-8"))) {
-
-            writer.write("menuId,name,price,category,IsAvailable,Stock");
-            writer.newLine();
-
+        long start = System.nanoTime();
+        // 임시 파일에 쓰고 fsync한 뒤 교체 (도중에 멈춰도 이전 파일이 남음)
+        try {
+            List<String[]> rows = new ArrayList<>(menus.size());
             for (Menu menu : menus) {
-                // CSV 포맷으로 저장 (%b는 boolean을 "true"/"false"로 저장)
-                String csvLine = String.format("%s,%s,%d,%s,%b,%d",
+                // 가능 여부는 "true"/"false"로 저장
+                rows.add(new String[] {
                         menu.getMenuId(),
                         menu.getName(),
-                        menu.getPrice(),
+                        String.valueOf(menu.getPrice()),
                         menu.getCategory(),
-                        menu.getIsAvailable(), // boolean 값
-                        menu.getStock());
-                
-                writer.write(csvLine);
-                writer.newLine();
+                        String.valueOf(menu.getIsAvailable()), // boolean 값
+                        String.valueOf(menu.getStock())});
             }
-
+            table.replace(rows);
         } catch (IOException e) {
-            System.err.println("파일 쓰기 오류: " + e.getMessage());
+            Log.error("파일 쓰기 오류: " + e.getMessage());
         }
+        version.incrementAndGet();
+        WRITE_TIME.recordSince(start);
     }
     
     public boolean save(Menu newMenu) {
@@ -0,0 +1,115 @@
+package server.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import server.model.Reservation;
+
+/**
+ *  날짜별 객실 점유 비트셋 (ReservationRepository 내부용, 저장소의 잠금 안에서만 사용)
+ *  - 날짜(epoch day)마다 long[] 비트셋 하나, 비트 = 객실 순번 (객실번호를 처음 본 순서로 번호를 매김)
+ *  - Confirmed 예약의 입실일~퇴실일(포함)에 비트를 켬 (보고서의 기존 집계 기준)
+ *  - 객실 묶음(타입 등)은 같은 모양의 마스크로 만들어, 날짜마다 AND + 비트 수 세기로 집계
+ *  - 같은 객실에 예약이 겹칠 수 있으므로, 비트를 끌 때는 저장소가 남은 예약으로 다시 켬
+ *  - freeze(): 지금 상태를 읽기 전용 사본으로 내보냄 (ReservationSnapshot, 잠금 없이 여러 스레드가 읽음)
+ *    사본과 구조를 공유하고, 그 뒤에 바뀌는 날짜의 비트셋과 맵만 복사해서 고침 (copy-on-write)
+ * @author user
+ */
+final class OccupancyCalendar {
+    private Map<String, Integer> roomIndex;
+    private Map<Long, long[]> days;
+    private final boolean frozen;
+    private boolean shared;                                  // 맵을 마지막 freeze 사본과 공유 중
+    private final Set<long[]> owned = Collections.newSetFromMap(new IdentityHashMap<>()); // 마지막 freeze 뒤에 만든 비트셋
+
+    OccupancyCalendar() {
+        this(new HashMap<>(), new HashMap<>(), false);
+    }
+
+    private OccupancyCalendar(Map<String, Integer> roomIndex, Map<Long, long[]> days, boolean frozen) {
+        this.roomIndex = roomIndex;
+        this.days = days;
+        this.frozen = frozen;
+    }
+
+    /** 읽기 전용 사본 (mask, count만 사용) */
+    OccupancyCalendar freeze() {
+        if (frozen) return this;
+        shared = true;
+        owned.clear();
+        return new OccupancyCalendar(roomIndex, days, true);
+    }
+
+    /** 예약의 투숙일 비트를 켬 (날짜를 해석할 수 없으면 무시) */
+    void add(Reservation res) {
+        long in = RoomStays.epochDay(res.getCheckInDate());
+        long out = RoomStays.epochDay(res.getCheckOutDate());
+        if (in == Long.MIN_VALUE || out == Long.MIN_VALUE) return;
+        unshare();
+        int bit = roomIndex.computeIfAbsent(res.getRoomNumber(), k -> roomIndex.size());
+        for (long d = in; d <= out; d++) {
+            long[] words = days.get(d);
+            int word = bit >>> 6;
+            if (words == null || words.length <= word || !owned.contains(words)) {
+                long[] copy = new long[Math.max(word + 1, roomIndex.size() + 63 >>> 6)];
+                if (words != null) System.arraycopy(words, 0, copy, 0, Math.min(words.length, copy.length));
+                words = copy;
+                owned.add(words);
+                days.put(d, words);
+            }
+            words[word] |= 1L << bit;
+        }
+    }
+
+    /** 객실의 fromDay~toDay(포함) 비트를 끔 */
+    void clear(String roomNum, long fromDay, long toDay) {
+        Integer bit = roomIndex.get(roomNum);
+        if (bit == null) return;
+        unshare();
+        int word = bit >>> 6;
+        for (long d = fromDay; d <= toDay; d++) {
+            long[] words = days.get(d);
+            if (words == null || words.length <= word) continue;
+            if (!owned.contains(words)) {
+                words = words.clone();
+                owned.add(words);
+                days.put(d, words);
+            }
+            words[word] &= ~(1L << bit);
+        }
+    }
+
+    /** 객실번호 묶음 -> 마스크 (예약이 한 번도 없었던 객실은 비트가 없으므로 빠짐) */
+    long[] mask(Collection<String> roomNums) {
+        long[] mask = new long[roomIndex.size() + 63 >>> 6];
+        for (String roomNum : roomNums) {
+            Integer bit = roomIndex.get(roomNum);
+            if (bit != null) mask[bit >>> 6] |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /** 날짜에 마스크 안의 객실 중 점유된 객실 수 */
+    int count(long day, long[] mask) {
+        long[] words = days.get(day);
+        if (words == null) return 0;
+        int n = 0;
+        for (int i = Math.min(words.length, mask.length) - 1; i >= 0; i--) {
+            n += Long.bitCount(words[i] & mask[i]);
+        }
+        return n;
+    }
+
+    // freeze 뒤 첫 변경: 맵을 복사해서 사본과 떼어 냄 (비트셋은 고칠 때 하나씩 복사)
+    private void unshare() {
+        if (frozen) throw new IllegalStateException("읽기 전용 점유 달력");
+        if (!shared) return;
+        roomIndex = new HashMap<>(roomIndex);
+        days = new HashMap<>(days);
+        shared = false;
+    }
+}
@@ -1,11 +1,7 @@
 package server.repository;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 
+import server.log.Log;
 import server.model.Payment;
 /**
  *
@@ -14,61 +10,48 @@ import server.model.Payment;
 public class PaymentRepository {
     private static final String PAY_FILE_PATH = "data/payments.csv";
     
-    public synchronized boolean add(Payment payment){
-        File file = new File(PAY_FILE_PATH);
-        boolean isNewFile = !file.exists();
-        
-        if (!file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
-        }
-        
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, true))) {
-            if (isNewFile) {
-                bw.write("PaymentID,ResID,Method,CardNum,CVC,Expiry,PW,PaymentTime");
-                bw.newLine();
-            } else {
-                bw.newLine();
+    // 결제 기록 (덧붙이기는 동시에 들어온 결제를 fsync 한 번으로 함께 기록)
+    private final Table table = Storage.open(PAY_FILE_PATH, "PaymentID,ResID,Method,CardNum,CVC,Expiry,PW,PaymentTime", 0);
+    
+    public boolean add(Payment payment){
+        try {
+            long ticket;
+            synchronized (this) {
+                ticket = table.append(payment.getPaymentId(), payment.getReservationId(), payment.getMethod(),
+                        payment.getCardNumber(), payment.getCvc(), payment.getExpiryDate(), payment.getPassword(),
+                        String.valueOf(payment.getAmount()), payment.getPaymentTime());
             }
-            
-            bw.write(payment.toString());
+            table.sync(ticket);
             return true;
         }
         catch (IOException ex) {
-            ex.printStackTrace();
+            Log.error("[PaymentRepository] 파일 쓰기 오류", ex);
             return false;
         }
     }
 
     // Find the latest payment record for given reservationId (returns null if not found)
+    // 예약번호 열만 바이트로 비교하고, 맞는 행만 Payment로 만듦
     public synchronized server.model.Payment findLatestByReservationId(String resId) {
-        File file = new File(PAY_FILE_PATH);
-        if (!file.exists()) return null;
+        if (!table.exists()) return null;
         server.model.Payment found = null;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) { firstLine = false; continue; } // skip header
-                if (line.trim().isEmpty()) continue;
-                String[] cols = line.split(",");
-                if (cols.length >= 9) {
-                    String paymentId = cols[0];
-                    String reservationId = cols[1];
-                    if (reservationId.equals(resId)) {
-                        String method = cols[2];
-                        String cardNum = cols[3];
-                        String cvc = cols[4];
-                        String expiry = cols[5];
-                        String pw = cols[6];
-                        int amount = 0;
-                        try { amount = Integer.parseInt(cols[7]); } catch (NumberFormatException ex) { amount = 0; }
-                        String time = cols[8];
-                        found = new server.model.Payment(paymentId, reservationId, method, cardNum, cvc, expiry, pw, amount, time);
-                    }
-                }
+        byte[] key = Rows.utf8(resId);
+        try (Rows rows = table.rows(0)) {
+            while (rows.next()) {
+                if (rows.fields() < 9 || !rows.matches(1, key) || !rows.field(1).equals(resId)) continue;
+                String paymentId = rows.field(0);
+                String method = rows.field(2);
+                String cardNum = rows.field(3);
+                String cvc = rows.field(4);
+                String expiry = rows.field(5);
+                String pw = rows.field(6);
+                int amount = 0;
+                try { amount = rows.intField(7); } catch (NumberFormatException ex) { amount = 0; }
+                String time = rows.field(8);
+                found = new server.model.Payment(paymentId, resId, method, cardNum, cvc, expiry, pw, amount, time);
             }
         } catch (IOException ex) {
-            ex.printStackTrace();
+            Log.error("[PaymentRepository] 파일 읽기 오류", ex);
         }
         return found;
     }
@@ -1,165 +1,670 @@
 package server.repository;
+import server.log.Log;
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
 import server.model.*;
 import java.io.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 /**
  *
+ * - 시작할 때 reservations.csv(스냅샷)와 reservations.log(변경 로그)를 한 번 읽어 메모리에 두고, 조회는 메모리에서만 처리
+ * - 쓰기를 마칠 때마다 읽기 전용 사본(ReservationSnapshot)을 내보냄: 목록/보고서 조회는 잠금 없이 사본에서 처리
+ *   (예약 객체는 바뀌지 않고, 상태/요청사항 변경은 새 객체로 바꿔 끼움)
+ * - 예약번호/고객명 색인으로 해당 예약만 바로 찾음 (목록은 파일 순서 유지)
+ * - 객실별 숙박 기간 색인(RoomStays)으로 기간이 겹치는 예약을 O(log n)에 찾음 (빈 방 확인, 현황판)
+ * - Confirmed 예약의 날짜별 점유 비트셋(OccupancyCalendar)을 추가/삭제/상태 변경 때마다 갱신 (점유율 보고서)
+ * - 변경은 메모리에 반영한 뒤 변경 로그에 한 줄 덧붙임 (쓰기 비용은 전체 예약 수와 무관)
+ * - 로그는 잠금 안에서 쓰고, 잠금을 놓은 뒤 fsync를 기다림: 동시에 들어온 변경은 fsync 한 번으로 함께 기록
+ *   (변경은 fsync 전부터 조회에 보이지만, 호출한 쪽에는 디스크에 기록된 뒤에 성공을 돌려줌)
+ * - 로그가 COMPACT_THRESHOLD줄 이상 쌓이면 백그라운드에서 메모리 내용으로 새 스냅샷을 만들고 로그를 비움
+ * - 파일 형식은 저장 엔진이 정함 (Storage, 스냅샷/로그/봉인된 로그가 각각 테이블 하나)
+ * - 잠금 대기 시간과 파일 읽기/쓰기 시간을 Metrics에 기록 (repo.reservations.*)
+ * - 쓰기마다 데이터 버전 증가 (IF_VERSION 조건부 조회, 배치는 끝날 때 한 번)
+ * - 파일을 쓴 뒤 그 쓰기로 바뀐 예약의 객실번호를 리스너에 알림 (GET_DASHBOARD_DELTA)
+ * - 예약마다 버전(Reservation.getVersion)을 매김: 상태/요청사항 변경은 잠금 밖에서 지금 예약을 읽어 새 객체를 만들고,
+ *   잠금 안에서는 그 사이에 바뀌지 않았는지만 확인하고 바꿔 끼움 (compare-and-set, 바뀌었으면 다시 읽어 재시도)
+ *   기대 버전을 주면 재시도 대신 CONFLICT로 돌려줌 (두 단말이 같은 예약을 고칠 때 나중 변경이 앞 변경을 덮지 않도록)
+ * <pre>
+ * 로그 형식 (한 줄에 변경 1건)
+ *   ADD,예약 CSV 한 줄
+ *   STATUS,예약번호,상태
+ *   REQUEST,예약번호,요청사항
+ *   DELETE,예약번호
+ * </pre>
  * @author user
  */
 public class ReservationRepository {
     private static final String RES_FILE_PATH = "data/reservations.csv";
+    private static final String LOG_PATH = "data/reservations.log";
+    // 압축 중인(또는 압축에 실패한) 로그: 새 스냅샷이 파일에 자리잡은 뒤에 지움
+    private static final String SEALED_LOG_PATH = "data/reservations.log.1";
+    private static final String HEADER = "ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt,Request";
+    private static final int FIELDS = 10;             // 한 행의 필드 수 (요청사항은 마지막 필드)
+    private static final int COMPACT_THRESHOLD = 1000; // 이만큼 로그가 쌓이면 압축
+    private static final LatencyHistogram LOCK_WAIT = Metrics.timer("repo.reservations.lockWait");
+    private static final LatencyHistogram READ_TIME = Metrics.timer("repo.reservations.read");
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("repo.reservations.write");
+    private static final LatencyHistogram COMPACT_TIME = Metrics.timer("repo.reservations.compact");
+    // 데이터 버전: 파일을 쓸 때마다 1씩 증가 (재시작해도 줄지 않도록 시작 시각(ms)에서 출발)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    // 예약 버전: 바뀔 때마다 새 값 (재시작 전의 버전과 겹치지 않도록 시작 시각(ms)에서 출발, 적재한 예약은 시작 값)
+    private final AtomicLong recordVersions = new AtomicLong(System.currentTimeMillis());
+    /** 기대 버전 없음 (확인하지 않고 바꿈) */
+    public static final long ANY_VERSION = -1;
+    private static final LatencyHistogram CAS_RETRY = Metrics.timer("repo.reservations.casRetry");
+
+    // 예약번호 -> 예약 (바꾸는 것은 this 모니터 안에서만, 읽기는 잠금 없음)
+    private final Map<String, Reservation> byId = new ConcurrentHashMap<>();
+    // 메모리 저장소 (모두 this 모니터로 보호)
+    private final ReservationSlots records = new ReservationSlots();           // 파일 순서
+    private final Map<String, List<Reservation>> byGuest = new HashMap<>();   // 고객명 -> 예약 (파일 순서)
+    private final Map<String, RoomStays> stays = new HashMap<>();             // 객실번호 -> 숙박 기간 색인
+    private final OccupancyCalendar occupancy = new OccupancyCalendar();      // Confirmed 예약의 날짜별 점유 비트셋
+    // 예전 파일에 같은 번호로 여러 건 저장된 예약번호 (byId에는 첫 건만 있음)
+    private final Set<String> duplicateIds = new HashSet<>();
+    // 마지막으로 내보낸 읽기 전용 사본 (this 모니터 안에서 바꾸고, 읽을 때는 잠금 없음)
+    private volatile ReservationSnapshot published;
+
+    // 스냅샷과 변경 로그 (로그는 한 행에 기록 1건, fsync는 잠금 밖에서 여러 쓰기를 묶어 한 번에)
+    private final Table snapshot = Storage.open(RES_FILE_PATH, HEADER, FIELDS);
+    private final Table logFile = Storage.open(LOG_PATH, null, 1);
+    private final Table sealedLog = Storage.open(SEALED_LOG_PATH, null, 1);
+    // this 모니터로 보호
+    private long logTicket;             // 마지막으로 쓴 로그의 티켓 (Table.sync)
+    private int logRecords;             // 마지막 압축 이후 로그 줄 수
+    private boolean compacting;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("reservation-compactor").daemon(true).factory());
+
+    // runBatch 실행 중이면 로그 쓰기를 배치가 끝날 때로 미룸 (this 모니터를 가진 배치 스레드만 접근)
+    private boolean batching;
+    private final List<String[]> batchLog = new ArrayList<>();
+    private final List<Runnable> batchUndo = new ArrayList<>();   // 배치 로그 쓰기에 실패하면 역순으로 실행
+    // 마지막 파일 쓰기 이후 바뀐 예약의 객실번호 (this 모니터로 보호)
+    private final Set<String> writtenRooms = new HashSet<>();
+    private volatile Consumer<String> roomListener = roomNum -> {};
+
+    public ReservationRepository(){
+        load();
+    }
     
-    public synchronized List<Reservation> findAll(){
-        List<Reservation> list = new ArrayList<>();
-        File file = new File(RES_FILE_PATH);
-        if(!file.exists()) return list;
-        try{
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-            String line;    
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");    
-                if (parts.length >= 10) {
-                    list.add(new Reservation(
-                        parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(),
-                            parts[4].trim(),Integer.parseInt(parts[5].trim()), parts[6].trim(),
-                            parts[7].trim(),parts[8].trim(),parts[9]));
+    /** 현재 데이터 버전 (잠금을 잡거나 파일을 읽지 않음) */
+    public long version(){
+        return version.get();
+    }
+
+    /**
+     * 마지막으로 완료된 쓰기까지 반영된 읽기 전용 사본 (잠금 없음)
+     * - 한 요청 안에서 여러 번 조회할 때는 사본 하나를 받아 두고 쓰면 모두 같은 시점의 데이터
+     */
+    public ReservationSnapshot snapshot(){
+        return published;
+    }
+
+    // 쓰기를 마친 뒤 호출 (this 모니터를 가진 상태, 배치 중이면 배치가 끝날 때 한 번)
+    private void publish(){
+        if (batching) return;
+        ReservationSnapshot next = records.snapshot(version.get(), occupancy);
+        if (next != null) published = next;
+    }
+
+    /**
+     * 예약이 파일에 기록될 때마다 바뀐 객실번호로 호출될 리스너 설정
+     * - 버전이 오른 뒤, 이 저장소의 잠금을 가진 채로 호출되므로 짧게 끝나야 함
+     * - 배치 중의 변경은 배치가 끝나고 파일을 쓸 때 한꺼번에 알림
+     */
+    public void setRoomListener(Consumer<String> listener){
+        this.roomListener = listener;
+    }
+
+    // 파일 쓰기가 끝난 뒤 호출 (this 모니터를 가진 상태)
+    private void publishRooms(){
+        Consumer<String> listener = roomListener;
+        for (String roomNum : writtenRooms) listener.accept(roomNum);
+        writtenRooms.clear();
+    }
+
+    /**
+     * 시작할 때 한 번만 파일을 읽음: 스냅샷 -> 봉인된 로그 -> 현재 로그 순으로 적용
+     * - 로그가 남아 있었으면 바로 압축해서 다음 시작 때는 스냅샷만 읽도록 함
+     */
+    private void load(){
+        int replayed;
+        synchronized (this) {
+            long start = System.nanoTime();
+            if (snapshot.exists()) {
+                long loaded = recordVersions.get();
+                try(Rows rows = snapshot.rows(0)){
+                    while(rows.next()){
+                        Reservation res = parse(rows, loaded);
+                        if (res == null) continue;
+                        if (byId.containsKey(res.getReservationId())) {
+                            duplicateIds.add(res.getReservationId());
+                            Log.warn("[ReservationRepository] 중복 예약번호: " + res.getReservationId());
+                        }
+                        index(res);
+                    }
                 }
+                catch(IOException ex){
+                    Log.error("[ReservationRepository] 파일 읽기 오류", ex);
+                }   
+            }
+            replayed = replay(sealedLog) + replay(logFile);
+            writtenRooms.clear(); // 적재 중의 삭제는 알릴 대상이 아님
+            publish();
+            READ_TIME.recordSince(start);
+            Log.info("[ReservationRepository] 예약 " + records.size() + "건 적재 (로그 " + replayed + "건 적용)");
+            compacting = replayed > 0;
+        }
+        if (replayed > 0) compact();
+    }
+
+    // 로그 파일 하나를 메모리에 적용하고 적용한 줄 수 반환 (this 모니터를 가진 상태)
+    // 압축 직후에 멈췄다면 이미 스냅샷에 들어간 변경이 다시 적용되므로, 모든 기록은 여러 번 적용해도 결과가 같아야 함
+    private int replay(Table log){
+        if (!log.exists()) return 0;
+        int count = 0;
+        try(Rows rows = log.rows(0)){
+            while(rows.next()){
+                if (rows.isBlank()) continue;
+                String line = rows.field(0);
+                if (apply(line)) count++;
+                else Log.warn("[ReservationRepository] 잘못된 로그 줄 무시: " + line);
             }
         }
         catch(IOException ex){
-            ex.printStackTrace();
-        }   
-        return list;
+            Log.error("[ReservationRepository] 로그 읽기 오류", ex);
+        }
+        return count;
     }
-    
-    public synchronized String add(String roomNum, String name, String inDate, String outDate, int guestNum, String phone, String createdAt, String request){
-        String resId = "R-" + (System.currentTimeMillis() % 10000); // 간단한 ID 생성
-        String ReservationStatus= "Unpaid";
-        boolean isNewFile = !new File(RES_FILE_PATH).exists();
-        
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(RES_FILE_PATH, true))) {
-            if (isNewFile) {
-                bw.write("ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt, Request");
-                bw.newLine();
-            } else {
-                bw.newLine();
+
+    private boolean apply(String line){
+        String[] parts = line.split(",", 3);
+        try {
+            switch (parts[0]) {
+                case "ADD": {
+                    Reservation res = parse(line.substring(4), recordVersions.incrementAndGet());
+                    if (res == null) return false;
+                    if (!byId.containsKey(res.getReservationId())) index(res);
+                    return true;
+                }
+                case "STATUS": {
+                    if (parts.length < 3) return false;
+                    Reservation r = byId.get(parts[1]);
+                    if (r != null) swap(r, r.withStatus(parts[2]).withVersion(recordVersions.incrementAndGet()));
+                    return true;
+                }
+                case "REQUEST": {
+                    if (parts.length < 3) return false;
+                    Reservation r = byId.get(parts[1]);
+                    if (r != null) swap(r, r.withRequest(parts[2]).withVersion(recordVersions.incrementAndGet()));
+                    return true;
+                }
+                case "DELETE": {
+                    if (parts.length < 2) return false;
+                    drop(parts[1]);
+                    return true;
+                }
+                default:
+                    return false;
             }
-            // 9개 필드 저장
-            String line = String.format("%s,%s,%s,%s,%s,%d,%s,%s,%s,*s", 
-                    resId, roomNum, name, inDate, outDate, guestNum, phone, ReservationStatus, createdAt, request);
-            bw.write(line);
-            return resId;
+        } catch (RuntimeException ex) {
+            return false; // 마지막 줄이 쓰다 만 채로 남은 경우 등
+        }
+    }
+
+    // 스냅샷 한 행 -> Reservation (필드가 모자라면 null, 인원은 바이트에서 바로 해석)
+    private static Reservation parse(Rows row, long version){
+        if (row.fields() < FIELDS) return null;
+        return new Reservation(
+            row.trimmed(0), row.trimmed(1), row.trimmed(2), row.trimmed(3),
+                row.trimmed(4), row.intField(5), row.trimmed(6),
+                row.trimmed(7), row.trimmed(8), row.trimmed(9), version);
+    }
+
+    // CSV 한 줄 -> Reservation (필드가 모자라면 null, 요청사항은 마지막 필드라 ','를 포함할 수 있음)
+    private static Reservation parse(String line, long version){
+        String[] parts = line.split(",", FIELDS);    
+        if (parts.length < FIELDS) return null;
+        return new Reservation(
+            parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(),
+                parts[4].trim(),Integer.parseInt(parts[5].trim()), parts[6].trim(),
+                parts[7].trim(),parts[8].trim(),parts[9].trim(), version);
+    }
+
+    // 색인에 추가 (this 모니터를 가진 상태)
+    private void index(Reservation res){
+        int seq = records.add(res);
+        byId.putIfAbsent(res.getReservationId(), res);
+        byGuest.computeIfAbsent(res.getGuestName(), k -> new ArrayList<>()).add(res);
+        stays.computeIfAbsent(res.getRoomNumber(), k -> new RoomStays()).add(res, seq);
+        if (isConfirmed(res)) occupancy.add(res);
+    }
+
+    // 색인에서 제거 (this 모니터를 가진 상태)
+    private void unindex(Reservation res){
+        records.remove(res);
+        if (byId.get(res.getReservationId()) == res) byId.remove(res.getReservationId());
+        removeFrom(byGuest, res.getGuestName(), res);
+        RoomStays roomStays = stays.get(res.getRoomNumber());
+        if (roomStays != null) {
+            roomStays.remove(res);
+            if (roomStays.isEmpty()) stays.remove(res.getRoomNumber());
         }
-        catch (IOException ex){ 
-            return null; 
+        if (isConfirmed(res)) releaseOccupancy(res);
+    }
+
+    // 모든 색인에서 예약 객체를 같은 자리의 새 객체로 바꿈 (this 모니터를 가진 상태)
+    private void replace(Reservation old, Reservation updated){
+        records.replace(old, updated);
+        if (byId.get(old.getReservationId()) == old) byId.put(old.getReservationId(), updated);
+        List<Reservation> guest = byGuest.get(old.getGuestName());
+        if (guest != null) guest.replaceAll(r -> r == old ? updated : r);
+        RoomStays roomStays = stays.get(old.getRoomNumber());
+        if (roomStays != null) roomStays.replace(old, updated);
+    }
+
+    // 예약을 바뀐 객체로 교체 (상태가 바뀌면 점유 비트셋도 함께 갱신, this 모니터를 가진 상태)
+    private void swap(Reservation res, Reservation updated){
+        replace(res, updated);
+        boolean wasConfirmed = isConfirmed(res);
+        boolean confirmed = isConfirmed(updated);
+        if (!wasConfirmed && confirmed) occupancy.add(updated);
+        else if (wasConfirmed && !confirmed) releaseOccupancy(updated);
+    }
+
+    // 예약이 차지하던 날짜의 비트를 끄고, 같은 객실에서 그 날짜에 걸치는 다른 Confirmed 예약으로 다시 켬
+    private void releaseOccupancy(Reservation res){
+        long in = RoomStays.epochDay(res.getCheckInDate());
+        long out = RoomStays.epochDay(res.getCheckOutDate());
+        if (in == Long.MIN_VALUE || out == Long.MIN_VALUE || out < in) return;
+        occupancy.clear(res.getRoomNumber(), in, out);
+        RoomStays roomStays = stays.get(res.getRoomNumber());
+        if (roomStays == null) return;
+        for (Reservation other : roomStays.touching(in, out)) {
+            if (other != res && isConfirmed(other)) occupancy.add(other);
         }
     }
+
+    private static boolean isConfirmed(Reservation res){
+        return "Confirmed".equalsIgnoreCase(res.getReservationStatus().trim());
+    }
+
+    private static void removeFrom(Map<String, List<Reservation>> index, String key, Reservation res){
+        List<Reservation> list = index.get(key);
+        if (list == null) return;
+        list.removeIf(r -> r == res);
+        if (list.isEmpty()) index.remove(key);
+    }
+
+    /** 모든 예약 (파일 순서, 호출 시점의 목록 사본, 잠금 없음) */
+    public List<Reservation> findAll(){
+        return new ArrayList<>(published.reservations());
+    }
+
+    /**
+     * 객실의 예약 중 [from, to) 기간과 숙박일이 겹치는 예약 (파일 순서, 상태와 무관)
+     * - 입실일 < to 이고 퇴실일 > from (yyyy-MM-dd)
+     */
+    public List<Reservation> findByRoomOverlapping(String roomNum, String from, String to){
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            RoomStays roomStays = stays.get(roomNum);
+            return (roomStays == null) ? new ArrayList<>() : roomStays.overlapping(from, to);
+        }
+    }
+
+    /** 객실의 예약 중 date 날 밤에 투숙하는 예약: 입실일 <= date < 퇴실일 (파일 순서, 상태와 무관) */
+    public List<Reservation> findByRoomStaying(String roomNum, String date){
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            RoomStays roomStays = stays.get(roomNum);
+            return (roomStays == null) ? new ArrayList<>() : roomStays.staying(date);
+        }
+    }
+
+    /**
+     * start~end(포함) 날짜마다, 객실 묶음별로 Confirmed 예약이 있는 객실 수 (점유율 보고서)
+     * - 입실일~퇴실일(포함)을 투숙일로 봄, 같은 객실에 예약이 여러 건이어도 1실
+     * - 날짜마다 점유 비트셋과 묶음 마스크의 AND 비트 수만 세므로 예약 수와 무관
+     * @param roomGroups 묶음마다 객실번호 목록 (예: 타입별 객실)
+     * @return [날짜 순번][묶음 순번] 객실 수 (end가 start보다 앞이면 빈 배열)
+     */
+    public int[][] countConfirmedRooms(LocalDate start, LocalDate end, List<? extends Collection<String>> roomGroups){
+        return published.countConfirmedRooms(start, end, roomGroups);
+    }
+
+    /** 예약번호의 예약 (없으면 null, 잠금 없음) */
+    public Reservation findById(String resId){
+        return byId.get(resId);
+    }
+
+    /** 고객명(정확히 일치)의 예약 목록 (파일 순서) */
+    public List<Reservation> findByGuestName(String guestName){
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            return copyOf(byGuest.get(guestName));
+        }
+    }
+
+    private static List<Reservation> copyOf(List<Reservation> list){
+        return (list == null) ? new ArrayList<>() : new ArrayList<>(list);
+    }
     
-    private boolean rewriteFile(List<Reservation> all) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(RES_FILE_PATH))) {
-            bw.write("ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt,Request");
-            for (Reservation r : all) {
-                bw.newLine();
-                bw.write(r.toString());
-            }
+    public String add(String roomNum, String name, String inDate, String outDate, int guestNum, String phone, String createdAt, String request){
+        long start = System.nanoTime();
+        String resId;
+        long ticket;
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            resId = append(roomNum, name, inDate, outDate, guestNum, phone, createdAt, request);
+            ticket = pendingTicket();
+            publish();
+        }
+        if (resId != null) awaitLog(ticket); // fsync에 실패해도 추가는 메모리와 로그에 반영됨 (오류 로그만 남김)
+        return resId;
+    }
+
+    private String append(String roomNum, String name, String inDate, String outDate, int guestNum, String phone, String createdAt, String request){
+        long seq = System.currentTimeMillis() % 10000; // 간단한 ID 생성
+        String resId = "R-" + seq;
+        while (byId.containsKey(resId) || duplicateIds.contains(resId)) {
+            resId = "R-" + (++seq); // 이미 쓰인 번호면 다음 번호
+        }
+        String ReservationStatus= "Unpaid";
+        String safeRequest = (request == null) ? "" : request.replace("\n", " ");
+        Reservation res = new Reservation(resId, roomNum, name, inDate, outDate, guestNum, phone, ReservationStatus, createdAt, safeRequest,
+                recordVersions.incrementAndGet());
+        index(res);
+        writtenRooms.add(roomNum);
+        if (!log("ADD," + res, () -> unindex(res))) return null;
+        return resId;
+    }
+
+    /**
+     * 변경 1건을 로그에 기록 (메모리에는 이미 반영된 상태)
+     * - 배치 중에는 모아 두었다가 배치가 끝날 때 한 번에 기록
+     * - 쓰기에 실패하면 undo로 메모리의 변경을 되돌리고 false
+     *   (되돌리지 않으면 실패로 응답한 변경이 다음 압축 때 스냅샷에 기록됨)
+     * @param undo 이 변경을 되돌리는 동작 (this 모니터 안에서 실행)
+     */
+    private boolean log(String record, Runnable undo) {
+        if (batching) {
+            batchLog.add(new String[] { record });
+            batchUndo.add(undo);
+            return true;
+        }
+        if (writeLog(List.<String[]>of(new String[] { record }))) return true;
+        undo.run();
+        return false;
+    }
+
+    private boolean writeLog(List<String[]> records) {
+        long start = System.nanoTime();
+        try {
+            logTicket = logFile.append(records);
+            logRecords += records.size();
             return true;
         }
         catch (IOException ex) {
+            Log.error("[ReservationRepository] 로그 쓰기 오류", ex);
             return false;
         }
-    }
-    
-    public synchronized boolean updateStatus(String resId, String reservationStatus) {
-        List<Reservation> all = findAll();
-        boolean found = false;
-        for (Reservation r : all) {
-            if (r.getReservationId().equals(resId)) {
-                r.setReservationStatus(reservationStatus);
-                found = true;
-                break;
+        finally {
+            version.incrementAndGet();
+            WRITE_TIME.recordSince(start);
+            publishRooms();
+            if (logRecords >= COMPACT_THRESHOLD && !compacting) {
+                compacting = true;
+                compactor.execute(this::compact);
             }
         }
-        if(!found)
+    }
+
+    // this 모니터를 가진 상태: 방금 쓴 로그의 티켓 (배치 안이면 배치를 연 쪽이 기다리므로 0)
+    private long pendingTicket() {
+        return batching ? 0 : logTicket;
+    }
+
+    // 잠금을 놓은 뒤 호출: 티켓까지의 로그가 디스크에 닿을 때까지 대기
+    // (fsync 실패면 false: 로그에 이미 쓴 변경이라 되돌리지 않음, 다음 fsync나 압축 때 디스크에 기록됨)
+    private boolean awaitLog(long ticket) {
+        try {
+            logFile.sync(ticket);
+            return true;
+        }
+        catch (IOException ex) {
+            Log.error("[ReservationRepository] 로그 fsync 오류", ex);
             return false;
-        return rewriteFile(all);
+        }
     }
-    
-    public synchronized boolean updateRequest(String resId, String newRequest) {
-        List<Reservation> all = findAll();
-        boolean found = false;
-        
-        for (Reservation r : all) {
-            if (r.getReservationId().equals(resId)) {
-                String safeRequest = newRequest.replace("\n", " ");
-                r.setCustomerRequest(safeRequest);
-                
-                found = true;
-                break;
+
+    /**
+     * 로그 압축: 메모리 내용으로 새 스냅샷을 만들고 그때까지의 로그를 지움
+     * - 잠금은 메모리 내용 복사와 로그 교체 동안만 잡고, 스냅샷 파일 쓰기는 잠금 밖에서 함
+     * - 임시 파일에 다 쓰고 fsync한 뒤 이름을 바꿔 교체하므로 도중에 멈춰도 이전 스냅샷 + 로그가 남음
+     */
+    private void compact() {
+        long start = System.nanoTime();
+        List<String[]> rows;
+        try {
+            ReservationSnapshot current;
+            synchronized (this) {
+                current = published; // 배치 중에는 압축을 시작하지 않으므로 로그까지의 내용과 같음
+                logFile.moveTo(sealedLog); // 남은 fsync를 마치고 봉인, 다음 변경부터 새 로그에 기록
+                logRecords = 0;
             }
+            rows = new ArrayList<>(current.size());
+            for (Reservation r : current.reservations()) rows.add(fields(r));
+            snapshot.replace(rows);
+            sealedLog.delete();
+            Log.info("[ReservationRepository] 로그 압축 완료: 예약 " + rows.size() + "건");
+        }
+        catch (IOException ex) {
+            Log.error("[ReservationRepository] 로그 압축 실패 (다음 압축 때 다시 시도)", ex);
         }
-        
-        if (!found) return false;
-        return rewriteFile(all); // 파일 덮어쓰기
+        finally {
+            synchronized (this) {
+                compacting = false;
+            }
+            COMPACT_TIME.recordSince(start);
+        }
+    }
+
+    // 예약 -> 스냅샷 한 행 (HEADER 순서)
+    private static String[] fields(Reservation r) {
+        return new String[] { r.getReservationId(), r.getRoomNumber(), r.getGuestName(), r.getCheckInDate(),
+                r.getCheckOutDate(), String.valueOf(r.getGuestNum()), r.getPhoneNumber(), r.getReservationStatus(),
+                r.getCreatedAt(), r.getCustomerRequest() };
     }
     
-    public synchronized boolean delete(String resId) {
-        List<Reservation> all = findAll();
-        if (all.removeIf(r -> r.getReservationId().equals(resId))) {
-            return rewriteFile(all);
+    /**
+     * 여러 변경을 잠금 1회, 로그 쓰기 1회, fsync 1회로 묶어 실행
+     * - body 안의 updateStatus/updateRequest/delete는 메모리에만 반영하고 로그 줄은 모아 둠
+     * - body가 끝나면 변경이 있었을 때만 모은 로그를 한 번에 기록
+     * @return 로그 쓰기에 실패해 body의 변경을 모두 되돌렸으면 false (fsync 실패는 반영된 것으로 봄)
+     */
+    public boolean runBatch(Runnable body) {
+        long start = System.nanoTime();
+        boolean written;
+        long ticket;
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            written = batch(body);
+            ticket = pendingTicket();
+            publish();
         }
-        return false;
+        awaitLog(ticket);
+        return written;
+    }
+
+    private boolean batch(Runnable body) {
+        if (batching) {
+            body.run(); // 이미 배치 중이면 바깥 배치에 합류
+            return true;
+        }
+        batching = true;
+        boolean written = true;
+        try {
+            body.run();
+        } finally {
+            batching = false;
+            if (!batchLog.isEmpty()) {
+                List<String[]> records = new ArrayList<>(batchLog);
+                batchLog.clear();
+                written = writeLog(records);
+                if (!written) {
+                    // 나중 변경부터 되돌림 (각 되돌리기는 그 뒤의 변경이 모두 되돌려진 상태를 가정)
+                    for (int i = batchUndo.size() - 1; i >= 0; i--) batchUndo.get(i).run();
+                }
+            }
+            batchUndo.clear();
+        }
+        return written;
     }
     
+    public boolean updateStatus(String resId, String reservationStatus) {
+        return updateStatus(resId, reservationStatus, ANY_VERSION).isUpdated();
+    }
+
     /**
-         * reservation.csv 파일의 지정한 기간 내 Confirmed 상태의 예약만 반환
-         * 예약의 체크인~체크아웃 날짜와 보고서의 시작~끝 날짜의 기간이 겹치는지 확인
-         * 겹치면 집계, 아니면 무시
-         */
-        public synchronized List<Reservation> findConfirmedInPeriod(String startDate, String endDate) {
-            List<Reservation> all = findAll();
-            List<Reservation> result = new ArrayList<>();
-            for (Reservation r : all) {
-                if (!"Confirmed".equalsIgnoreCase(r.getReservationStatus().trim())) continue;
-                // 예약이 기간과 겹치는지 확인
-                if (isOverlap(r.getCheckInDate(), r.getCheckOutDate(), startDate, endDate)) {
-                    result.add(r);
-                }
+     * 상태 변경 (기대 버전이 지금 버전과 다르면 바꾸지 않고 CONFLICT)
+     * @param expectedVersion 클라이언트가 읽은 예약 버전 (ANY_VERSION이면 확인하지 않음)
+     */
+    public ReservationUpdate updateStatus(String resId, String reservationStatus, long expectedVersion) {
+        return update(resId, expectedVersion, r -> r.withStatus(reservationStatus),
+                r -> "STATUS," + resId + "," + reservationStatus);
+    }
+
+    public boolean updateRequest(String resId, String newRequest) {
+        return updateRequest(resId, newRequest, ANY_VERSION).isUpdated();
+    }
+
+    /**
+     * 요청사항 변경 (기대 버전이 지금 버전과 다르면 바꾸지 않고 CONFLICT)
+     * @param expectedVersion 클라이언트가 읽은 예약 버전 (ANY_VERSION이면 확인하지 않음)
+     */
+    public ReservationUpdate updateRequest(String resId, String newRequest, long expectedVersion) {
+        String safeRequest = newRequest.replace("\n", " ");
+        return update(resId, expectedVersion, r -> r.withRequest(safeRequest),
+                r -> "REQUEST," + resId + "," + safeRequest);
+    }
+
+    /**
+     * 예약 1건을 compare-and-set으로 변경
+     * - 잠금 밖에서 지금 예약을 읽고 새 객체(새 버전)와 로그 줄을 만든 뒤,
+     *   잠금 안에서는 그 예약이 그대로인지만 확인하고 바꿔 끼움 -> 잠금은 교체와 로그 덧붙이기 동안만
+     * - 그 사이에 다른 쓰기가 먼저 바꿨으면: 기대 버전이 없으면 다시 읽어 재시도, 있으면 CONFLICT
+     *   (재시도는 repo.reservations.casRetry에 기록)
+     */
+    private ReservationUpdate update(String resId, long expectedVersion, UnaryOperator<Reservation> change,
+            Function<Reservation, String> record) {
+        long begin = System.nanoTime();
+        while (true) {
+            Reservation current = byId.get(resId);
+            if (current == null) return ReservationUpdate.notFound();
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                return new ReservationUpdate(ReservationUpdate.Outcome.CONFLICT, current.getVersion());
             }
-            return result;
-        }
-
-        /**
-         * 오늘날짜 기준 Confirmed 상태의 투숙 중 예약 반환
-         */
-        public synchronized List<Reservation> findConfirmedToday(String today) {
-            List<Reservation> all = findAll();
-            List<Reservation> result = new ArrayList<>();
-            for (Reservation r : all) {
-                if (!"Confirmed".equalsIgnoreCase(r.getReservationStatus().trim())) continue;
-                if (isDateInRange(today, r.getCheckInDate(), r.getCheckOutDate())) {
-                    result.add(r);
+            Reservation updated = change.apply(current).withVersion(recordVersions.incrementAndGet());
+            String line = record.apply(updated);
+            boolean logged;
+            long ticket;
+            long start = System.nanoTime();
+            synchronized (this) {
+                LOCK_WAIT.recordSince(start);
+                if (byId.get(resId) != current) {
+                    CAS_RETRY.recordSince(begin);
+                    continue; // 다른 쓰기가 먼저 바꿈 (또는 삭제)
                 }
+                swap(current, updated);
+                writtenRooms.add(updated.getRoomNumber());
+                logged = log(line, () -> swap(updated, current));
+                ticket = pendingTicket();
+                publish();
             }
-            return result;
+            if (!logged) return new ReservationUpdate(ReservationUpdate.Outcome.FAILED, current.getVersion());
+            return new ReservationUpdate(awaitLog(ticket) ? ReservationUpdate.Outcome.UPDATED : ReservationUpdate.Outcome.UNSYNCED,
+                    updated.getVersion());
         }
-
-        /**
-         * 지정한 날짜에 투숙 중인 Confirmed 예약 반환
-         */
-        public synchronized List<Reservation> findConfirmedOnDate(String date) {
-            return findConfirmedToday(date);
+    }
+    
+    public boolean delete(String resId) {
+        long start = System.nanoTime();
+        boolean done;
+        long ticket;
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            done = remove(resId);
+            ticket = pendingTicket();
+            publish();
         }
+        if (done) awaitLog(ticket); // fsync에 실패해도 삭제는 메모리와 로그에 반영됨 (오류 로그만 남김)
+        return done;
+    }
 
-        // 날짜 겹침 여부 확인 (yyyy-MM-dd)
-        private boolean isOverlap(String start1, String end1, String start2, String end2) {
-            return !(end1.compareTo(start2) < 0 || start1.compareTo(end2) > 0);
-        }
+    private boolean remove(String resId) {
+        boolean duplicated = duplicateIds.contains(resId);
+        List<Reservation> dropped = drop(resId);
+        if (dropped.isEmpty()) return false;
+        return log("DELETE," + resId, () -> {
+            // 되돌린 예약은 목록의 끝 자리로 들어감 (다음 압축 때 파일 순서만 바뀜)
+            for (Reservation r : dropped) index(r);
+            if (duplicated) duplicateIds.add(resId);
+        });
+    }
 
-        // date가 [start, end] 사이에 있는지
-        private boolean isDateInRange(String date, String start, String end) {
-            return (date.compareTo(start) >= 0 && date.compareTo(end) <= 0);
+    // 예약번호의 예약을 메모리에서 모두 삭제하고 삭제한 예약 반환 (this 모니터를 가진 상태)
+    private List<Reservation> drop(String resId) {
+        Reservation r = byId.get(resId);
+        if (r == null) return List.of();
+        List<Reservation> dropped = new ArrayList<>();
+        dropped.add(r);
+        unindex(r);
+        writtenRooms.add(r.getRoomNumber());
+        if (duplicateIds.remove(resId)) {
+            // 같은 번호로 저장된 나머지 예약도 함께 삭제 (드문 경우라 전체를 훑음)
+            for (Reservation dup : records.list()) {
+                if (dup.getReservationId().equals(resId)) {
+                    unindex(dup);
+                    writtenRooms.add(dup.getRoomNumber());
+                    dropped.add(dup);
+                }
+            }
         }
-}
+        return dropped;
+    }
     
+    /**
+     * 지정한 기간 내 Confirmed 상태의 예약만 반환 (잠금 없음, ReservationSnapshot.findConfirmedInPeriod)
+     * 예약의 체크인~체크아웃 날짜와 보고서의 시작~끝 날짜의 기간이 겹치면 집계, 아니면 무시
+     */
+    public List<Reservation> findConfirmedInPeriod(String startDate, String endDate) {
+        return published.findConfirmedInPeriod(startDate, endDate);
+    }
+
+    /**
+     * 오늘날짜 기준 Confirmed 상태의 투숙 중 예약 반환 (잠금 없음)
+     */
+    public List<Reservation> findConfirmedToday(String today) {
+        return published.findConfirmedOnDate(today);
+    }
+
+    /**
+     * 지정한 날짜에 투숙 중인 Confirmed 예약 반환 (잠금 없음)
+     */
+    public List<Reservation> findConfirmedOnDate(String date) {
+        return published.findConfirmedOnDate(date);
+    }
+}
@@ -0,0 +1,99 @@
+package server.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import server.model.Reservation;
+
+/**
+ *  예약을 들어온 순서대로 담는 자리 배열 (ReservationRepository 내부용, 저장소의 잠금 안에서만 사용)
+ *  - 예약마다 자리 번호(들어온 순서)가 하나씩, 삭제하면 그 자리를 비움 (재시작 때 압축된 스냅샷으로 정리됨)
+ *  - 상태 변경 등으로 바뀐 예약 객체는 같은 자리에 바꿔 끼우므로 파일 순서가 유지됨
+ *  - snapshot(): 지금 배열을 ReservationSnapshot으로 내보내고, 그 뒤의 변경은 바뀌는 조각만 복사해서 고침
+ * @author user
+ */
+final class ReservationSlots {
+    private static final int CHUNK_BITS = ReservationSnapshot.CHUNK_BITS;
+    private static final int CHUNK = ReservationSnapshot.CHUNK;
+
+    private Reservation[][] chunks = new Reservation[0][];
+    private int slots;
+    private int size;
+    private final Map<Reservation, Integer> seqOf = new IdentityHashMap<>();
+    // 마지막 snapshot() 뒤에 새로 만든 배열 (사본과 공유하지 않으므로 그대로 고쳐도 됨)
+    private boolean ownChunks;
+    private final Set<Reservation[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean dirty = true;
+
+    /** 예약을 마지막 자리에 추가하고 자리 번호 반환 */
+    int add(Reservation res) {
+        int seq = slots++;
+        set(seq, res);
+        seqOf.put(res, seq);
+        size++;
+        return seq;
+    }
+
+    /** 예약의 자리를 비움 */
+    void remove(Reservation res) {
+        Integer seq = seqOf.remove(res);
+        if (seq == null) return;
+        set(seq, null);
+        size--;
+    }
+
+    /** 같은 자리에 새 객체를 끼움 */
+    void replace(Reservation old, Reservation updated) {
+        Integer seq = seqOf.remove(old);
+        if (seq == null) return;
+        set(seq, updated);
+        seqOf.put(updated, seq);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** 남아 있는 예약 (파일 순서, 사본) */
+    List<Reservation> list() {
+        List<Reservation> all = new ArrayList<>(size);
+        for (int i = 0; i < slots; i++) {
+            Reservation res = chunks[i >> CHUNK_BITS][i & (CHUNK - 1)];
+            if (res != null) all.add(res);
+        }
+        return all;
+    }
+
+    /**
+     * 지금 상태의 읽기 전용 사본 (마지막 사본 뒤로 바뀐 것이 없으면 null)
+     * @param occupancy 함께 얼려 담을 점유 비트셋 (예약이 바뀔 때만 바뀜)
+     */
+    ReservationSnapshot snapshot(long version, OccupancyCalendar occupancy) {
+        if (!dirty) return null;
+        dirty = false;
+        ownChunks = false;
+        owned.clear();
+        return new ReservationSnapshot(version, chunks, slots, size, occupancy.freeze());
+    }
+
+    private void set(int seq, Reservation res) {
+        dirty = true;
+        int c = seq >> CHUNK_BITS;
+        if (!ownChunks || c >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunks.length, c + 1));
+            ownChunks = true;
+        }
+        Reservation[] chunk = chunks[c];
+        if (chunk == null || !owned.contains(chunk)) {
+            chunk = (chunk == null) ? new Reservation[CHUNK] : chunk.clone();
+            owned.add(chunk);
+            chunks[c] = chunk;
+        }
+        chunk[seq & (CHUNK - 1)] = res;
+    }
+}
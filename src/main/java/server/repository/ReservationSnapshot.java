@@ -0,0 +1,114 @@
+package server.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import server.model.Reservation;
+
+/**
+ *  예약 데이터의 읽기 전용 시점 사본 (ReservationRepository.snapshot)
+ *  - 저장소가 쓰기를 마칠 때마다 새 사본을 만들어 volatile 참조 하나로 내보냄
+ *    -> 읽는 쪽은 참조만 가져가서 잠금 없이 끝까지 같은 시점의 데이터를 봄 (쓰기와 서로 막지 않음)
+ *  - 예약 목록은 CHUNK개씩 나눈 배열로 저장소와 공유: 쓰기는 바뀐 조각과 조각 목록만 복사 (copy-on-write)
+ *  - 점유 비트셋도 얼린 사본을 공유 (OccupancyCalendar.freeze)
+ *  - 예약 객체는 바뀌지 않으므로 그대로 돌려줌
+ * @author user
+ */
+public final class ReservationSnapshot {
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK = 1 << CHUNK_BITS;   // 조각 하나의 예약 수
+
+    private final long version;
+    private final Reservation[][] chunks;       // 들어온 순서 i번째 예약 = chunks[i >> CHUNK_BITS][i & (CHUNK-1)], 삭제된 자리는 null
+    private final int slots;                    // 사용한 자리 수
+    private final int size;                     // 남아 있는 예약 수
+    private final OccupancyCalendar occupancy;  // 얼린 사본
+    private volatile List<Reservation> list;    // reservations() 결과 (처음 부를 때 만듦)
+
+    ReservationSnapshot(long version, Reservation[][] chunks, int slots, int size, OccupancyCalendar occupancy) {
+        this.version = version;
+        this.chunks = chunks;
+        this.slots = slots;
+        this.size = size;
+        this.occupancy = occupancy;
+    }
+
+    /** 이 사본을 만들 때의 데이터 버전 */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** 모든 예약 (파일 순서, 수정할 수 없는 목록) */
+    public List<Reservation> reservations() {
+        List<Reservation> result = list;
+        if (result == null) {
+            // 여러 스레드가 동시에 만들어도 내용이 같으므로 먼저 만든 것을 씀
+            List<Reservation> all = new ArrayList<>(size);
+            for (int i = 0; i < slots; i++) {
+                Reservation res = chunks[i >> CHUNK_BITS][i & (CHUNK - 1)];
+                if (res != null) all.add(res);
+            }
+            result = Collections.unmodifiableList(all);
+            list = result;
+        }
+        return result;
+    }
+
+    /**
+     * start~end(포함) 날짜마다, 객실 묶음별로 Confirmed 예약이 있는 객실 수 (점유율 보고서)
+     * - 입실일~퇴실일(포함)을 투숙일로 봄, 같은 객실에 예약이 여러 건이어도 1실
+     * - 날짜마다 점유 비트셋과 묶음 마스크의 AND 비트 수만 세므로 예약 수와 무관
+     * @param roomGroups 묶음마다 객실번호 목록 (예: 타입별 객실)
+     * @return [날짜 순번][묶음 순번] 객실 수 (end가 start보다 앞이면 빈 배열)
+     */
+    public int[][] countConfirmedRooms(LocalDate start, LocalDate end, List<? extends Collection<String>> roomGroups) {
+        int dayCount = (int) Math.max(0, end.toEpochDay() - start.toEpochDay() + 1);
+        int[][] counts = new int[dayCount][roomGroups.size()];
+        long[][] masks = new long[roomGroups.size()][];
+        for (int g = 0; g < masks.length; g++) masks[g] = occupancy.mask(roomGroups.get(g));
+        for (int i = 0; i < dayCount; i++) {
+            long day = start.toEpochDay() + i;
+            for (int g = 0; g < masks.length; g++) counts[i][g] = occupancy.count(day, masks[g]);
+        }
+        return counts;
+    }
+
+    /**
+     * 지정한 기간과 겹치는 Confirmed 예약 (파일 순서)
+     * 예약의 체크인~체크아웃 날짜와 보고서의 시작~끝 날짜의 기간이 겹치면 포함
+     */
+    public List<Reservation> findConfirmedInPeriod(String startDate, String endDate) {
+        List<Reservation> result = new ArrayList<>();
+        for (Reservation r : reservations()) {
+            if (!isConfirmed(r)) continue;
+            // 날짜 겹침 여부 확인 (yyyy-MM-dd)
+            if (!(r.getCheckOutDate().compareTo(startDate) < 0 || r.getCheckInDate().compareTo(endDate) > 0)) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    /** date가 체크인~체크아웃(포함) 사이인 Confirmed 예약 (파일 순서) */
+    public List<Reservation> findConfirmedOnDate(String date) {
+        List<Reservation> result = new ArrayList<>();
+        for (Reservation r : reservations()) {
+            if (!isConfirmed(r)) continue;
+            if (date.compareTo(r.getCheckInDate()) >= 0 && date.compareTo(r.getCheckOutDate()) <= 0) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isConfirmed(Reservation r) {
+        return "Confirmed".equalsIgnoreCase(r.getReservationStatus().trim());
+    }
+}
@@ -1,56 +1,115 @@
 package server.repository;
+import server.log.Log;
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
 import server.model.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 /**
  *
+ * - 잠금 대기 시간과 파일 읽기/쓰기 시간을 Metrics에 기록 (repo.rooms.*)
+ * - 쓰기마다 데이터 버전 증가 (IF_VERSION 조건부 조회)
+ * - 조회는 읽기 전용 사본(DataSnapshot)에서 잠금 없이 처리: 처음 조회할 때 파일을 한 번 읽고,
+ *   쓰기가 끝날 때마다 새 목록으로 바꿔 내보냄 (쓰기에 실패하면 다음 조회 때 파일을 다시 읽음)
  * @author user
  */
 public class RoomRepository {
     private static final String ROOM_FILE_PATH = "data/rooms.csv";
+    private static final String HEADER = "RoomNum,Type,Price,Capacity,Description";
+    private final Table table = Storage.open(ROOM_FILE_PATH, HEADER, 0);
+    private static final LatencyHistogram LOCK_WAIT = Metrics.timer("repo.rooms.lockWait");
+    private static final LatencyHistogram READ_TIME = Metrics.timer("repo.rooms.read");
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("repo.rooms.write");
+    // 데이터 버전: 파일을 쓸 때마다 1씩 증가 (재시작해도 줄지 않도록 시작 시각(ms)에서 출발)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    // 마지막으로 내보낸 객실 목록 (this 모니터 안에서 바꾸고, 읽을 때는 잠금 없음, null이면 아직 읽지 않음)
+    private volatile DataSnapshot<Room> published;
+
+    /** 현재 데이터 버전 (파일을 읽지 않음) */
+    public long version() {
+        return version.get();
+    }
     
+    /** 마지막 쓰기까지 반영된 객실 목록 사본 (처음 한 번만 잠금을 잡고 파일을 읽음) */
+    public DataSnapshot<Room> snapshot(){
+        DataSnapshot<Room> current = published;
+        if (current != null) return current;
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            if (published == null) published = DataSnapshot.of(version.get(), loadAll());
+            return published;
+        }
+    }
+
         /** 모든 사용자 목록 조회 */
-    public synchronized List<Room> findAll(){
+    public List<Room> findAll(){
+        return new ArrayList<>(snapshot().items());
+    }
+
+    // this 모니터를 가진 상태에서 호출
+    private List<Room> loadAll(){
         List<Room> RoomList = new ArrayList<>();
-        File file = new File(ROOM_FILE_PATH);
-        if(!file.exists()) 
+        if(!table.exists()) 
             return RoomList; // 빈 리스트 반환
         
-        try(BufferedReader reader = new BufferedReader(new FileReader(file))){
-            String line;
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length >= 5){
-                    RoomList.add(new Room(parts[0].trim(), parts[1].trim(), Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()), parts[4].trim()));
+        long start = System.nanoTime();
+        try(Rows rows = table.rows(0)){
+            while(rows.next()){
+                if(rows.fields() >= 5){
+                    RoomList.add(new Room(rows.trimmed(0), rows.trimmed(1), rows.intField(2), rows.intField(3), rows.trimmed(4)));
                 }
             }
         }
         catch(IOException ex){
-            ex.printStackTrace();
+            Log.error("[RoomRepository] 파일 읽기 오류", ex);
         }
+        READ_TIME.recordSince(start);
         return RoomList;
     }
         public Room findByNumber(String roomNum){
-            return findAll().stream().filter(r -> r.getRoomNumber().equals(roomNum)).findFirst().orElse(null);
+            return snapshot().items().stream().filter(r -> r.getRoomNumber().equals(roomNum)).findFirst().orElse(null);
         }
         
-        public synchronized boolean add(Room room) {
+        public boolean add(Room room) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            return append(room);
+        }
+    }
+
+    private boolean append(Room room) {
         // 이미 존재하는 방 번호인지 확인
-        if (findByNumber(room.getRoomNumber()) != null) return false;
+        List<Room> all = loadAll();
+        if (all.stream().anyMatch(r -> r.getRoomNumber().equals(room.getRoomNumber()))) return false;
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(ROOM_FILE_PATH, true))) {
-            bw.newLine();
-            String line = String.format("%s,%s,%d,%d,%s", 
-                    room.getRoomNumber(), room.getType(), room.getPrice(), room.getCapacity(), room.getDescription());
-            bw.write(line);
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            table.sync(table.append(fields(room)));
+            written = true;
             return true;
         } catch (IOException e) { return false; }
+        finally {
+            version.incrementAndGet();
+            WRITE_TIME.recordSince(start);
+            all.add(room);
+            publish(written ? all : null);
+        }
     }
 
-    public synchronized boolean update(Room newRoom) {
-        List<Room> all = findAll();
+    public boolean update(Room newRoom) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            return replace(newRoom);
+        }
+    }
+
+    private boolean replace(Room newRoom) {
+        List<Room> all = loadAll();
         boolean found = false;
         
         for (int i = 0; i < all.size(); i++) {
@@ -65,8 +124,16 @@ public class RoomRepository {
         return rewriteFile(all); // 파일 덮어쓰기
     }
 
-    public synchronized boolean delete(String roomNum) {
-        List<Room> all = findAll();
+    public boolean delete(String roomNum) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            LOCK_WAIT.recordSince(start);
+            return remove(roomNum);
+        }
+    }
+
+    private boolean remove(String roomNum) {
+        List<Room> all = loadAll();
         boolean removed = all.removeIf(r -> r.getRoomNumber().equals(roomNum));
         if (!removed) return false;
 
@@ -74,16 +141,31 @@ public class RoomRepository {
     }
 
     private boolean rewriteFile(List<Room> rooms) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(ROOM_FILE_PATH))) {
-            bw.write("RoomNum,Type,Price,Capacity,Description"); // 헤더
-            for (Room r : rooms) {
-                bw.newLine();
-                String line = String.format("%s,%s,%d,%d,%s", 
-                        r.getRoomNumber(), r.getType(), r.getPrice(), r.getCapacity(), r.getDescription());
-                bw.write(line);
-            }
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            // 임시 파일에 쓰고 fsync한 뒤 교체 (도중에 멈춰도 이전 파일이 남음)
+            List<String[]> rows = new ArrayList<>(rooms.size());
+            for (Room r : rooms) rows.add(fields(r));
+            table.replace(rows);
+            written = true;
             return true;
         } catch (IOException e) { return false; }
+        finally {
+            version.incrementAndGet();
+            WRITE_TIME.recordSince(start);
+            publish(written ? rooms : null);
+        }
+    }
+
+    // 쓰기를 마친 뒤 새 목록을 내보냄 (this 모니터를 가진 상태, null이면 다음 조회 때 파일을 다시 읽음)
+    private void publish(List<Room> rooms) {
+        published = (rooms == null) ? null : DataSnapshot.of(version.get(), rooms);
+    }
+
+    // 객실 -> 테이블 한 행
+    private static String[] fields(Room r) {
+        return new String[] { r.getRoomNumber(), r.getType(), String.valueOf(r.getPrice()), String.valueOf(r.getCapacity()), r.getDescription() };
     }
     }
     
@@ -0,0 +1,155 @@
+package server.repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import server.model.Reservation;
+
+/**
+ *  객실 1개의 숙박 기간 색인 (ReservationRepository 내부용, 저장소의 잠금 안에서만 사용)
+ *  - 입실일(epoch day) 순으로 정렬해 두고, 기간이 겹치는 예약은 가장 긴 숙박 길이만큼의 범위만 찾아봄
+ *    -> 예약이 많이 쌓여도 조회 비용은 O(log n + 그 범위의 예약 수)
+ *  - 겹침 기준은 숙박일(밤) 기준 반열린 구간: 입실일 < to 이고 퇴실일 > from
+ *  - 상태와 관계없이 모든 예약을 담고, 상태 조건은 호출하는 쪽에서 거름
+ *  - 날짜를 해석할 수 없거나 퇴실일이 입실일보다 늦지 않은 예약은 따로 두고 항상 문자열 비교로 확인
+ * @author user
+ */
+final class RoomStays {
+
+    private static final class Stay {
+        final long seq;    // 저장소에 들어온 순서 (결과를 파일 순서로 돌려주기 위함)
+        final Reservation res;
+        final long outDay; // 퇴실일 (epoch day)
+
+        Stay(long seq, Reservation res, long outDay) {
+            this.seq = seq;
+            this.res = res;
+            this.outDay = outDay;
+        }
+    }
+
+    private static final Comparator<Stay> BY_SEQ = Comparator.comparingLong(s -> s.seq);
+
+    private final TreeMap<Long, List<Stay>> byCheckIn = new TreeMap<>();
+    private final List<Stay> irregular = new ArrayList<>();
+    private long maxNights = 1; // 지금까지 들어온 가장 긴 숙박 (삭제해도 줄이지 않음: 범위가 조금 넓어질 뿐)
+    private int size;
+
+    void add(Reservation res, long seq) {
+        size++;
+        long in = epochDay(res.getCheckInDate());
+        long out = epochDay(res.getCheckOutDate());
+        Stay stay = new Stay(seq, res, out);
+        if (in == Long.MIN_VALUE || out == Long.MIN_VALUE || out <= in) {
+            irregular.add(stay);
+            return;
+        }
+        maxNights = Math.max(maxNights, out - in);
+        byCheckIn.computeIfAbsent(in, k -> new ArrayList<>(1)).add(stay);
+    }
+
+    void remove(Reservation res) {
+        if (irregular.removeIf(s -> s.res == res)) {
+            size--;
+            return;
+        }
+        long in = epochDay(res.getCheckInDate());
+        List<Stay> bucket = byCheckIn.get(in);
+        if (bucket == null) return;
+        if (bucket.removeIf(s -> s.res == res)) size--;
+        if (bucket.isEmpty()) byCheckIn.remove(in);
+    }
+
+    /** 같은 날짜의 새 객체로 바꿔 끼움 (상태/요청사항 변경, 순서 유지) */
+    void replace(Reservation old, Reservation updated) {
+        List<Stay> bucket = irregular;
+        int i = indexOf(bucket, old);
+        if (i < 0) {
+            bucket = byCheckIn.get(epochDay(old.getCheckInDate()));
+            if (bucket == null) return;
+            i = indexOf(bucket, old);
+            if (i < 0) return;
+        }
+        Stay stay = bucket.get(i);
+        bucket.set(i, new Stay(stay.seq, updated, stay.outDay));
+    }
+
+    private static int indexOf(List<Stay> bucket, Reservation res) {
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i).res == res) return i;
+        }
+        return -1;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** [from, to) 기간과 겹치는 예약 (저장소에 들어온 순서) */
+    List<Reservation> overlapping(String from, String to) {
+        // 문자열 비교 기준: (from < 퇴실일) AND (to > 입실일)
+        return find(epochDay(from), epochDay(to),
+                res -> from.compareTo(res.getCheckOutDate()) < 0 && to.compareTo(res.getCheckInDate()) > 0);
+    }
+
+    /** date 날 밤에 투숙 중인 예약: 입실일 <= date < 퇴실일 (저장소에 들어온 순서) */
+    List<Reservation> staying(String date) {
+        long day = epochDay(date);
+        return find(day, (day == Long.MIN_VALUE) ? Long.MIN_VALUE : day + 1,
+                res -> date.compareTo(res.getCheckInDate()) >= 0 && date.compareTo(res.getCheckOutDate()) < 0);
+    }
+
+    /** fromDay~toDay(포함) 중 하루라도 입실일~퇴실일(포함)에 걸치는 예약 (날짜를 해석할 수 없는 예약은 제외) */
+    List<Reservation> touching(long fromDay, long toDay) {
+        // 당일 퇴실 예약처럼 따로 둔 예약도 날짜만 해석되면 포함
+        return find(fromDay - 1, toDay + 1, res -> {
+            long in = epochDay(res.getCheckInDate());
+            long out = epochDay(res.getCheckOutDate());
+            return in != Long.MIN_VALUE && out != Long.MIN_VALUE && in <= toDay && out >= fromDay;
+        });
+    }
+
+    /**
+     * [fromDay, toDay)와 겹치는 예약
+     * @param byString 날짜를 해석할 수 없는 경우에 쓰는 같은 조건의 문자열 비교
+     */
+    private List<Reservation> find(long fromDay, long toDay, Predicate<Reservation> byString) {
+        List<Stay> found = new ArrayList<>();
+        if (fromDay == Long.MIN_VALUE || toDay == Long.MIN_VALUE || toDay <= fromDay) {
+            // 조회 날짜를 해석할 수 없거나 기간이 뒤집혀 있으면 예전처럼 모든 예약을 문자열로 비교
+            for (List<Stay> bucket : byCheckIn.values()) {
+                for (Stay s : bucket) {
+                    if (byString.test(s.res)) found.add(s);
+                }
+            }
+        } else {
+            // 겹치는 예약의 입실일은 (fromDay - 가장 긴 숙박, toDay) 안에 있음
+            for (List<Stay> bucket : byCheckIn.subMap(fromDay - maxNights, false, toDay, false).values()) {
+                for (Stay s : bucket) {
+                    if (s.outDay > fromDay) found.add(s);
+                }
+            }
+        }
+        for (Stay s : irregular) {
+            if (byString.test(s.res)) found.add(s);
+        }
+        found.sort(BY_SEQ);
+        List<Reservation> result = new ArrayList<>(found.size());
+        for (Stay s : found) result.add(s.res);
+        return result;
+    }
+
+    // yyyy-MM-dd -> epoch day (해석할 수 없으면 Long.MIN_VALUE)
+    static long epochDay(String date) {
+        try {
+            return LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
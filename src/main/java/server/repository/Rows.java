@@ -0,0 +1,207 @@
+package server.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ *  저장소 테이블을 한 행씩 읽는 커서 (Table.rows, 한 스레드에서만 사용)
+ *  - 저장 엔진이 next()에서 현재 행의 필드 위치만 buf 위에 정해 두고,
+ *    필드 값은 필요한 열만 꺼낼 때 문자열로 만듦 (숫자/날짜는 바이트에서 바로 해석)
+ *  - 필드 i는 buf의 [starts[i], ends[i]), quoted면 CSV 따옴표 안쪽 ("" -> ")
+ * @author user
+ */
+abstract class Rows implements Closeable {
+    protected ByteBuffer buf;
+
+    // 현재 행의 필드 위치 (하위 클래스가 next()에서 채움)
+    protected int count;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * 다음 행으로 이동
+     * @return 더 읽을 행이 없으면 false
+     */
+    abstract boolean next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /** 현재 행의 필드 수 */
+    int fields() {
+        return count;
+    }
+
+    /** 모든 필드가 공백뿐인 행인지 (빈 줄) */
+    boolean isBlank() {
+        for (int i = 0; i < count; i++) {
+            if (quoted[i] || trimStart(i) < ends[i]) return false;
+        }
+        return true;
+    }
+
+    /** 필드 값 그대로 (앞뒤 공백 포함) */
+    String field(int i) {
+        if (quoted[i]) return unquote(i);
+        return decode(starts[i], ends[i]);
+    }
+
+    /** 앞뒤 공백을 뺀 필드 값 (String.trim과 같은 기준) */
+    String trimmed(int i) {
+        if (quoted[i]) return unquote(i).trim();
+        int from = trimStart(i), to = trimEnd(i, from);
+        return decode(from, to);
+    }
+
+    /** 현재 행의 필드 전체 (다른 테이블로 옮길 때) */
+    String[] toArray() {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) values[i] = field(i);
+        return values;
+    }
+
+    /** UTF-8 바이트 (matches 비교용, 한 번 만들어 두고 재사용) */
+    static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 앞뒤 공백을 뺀 필드가 expected(UTF-8)와 같은지 (문자열을 만들지 않음) */
+    boolean matches(int i, byte[] expected) {
+        if (quoted[i]) return Arrays.equals(utf8(trimmed(i)), expected);
+        int from = trimStart(i), to = trimEnd(i, from);
+        if (to - from != expected.length) return false;
+        for (int k = 0; k < expected.length; k++) {
+            if (buf.get(from + k) != expected[k]) return false;
+        }
+        return true;
+    }
+
+    /** 앞뒤 공백을 뺀 10진 정수 (Integer.parseInt와 같은 값, 형식이 틀리면 NumberFormatException) */
+    int intField(int i) {
+        if (quoted[i]) return Integer.parseInt(trimmed(i));
+        int from = trimStart(i), to = trimEnd(i, from);
+        int k = from;
+        boolean negative = false;
+        if (k < to && (buf.get(k) == '-' || buf.get(k) == '+')) {
+            negative = buf.get(k) == '-';
+            k++;
+        }
+        if (k == to) throw new NumberFormatException("For input string: \"" + decode(from, to) + "\"");
+        long value = 0;
+        for (; k < to; k++) {
+            int digit = buf.get(k) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + decode(from, to) + "\"");
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) break;
+        }
+        long result = negative ? -value : value;
+        if (k < to || result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + decode(from, to) + "\"");
+        }
+        return (int) result;
+    }
+
+    /** yyyy-MM-dd 필드의 epoch day (앞뒤 공백 무시, 해석할 수 없으면 Long.MIN_VALUE) */
+    long epochDay(int i) {
+        if (quoted[i]) {
+            try {
+                return LocalDate.parse(trimmed(i)).toEpochDay();
+            } catch (DateTimeParseException e) {
+                return Long.MIN_VALUE;
+            }
+        }
+        int from = trimStart(i);
+        if (trimEnd(i, from) - from != 10 || buf.get(from + 4) != '-' || buf.get(from + 7) != '-') return Long.MIN_VALUE;
+        int year = digits(from, 4), month = digits(from + 5, 2), day = digits(from + 8, 2);
+        if (year < 0 || month < 0 || day < 0) return Long.MIN_VALUE;
+        try {
+            return LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /** yyyy-MM-dd HH:mm:ss 필드 (앞뒤 공백 무시, 형식이 틀리면 DateTimeParseException) */
+    LocalDateTime dateTime(int i) {
+        int from = trimStart(i);
+        if (!quoted[i] && trimEnd(i, from) - from == 19 && buf.get(from + 4) == '-' && buf.get(from + 7) == '-'
+                && buf.get(from + 10) == ' ' && buf.get(from + 13) == ':' && buf.get(from + 16) == ':') {
+            int year = digits(from, 4), month = digits(from + 5, 2), day = digits(from + 8, 2);
+            int hour = digits(from + 11, 2), minute = digits(from + 14, 2), second = digits(from + 17, 2);
+            if ((year | month | day | hour | minute | second) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    // 아래에서 같은 예외 형식으로 던짐
+                }
+            }
+        }
+        String text = trimmed(i);
+        throw new DateTimeParseException("Text '" + text + "' could not be parsed", text, 0);
+    }
+
+    // 현재 행에 필드 추가 (next()에서 호출)
+    protected final void add(int start, int end, boolean isQuoted) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            quoted = Arrays.copyOf(quoted, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        quoted[count] = isQuoted;
+        count++;
+    }
+
+    // 끝의 빈 필드를 셈하지 않음 (String.split(",")과 같은 필드 수)
+    protected final void dropTrailingEmpty() {
+        while (count > 0 && !quoted[count - 1] && starts[count - 1] == ends[count - 1]) count--;
+    }
+
+    protected final String decode(int from, int to) {
+        int length = to - from;
+        if (buf.hasArray()) return new String(buf.array(), buf.arrayOffset() + from, length, StandardCharsets.UTF_8);
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        buf.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int trimStart(int i) {
+        int from = starts[i];
+        while (from < ends[i] && (buf.get(from) & 0xFF) <= ' ') from++;
+        return from;
+    }
+
+    private int trimEnd(int i, int from) {
+        int to = ends[i];
+        while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') to--;
+        return to;
+    }
+
+    // 고정 자릿수 10진수 (숫자가 아닌 바이트가 있으면 -1)
+    private int digits(int from, int length) {
+        int value = 0;
+        for (int k = from; k < from + length; k++) {
+            int digit = buf.get(k) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // 따옴표 필드: "" -> "
+    private String unquote(int i) {
+        String text = decode(starts[i], ends[i]);
+        return text.indexOf('"') < 0 ? text : text.replace("\"\"", "\"");
+    }
+}
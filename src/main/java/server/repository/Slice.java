@@ -0,0 +1,78 @@
+package server.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ *  커서 기반 페이지 조회 결과 (PAGE 명령)
+ *  - 커서는 테이블 데이터 행(헤더 제외)의 순번, 다음 페이지는 next()부터 다시 읽음
+ *    (메모리 저장소의 목록은 목록 안의 순번)
+ *  - 조건에 맞는 레코드를 최대 max개까지만 메모리에 올리므로 파일 크기와 관계없이 사용량이 일정
+ *  - 페이지 사이에 파일이 다시 쓰이면 순번이 밀릴 수 있음 (오프셋 방식과 같은 한계)
+ * @author user
+ */
+public final class Slice<T> {
+    /** 더 읽을 레코드가 없음 */
+    public static final long END = -1;
+
+    private final List<T> items;
+    private final long next;
+
+    public Slice(List<T> items, long next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public static <T> Slice<T> empty() {
+        return new Slice<>(Collections.emptyList(), END);
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    /** 다음 페이지의 커서 (마지막 페이지면 END) */
+    public long next() {
+        return next;
+    }
+
+    /** 같은 커서를 유지한 채 항목만 변환 */
+    public <R> Slice<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = new ArrayList<>(items.size());
+        for (T item : items) mapped.add(mapper.apply(item));
+        return new Slice<>(mapped, next);
+    }
+
+    /** 이미 메모리에 있는 목록에서 from번째부터 최대 max개 */
+    public static <T> Slice<T> of(List<T> list, long from, int max) {
+        if (from >= list.size()) return empty();
+        int begin = (int) from;
+        int end = (int) Math.min((long) begin + max, list.size());
+        return new Slice<>(new ArrayList<>(list.subList(begin, end)), end < list.size() ? end : END);
+    }
+
+    /**
+     * from번째 데이터 행에 놓인 rows(Table.rows(from))에서 한 행씩 읽어 페이지를 만듦
+     * - 건너뛴 행은 필드 경계만 찾고 문자열로 만들지 않음
+     * - parser가 null을 반환한 행(빈 줄, 형식 오류)과 filter에 맞지 않는 레코드도 순번은 차지함
+     */
+    static <T> Slice<T> scan(Rows rows, long from, int max,
+                             Function<Rows, T> parser, Predicate<? super T> filter) throws IOException {
+        List<T> items = new ArrayList<>(Math.min(max, 256));
+        long ordinal = from;
+        while (rows.next()) {
+            ordinal++;
+            T item = parser.apply(rows);
+            if (item == null || !filter.test(item)) continue;
+            items.add(item);
+            if (items.size() == max) {
+                return new Slice<>(items, ordinal);
+            }
+        }
+        return new Slice<>(items, END);
+    }
+}
@@ -0,0 +1,41 @@
+package server.repository;
+
+import java.util.Locale;
+import java.util.Map;
+
+import server.log.Log;
+
+/**
+ *  저장 엔진 선택 (config.properties의 storage.engine)
+ *  - 서비스가 저장소를 만들기 전에 ServerMain에서 한 번 select하고, 그 뒤에 열린 테이블은 모두 같은 엔진을 씀
+ *  - binary를 처음 고르면 각 테이블이 기존 CSV 파일을 한 번 옮겨 담음 (CSV 파일은 그대로 남김)
+ * @author user
+ */
+public final class Storage {
+    private static final Map<String, StorageEngine> ENGINES = Map.of(
+            "csv", CsvTable::new,
+            "binary", BinaryTable::new);
+
+    private static volatile String selected = "csv";
+
+    private Storage() {}
+
+    /** 저장 엔진 선택 (csv | binary, 모르는 이름이면 csv) */
+    public static void select(String name) {
+        String key = (name == null) ? "" : name.trim().toLowerCase(Locale.ROOT);
+        if (!ENGINES.containsKey(key)) {
+            Log.warn("[Storage] 알 수 없는 저장 엔진: " + name + " (csv 사용)");
+            key = "csv";
+        }
+        selected = key;
+    }
+
+    /** 현재 저장 엔진 이름 */
+    public static String engineName() {
+        return selected;
+    }
+
+    static Table open(String path, String header, int limit) {
+        return ENGINES.get(selected).open(path, header, limit);
+    }
+}
@@ -0,0 +1,18 @@
+package server.repository;
+
+/**
+ *  저장소 테이블의 파일 형식 (Storage.select로 고름)
+ *  - csv: 사람이 읽을 수 있는 CSV 텍스트 (기본값, 예전 파일 그대로)
+ *  - binary: 블록 단위 레코드 파일 (블록마다 CRC32C, 행 순번 -> 블록 위치 색인)
+ * @author user
+ */
+interface StorageEngine {
+
+    /**
+     * 테이블 열기 (파일은 처음 쓸 때 만듦)
+     * @param path CSV 기준 경로 (다른 형식은 이 경로에서 파일 이름을 정함)
+     * @param header 첫 줄 헤더 (CSV에서만 씀, 없으면 null)
+     * @param limit 행의 필드 수 제한 (String.split(",", limit)과 같은 의미)
+     */
+    Table open(String path, String header, int limit);
+}
@@ -0,0 +1,50 @@
+package server.repository;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ *  저장소 테이블 하나 (StorageEngine이 만듦, 저장소 클래스는 파일 형식을 모르고 이 인터페이스만 씀)
+ *  - 행은 문자열 필드 배열, 읽기는 Rows 커서로 한 행씩
+ *  - 덧붙이기는 묶음 fsync: append가 돌려준 티켓을 잠금 밖에서 sync
+ *  - 통째로 바꿀 때는 replace (임시 파일에 쓰고 교체하므로 도중에 멈춰도 이전 내용이 남음)
+ *  - 같은 테이블을 여러 스레드가 쓸 때의 순서는 호출하는 저장소의 잠금으로 정함
+ * @author user
+ */
+interface Table {
+
+    /** 저장된 내용이 있는지 (파일 존재 여부) */
+    boolean exists();
+
+    /**
+     * from번째 데이터 행(헤더 제외)부터 읽는 커서 (없으면 NoSuchFileException)
+     * - 커서는 한 스레드에서만 쓰고 다 쓰면 close
+     */
+    Rows rows(long from) throws IOException;
+
+    /** 여러 행을 한 번에 덧붙이고 티켓 반환 (아직 fsync 전) */
+    long append(List<String[]> rows) throws IOException;
+
+    /** 한 행 덧붙이기 */
+    default long append(String... fields) throws IOException {
+        return append(List.<String[]>of(fields));
+    }
+
+    /** 티켓까지 덧붙인 행이 디스크에 닿을 때까지 대기 (0이면 바로 반환) */
+    void sync(long ticket) throws IOException;
+
+    /** 내용 전체를 rows로 교체 (fsync 후 반환) */
+    void replace(List<String[]> rows) throws IOException;
+
+    /** 덧붙이던 파일을 fsync하고 닫음 (다음 append 때 다시 엶) */
+    void close() throws IOException;
+
+    /**
+     * 내용을 target(같은 엔진의 테이블) 뒤로 옮기고 이 테이블을 비움
+     * - target이 비어 있으면 파일 이름만 바꿈
+     */
+    void moveTo(Table target) throws IOException;
+
+    /** 내용 삭제 */
+    void delete() throws IOException;
+}
@@ -1,4 +1,7 @@
 package server.repository;
+import server.log.Log;
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
 import server.model.User;
 import java.io.*;
 import java.util.ArrayList;
@@ -9,11 +12,14 @@ import java.util.List;
  */
 public class UserRepository {
     private static final String USER_FILE_PATH = "data/users.csv"; // CSV 파일 경로 (단일 경로)
+    private static final String HEADER = "ID,Password,Role,Phone,Name";
+    private final Table table = Storage.open(USER_FILE_PATH, HEADER, 0);
     private static final int ID_INDEX = 0;
     private static final int PW_INDEX = 1;
     private static final int ROLE_INDEX = 2;
     private static final int PHONE_INDEX = 3;
     private static final int NAME_INDEX = 4;
+    private static final LatencyHistogram READ_TIME = Metrics.timer("repo.users.read"); // 전체 조회 시간 (GET_METRICS)
     
     /**
      * 아이디로 사용자 한 명을 조회.
@@ -22,21 +28,16 @@ public class UserRepository {
      * @return User 또는 null
      */
     public synchronized User findByUsername(String id) {
-        File f = new File(USER_FILE_PATH);
-        try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
-            String line = reader.readLine(); // 헤더 스킵
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length == 5 && parts[ID_INDEX].trim().equals(id)){
-                    String phone = parts[PHONE_INDEX].trim();
-                    String name = parts[NAME_INDEX].trim();
-                    return new User(parts[ID_INDEX].trim(), name, parts[PW_INDEX].trim(), parts[ROLE_INDEX].trim(), phone);
+        byte[] key = Rows.utf8(id); // 아이디 열만 바이트로 비교하고 맞는 행만 User로 만듦
+        try (Rows rows = table.rows(0)) {
+            while(rows.next()){
+                if(rows.fields() == 5 && rows.matches(ID_INDEX, key)){
+                    return parse(rows);
                 }
             }
         }
         catch(IOException ex){
-            System.out.println("CVS 파일찾기 오류");
-            ex.printStackTrace();
+            Log.error("CVS 파일찾기 오류", ex);
         }
         return null; //사용자를 찾기 못함
     } 
@@ -49,65 +50,68 @@ public class UserRepository {
     /** 모든 사용자 목록 조회 */
     public synchronized List<User> findAll(){
         List<User> userList = new ArrayList<>();
-        File file = new File(USER_FILE_PATH);
         
-        if(!file.exists()) return userList; // 빈 리스트 반환
+        if(!table.exists()) return userList; // 빈 리스트 반환
         
-        try(BufferedReader reader = new BufferedReader(new FileReader(file))){
-            String line;
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length == 5){
-                    String phone = parts[PHONE_INDEX].trim();
-                    String name = parts[NAME_INDEX].trim();
-                    userList.add(new User(parts[ID_INDEX].trim(), name, parts[PW_INDEX].trim(), parts[ROLE_INDEX].trim(), phone));
+        long start = System.nanoTime();
+        try(Rows rows = table.rows(0)){
+            while(rows.next()){
+                User user = parse(rows);
+                if(user != null){
+                    userList.add(user);
                 }
             }
         }
         catch(IOException ex){
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 읽기 오류", ex);
         }
+        READ_TIME.recordSince(start);
         return userList;
     }
+
+    /**
+     * 사용자 목록 한 페이지 조회 (PAGE:크기:커서:GET_USERS)
+     * 파일을 한 줄씩 읽어 최대 max명까지만 만들고 멈춤
+     * @param from 시작 커서 (0: 처음부터)
+     */
+    public synchronized Slice<User> scan(long from, int max){
+        if(!table.exists()) return Slice.empty();
+
+        long start = System.nanoTime();
+        try(Rows rows = table.rows(from)){
+            return Slice.scan(rows, from, max, UserRepository::parse, u -> true);
+        }
+        catch(IOException ex){
+            Log.error("[UserRepository] users.csv 읽기 오류", ex);
+            return Slice.empty();
+        }
+        finally {
+            READ_TIME.recordSince(start);
+        }
+    }
+
+    // 테이블 한 행 -> User (형식이 맞지 않으면 null)
+    private static User parse(Rows row){
+        if(row.fields() != 5) return null;
+        String phone = row.trimmed(PHONE_INDEX);
+        String name = row.trimmed(NAME_INDEX);
+        return new User(row.trimmed(ID_INDEX), name, row.trimmed(PW_INDEX), row.trimmed(ROLE_INDEX), phone);
+    }
     
     /**
      * 사용자 추가 (중복 검사하지 않음 - 상위 서비스에서 수행)
      * 파일이 없거나 비어있으면 헤더 추가 후 행 append.
      */
     public synchronized boolean add(User user){
-        File file = new File(USER_FILE_PATH);
-        boolean needHeader = !file.exists() || file.length() == 0;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))){
-            if(needHeader){
-                writer.write("ID,Password,Role,Phone,Name");
-                writer.newLine();
-                writer.flush(); // 헤더와 데이터 사이 줄바꿈 보장
-            }
-            // 파일이 비어있지 않더라도 마지막 줄이 개행으로 끝나지 않은 경우를 방지
-            // (윈도우 메모장 등에서 파일이 잘못 저장된 경우)
-            // 항상 줄의 시작에 데이터가 오도록 강제
-            else {
-                RandomAccessFile raf = new RandomAccessFile(file, "rw");
-                if (raf.length() > 0) {
-                    raf.seek(raf.length() - 1);
-                    int last = raf.read();
-                    if (last != '\n' && last != '\r') {
-                        writer.newLine();
-                    }
-                }
-                raf.close();
-            }
-            String line = String.format("%s,%s,%s,%s,%s", user.getId(), user.getPassword(), user.getRole(), user.getPhone(), user.getName());
-            writer.write(line);
-            writer.newLine();
-            System.out.println("[UserRepository] users.csv에 사용자 추가됨: " + line);
+        // 빈 파일이면 헤더부터, 마지막 줄이 개행으로 끝나지 않았으면 개행부터 씀
+        // (윈도우 메모장 등에서 파일이 잘못 저장된 경우에도 항상 줄의 시작에 데이터가 오도록)
+        try{
+            table.sync(table.append(fields(user)));
+            Log.debug("[UserRepository] users.csv에 사용자 추가됨: " + user.getId());
             return true;
         }
         catch(IOException ex){
-            System.out.println("[UserRepository] users.csv 저장 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 저장 오류", ex);
             return false;
         }
     }
@@ -117,19 +121,13 @@ public class UserRepository {
         List<User> allUsers = findAll();
         boolean removed = allUsers.removeIf(u -> u.getId().equals(id));
         if(!removed) return false;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(USER_FILE_PATH))){
-            writer.write("ID,Password,Role,Phone,Name");
-            for(User u : allUsers){
-                writer.newLine();
-                String line = String.format("%s,%s,%s,%s,%s", u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName());
-                writer.write(line);
-            }
-            System.out.println("[UserRepository] users.csv에서 사용자 삭제됨: " + id);
+        try{
+            rewrite(allUsers);
+            Log.debug("[UserRepository] users.csv에서 사용자 삭제됨: " + id);
             return true;
         }
         catch(IOException ex){
-            System.out.println("[UserRepository] users.csv 삭제 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 삭제 오류", ex);
             return false;
         }
     }
@@ -149,22 +147,28 @@ public class UserRepository {
             }
         }
         if(!found) return false;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(USER_FILE_PATH))) {
-            writer.write("ID,Password,Role,Phone,Name");
-            for(User u : all) {
-                writer.newLine();
-                String line = String.format("%s,%s,%s,%s,%s", u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName());
-                writer.write(line);
-            }
-            System.out.println("[UserRepository] users.csv에서 사용자 수정됨: " + updated.getId());
+        try {
+            rewrite(all);
+            Log.debug("[UserRepository] users.csv에서 사용자 수정됨: " + updated.getId());
             return true;
         } catch(IOException ex) {
-            System.out.println("[UserRepository] users.csv 수정 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 수정 오류", ex);
             return false;
         }
     }
 
+    // 전체 사용자로 파일 교체 (임시 파일에 쓰고 fsync한 뒤 교체, 도중에 멈춰도 이전 파일이 남음)
+    private void rewrite(List<User> users) throws IOException {
+        List<String[]> rows = new ArrayList<>(users.size());
+        for(User u : users) rows.add(fields(u));
+        table.replace(rows);
+    }
+
+    // 사용자 -> 테이블 한 행 (ID,Password,Role,Phone,Name)
+    private static String[] fields(User u){
+        return new String[] { u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName() };
+    }
+
     // saveUser 메서드 기능을 add에 통합 (중복 제거)
 
 }
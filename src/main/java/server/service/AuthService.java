@@ -1,5 +1,7 @@
 package server.service;
+import server.log.Log;
 import server.model.User;
+import server.repository.Slice;
 import server.repository.UserRepository;
 import java.util.List;
 
@@ -20,20 +22,20 @@ public class AuthService {
     */
    public synchronized User registerUser(String id, String name, String pw, String phone){
        if(id == null || id.isEmpty() || pw == null || pw.isEmpty()){
-           System.out.println("아이디/비밀번호 누락");
+           Log.debug("아이디/비밀번호 누락");
            return null;
        }
        // 중복 아이디 직접 검사 (리포지토리 add는 중복 검사하지 않음)
        if(userRepository.existsByUsername(id)){
-           System.out.println("이미 존재하는 아이디");
+           Log.debug("이미 존재하는 아이디");
            return null;
        }
        User user = new User(id, name, pw, "Customer", phone);
        if(userRepository.add(user)){
-           System.out.println("회원가입 성공");
+           Log.debug("회원가입 성공");
            return user;
        }
-       System.out.println("파일 저장 중 오류");
+       Log.error("파일 저장 중 오류");
        return null;
    }
 
@@ -43,22 +45,26 @@ public class AuthService {
        
        // 사용자가 존재하지 않음
        if(user == null){
-           System.out.println("사용자를 찾을 수 없음");
+           Log.debug("사용자를 찾을 수 없음");
            return null;
        }
        // 비밀번호 일치
        if(user.getPassword().equals(pw)){
-           System.out.println("로그인 성공");
+           Log.debug("로그인 성공");
            return user;
        }
        else{
-           System.out.println("비밀번호 불일치");
+           Log.debug("비밀번호 불일치");
            return null;
        }
    }
    public List<User> getAllUsers(){
        return userRepository.findAll();
    }
+   /** 사용자 목록 한 페이지 (cursor부터 최대 max명) */
+   public Slice<User> getUsers(long cursor, int max){
+       return userRepository.scan(cursor, max);
+   }
    public synchronized boolean addUser(String id, String name, String pw, String role, String phone){
        if(id == null || id.trim().isEmpty()) return false;
        if(name == null || name.trim().isEmpty()) return false;
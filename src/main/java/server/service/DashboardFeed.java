@@ -0,0 +1,163 @@
+package server.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import server.log.Log;
+import server.model.DashboardRow;
+
+/**
+ *  객실 현황판 변경 알림 (SUBSCRIBE_DASHBOARD)
+ *  - 구독은 조회일 단위, 같은 날짜를 구독한 연결이 여러 개여도 현황은 한 번만 계산
+ *  - HotelService에서 변경 알림이 오면 전용 스레드가 구독 중인 날짜의 현황을 다시 만들고,
+ *    직전에 보낸 현황과 비교해 달라진 객실 행만 구독자에게 보냄
+ *  - 계산 중에 들어온 알림은 다음 계산 한 번으로 합쳐지므로 부하는 변경 빈도에만 비례
+ *  - 새 구독자는 처음에 전체 행을 받고, 이후로는 바뀐 행만 받음
+ * @author user
+ */
+public class DashboardFeed {
+
+    /** 변경된 행을 받는 쪽 (전송 계층이 구현) */
+    public interface Subscriber {
+        /**
+         * 행 전송을 예약하고 바로 반환해야 함 (알림 스레드를 막지 않도록)
+         * @return 전송 대기열이 가득 차 더 받을 수 없으면 false (구독 해지됨)
+         */
+        boolean push(String date, List<DashboardRow> rows);
+    }
+
+    /** 조회일 1개의 구독 상태 */
+    private static final class Topic {
+        final String date;
+        final Set<Subscriber> subscribers = new LinkedHashSet<>(); // 전체 행을 이미 받은 구독자
+        final Set<Subscriber> joining = new LinkedHashSet<>();     // 전체 행을 아직 못 받은 구독자
+        Map<String, String> lastRows;                              // 객실번호 -> 직전에 보낸 행 (알림 스레드 전용)
+
+        Topic(String date) {
+            this.date = date;
+        }
+    }
+
+    private final HotelService hotelService;
+    private final Map<String, Topic> topics = new HashMap<>(); // this 로 동기화
+    private boolean dirty;                                     // this 로 동기화
+
+    public DashboardFeed(HotelService hotelService) {
+        this.hotelService = hotelService;
+    }
+
+    /** HotelService 변경 알림을 받기 시작하고 알림 스레드를 띄움 (생성 뒤 한 번) */
+    public void start() {
+        hotelService.addChangeListener(this::changed);
+        Thread.ofPlatform().name("dashboard-feed").daemon().start(this::dispatchLoop);
+    }
+
+    public synchronized void subscribe(String date, Subscriber subscriber) {
+        topics.computeIfAbsent(date, Topic::new).joining.add(subscriber);
+        notifyAll();
+    }
+
+    public synchronized void unsubscribe(String date, Subscriber subscriber) {
+        Topic topic = topics.get(date);
+        if (topic == null) return;
+        topic.subscribers.remove(subscriber);
+        topic.joining.remove(subscriber);
+        if (topic.subscribers.isEmpty() && topic.joining.isEmpty()) topics.remove(date);
+    }
+
+    /** HotelService 변경 리스너: 표시만 하고 계산은 알림 스레드에서 */
+    private synchronized void changed() {
+        dirty = true;
+        notifyAll();
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            try {
+                dispatch();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                Log.error("현황판 변경 알림 오류", ex);
+            }
+        }
+    }
+
+    /** 변경 또는 새 구독자가 생길 때까지 기다렸다가 한 번 처리 */
+    private void dispatch() throws InterruptedException {
+        boolean changed;
+        List<Topic> work = new ArrayList<>();
+        Map<Topic, List<Subscriber>> existing = new HashMap<>();
+        Map<Topic, List<Subscriber>> joined = new HashMap<>();
+        synchronized (this) {
+            while (!dirty && !hasJoining()) wait();
+            changed = dirty;
+            dirty = false;
+            for (Topic topic : topics.values()) {
+                if (!changed && topic.joining.isEmpty()) continue;
+                work.add(topic);
+                existing.put(topic, new ArrayList<>(topic.subscribers));
+                joined.put(topic, new ArrayList<>(topic.joining));
+                topic.subscribers.addAll(topic.joining);
+                topic.joining.clear();
+            }
+        }
+
+        for (Topic topic : work) {
+            // 변경이 없고 기준 행이 이미 있으면 새 구독자에게 기준 행을 그대로 보냄
+            List<DashboardRow> rows = null;
+            List<DashboardRow> delta = List.of();
+            if (changed || topic.lastRows == null) {
+                rows = hotelService.getRoomDashboardRows(topic.date);
+                delta = diff(topic, rows);
+            }
+            for (Subscriber s : existing.get(topic)) {
+                if (!delta.isEmpty()) deliver(topic, s, delta);
+            }
+            List<Subscriber> newcomers = joined.get(topic);
+            if (newcomers.isEmpty()) continue;
+            if (rows == null) rows = hotelService.getRoomDashboardRows(topic.date);
+            for (Subscriber s : newcomers) deliver(topic, s, rows);
+        }
+    }
+
+    private boolean hasJoining() {
+        for (Topic topic : topics.values()) {
+            if (!topic.joining.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /** 직전에 보낸 행과 비교해 달라진 행만 반환하고 기준을 갱신 (삭제된 객실은 보내지 않음) */
+    private static List<DashboardRow> diff(Topic topic, List<DashboardRow> rows) {
+        Map<String, String> previous = topic.lastRows;
+        Map<String, String> current = new HashMap<>(rows.size() * 2);
+        List<DashboardRow> delta = new ArrayList<>();
+        for (DashboardRow row : rows) {
+            String roomNum = row.getRoom().getRoomNumber();
+            String line = row.toString();
+            current.put(roomNum, line);
+            if (previous != null && !line.equals(previous.get(roomNum))) delta.add(row);
+        }
+        topic.lastRows = current;
+        return delta;
+    }
+
+    private void deliver(Topic topic, Subscriber subscriber, List<DashboardRow> rows) {
+        boolean ok;
+        try {
+            ok = subscriber.push(topic.date, rows);
+        } catch (RuntimeException ex) {
+            Log.error("현황판 변경 전송 오류", ex);
+            ok = false;
+        }
+        if (!ok) {
+            Log.warn("현황판 전송 대기열이 가득 차 구독 해지: " + topic.date);
+            unsubscribe(topic.date, subscriber);
+        }
+    }
+}
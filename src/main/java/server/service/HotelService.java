@@ -12,37 +12,142 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
+import server.log.Log;
+import server.model.DashboardDelta;
+import server.model.DashboardRow;
 import server.model.Payment;
 import server.model.Reservation;
+import server.model.ReservationUpdate;
 import server.model.Room;
 import server.repository.PaymentRepository;
 import server.repository.ReservationRepository;
 import server.repository.RoomRepository;
-
+import server.repository.Slice;
+
+/**
+ *  객실/예약/결제 서비스
+ * <pre>
+ *  잠금 순서 (여러 잠금을 잡을 때 항상 이 순서, 거꾸로 잡지 않음)
+ *   1. 객실 잠금 (roomLocks, 여러 객실이면 잠금 번호 오름차순)
+ *   2. 예약 잠금 (resLocks, 여러 예약이면 잠금 번호 오름차순)
+ *   3. 저장소 내부 잠금 (저장소 메서드 안에서만 잡고, 가진 채로 서비스 잠금을 잡지 않음)
+ *  - 예약 생성: 객실 잠금 안에서 빈 방 확인과 저장 (같은 객실의 이중 예약 방지), 결제 확정은 새 예약번호 잠금까지
+ *  - 기존 예약 변경(결제, 취소): 그 예약의 객실 잠금 -> 예약 잠금
+ *    (객실 잠금까지 잡는 것은 상태 변경이 같은 객실의 빈 방 확인 결과를 바꿀 수 있기 때문)
+ *  - 입실, 퇴실, 상태 변경: 객실 잠금만 (같은 예약의 동시 변경은 저장소의 compare-and-set으로 처리)
+ *  - 요청사항 변경: 서비스 잠금 없음 (빈 방 확인과 무관, 저장소의 compare-and-set만)
+ *  - 버전을 받는 변경은 클라이언트가 읽은 예약 버전과 지금 버전이 다르면 바꾸지 않음 (ReservationUpdate.CONFLICT)
+ *  - BATCH: 바뀔 예약을 미리 알 수 없으므로 모든 객실 잠금 -> 모든 예약 잠금 (하위 명령은 같은 잠금을 다시 잡음)
+ *  - 다른 객실의 예약/변경은 서로 기다리지 않음
+ * </pre>
+ * @author user
+ */
+// try (StripedLocks.Held held = ...)는 잠금 범위를 정하는 용도라 본문에서 참조하지 않음 (-Xlint:try 경고 제외)
+@SuppressWarnings("try")
 public class HotelService {
 
     private final RoomRepository roomRepo;
     private final ReservationRepository resRepo;
     private final PaymentRepository payRepo;    
     private final Set<String> cleaningRooms = Collections.synchronizedSet(new HashSet<>());
-    private static final Object LOCK = new Object();
+    private final AtomicLong cleaningVersion = new AtomicLong(); // 청소 상태를 바꿀 때마다 증가
+    // 객실 현황이 바뀌었을 때 알릴 대상 (DashboardFeed)
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    // 객실별 변경 기록: 객실번호 -> 마지막으로 바뀐 직후의 현황 버전 (GET_DASHBOARD_DELTA)
+    private final Map<String, Long> roomChanges = new ConcurrentHashMap<>();
+    private long deltaFloor; // 이보다 오래된 기준 버전은 변경 기록으로 알 수 없음 (roomChanges 로 동기화)
+    private long deltaDay;   // deltaFloor를 정한 날짜 (epoch day)
+    // 잠금 순서는 클래스 설명 참고 (객실 -> 예약)
+    private final StripedLocks roomLocks = new StripedLocks(64, "hotel.roomLockWait");
+    private final StripedLocks resLocks = new StripedLocks(64, "hotel.reservationLockWait");
+    // 타입별 빈 방 확인에 쓰는 대표 객실 (getAvailableRoomTypes)
+    private static final List<String> TYPE_SAMPLE_ROOMS = List.of("101", "201", "301");
     private static final int EXTRA_PERSON_FEE = 20000;
 
     private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
-    public HotelService(){
+    /**
+     * 서비스 생성 (서버 시작 시 한 번)
+     * - 생성자가 끝난 뒤에 예약 저장소의 객실 변경 리스너를 등록하고 자동 취소 스케줄러를 시작
+     *   (다 만들어지지 않은 객체가 리스너나 스케줄러 스레드에 보이지 않도록)
+     */
+    public static HotelService create() {
+        HotelService service = new HotelService();
+        service.start();
+        return service;
+    }
+
+    private HotelService(){
         this.roomRepo = new RoomRepository();
         this.resRepo = new ReservationRepository();
         this.payRepo = new PaymentRepository();
+        this.deltaDay = LocalDate.now().toEpochDay();
+        this.deltaFloor = getDashboardVersion();
+    }
+
+    private void start() {
+        resRepo.setRoomListener(this::roomChanged);
         startAutoCancelScheduler();
     }
     
+    /**
+     * 객실 현황(예약 상태, 청소, 객실 정보)이 바뀔 때마다 호출될 리스너 등록
+     * - 변경한 스레드에서 바로 호출되므로 리스너는 오래 걸리는 작업을 하면 안 됨
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /** 변경에 성공했으면 리스너에 알리고 결과를 그대로 반환 */
+    private boolean changed(boolean result) {
+        if (result) {
+            for (Runnable listener : changeListeners) listener.run();
+        }
+        return result;
+    }
+
+    /** 객실 목록 데이터 버전 (GET_AVAILABLE_ROOMS) */
+    public long getRoomVersion() {
+        return roomRepo.version();
+    }
+
+    /**
+     * 객실 현황 버전 (GET_DASHBOARD, CHECK_ALL_ROOM_STATUS)
+     * - 객실, 예약, 청소 상태 버전과 오늘 날짜의 합: 어느 하나가 바뀌면 커짐
+     * - 현황판의 청소 표시는 오늘 날짜에만 적용되므로 날짜가 바뀌어도 새 버전
+     */
+    public long getDashboardVersion() {
+        return roomRepo.version() + resRepo.version() + cleaningVersion.get() + LocalDate.now().toEpochDay();
+    }
+
+    /** 객실 1개의 현황이 바뀐 뒤(버전이 오른 뒤) 호출: 변경 기록에 현재 버전을 남김 */
+    private void roomChanged(String roomNum) {
+        roomChanges.merge(roomNum, getDashboardVersion(), Math::max);
+    }
+
+    /**
+     * 변경 기록으로 답할 수 있는 가장 오래된 기준 버전
+     * - 서버 시작 시점의 버전, 날짜가 바뀌면 그 시점의 버전 (청소 표시는 오늘 날짜에만 적용되므로)
+     */
+    private long deltaFloor() {
+        synchronized (roomChanges) {
+            long today = LocalDate.now().toEpochDay();
+            if (today != deltaDay) {
+                deltaDay = today;
+                deltaFloor = getDashboardVersion();
+            }
+            return deltaFloor;
+        }
+    }
+
     private void startAutoCancelScheduler() {
                 
         checkAndCancelUnpaidReservations();
@@ -58,9 +163,7 @@ public class HotelService {
     }
 
     public List<Reservation> getReservationsByName(String name) {
-        return resRepo.findAll().stream()
-                .filter(r -> r.getGuestName().equals(name))
-                .collect(Collectors.toList());
+        return resRepo.findByGuestName(name);
     }
 
     /**
@@ -115,14 +218,13 @@ public class HotelService {
 
     // 예약 가능한 방 타입 목록 반환
     public String getAvailableRoomTypes(String reqIn, String reqOut) {
-        synchronized (LOCK) {
+        try (StripedLocks.Held held = roomLocks.lock(TYPE_SAMPLE_ROOMS)) {
             List<String> availableTypes = new ArrayList<>();
-            List<Reservation> allRes = resRepo.findAll();
 
             // 각 타입의 대표 방번호로 가능여부 체크 
-            if (isRoomAvailable("101", reqIn, reqOut, allRes)) availableTypes.add("STD");
-            if (isRoomAvailable("201", reqIn, reqOut, allRes)) availableTypes.add("DLX");
-            if (isRoomAvailable("301", reqIn, reqOut, allRes)) availableTypes.add("STE");
+            if (isRoomAvailable("101", reqIn, reqOut)) availableTypes.add("STD");
+            if (isRoomAvailable("201", reqIn, reqOut)) availableTypes.add("DLX");
+            if (isRoomAvailable("301", reqIn, reqOut)) availableTypes.add("STE");
 
             return String.join(",", availableTypes);
         }
@@ -131,22 +233,17 @@ public class HotelService {
     public String getRoomStatusList(String reqIn, String reqOut) {
         StringBuilder sb = new StringBuilder("ROOM_STATUS_LIST:");
         List<Room> rooms = roomRepo.findAll();
-        List<Reservation> allRes = resRepo.findAll();
 
         for (Room r : rooms) {
             boolean isBooked = false;
             String status = "AVAILABLE";
 
-            // 예약 확인
-            for (Reservation res : allRes) {
-                if (res.getRoomNumber().equals(r.getRoomNumber())) {
-                    if ("CheckedOut".equals(res.getReservationStatus())) continue;
-                    if (isDateOverlapping(reqIn, reqOut, res.getCheckInDate(), res.getCheckOutDate())) {
-                        isBooked = true;
-                        status = "BOOKED";
-                        break;
-                    }
-                }
+            // 예약 확인 (숙박 기간 색인으로 기간이 겹치는 예약만)
+            for (Reservation res : resRepo.findByRoomOverlapping(r.getRoomNumber(), reqIn, reqOut)) {
+                if ("CheckedOut".equals(res.getReservationStatus())) continue;
+                isBooked = true;
+                status = "BOOKED";
+                break;
             }
 
             // 예약이 안 잡혀있다면 청소 상태 확인
@@ -158,22 +255,32 @@ public class HotelService {
                 }
             }
 
-            sb.append(String.format("%s,%s,%d,%d,%s,%s|", 
-                    r.getRoomNumber(), r.getType(), r.getPrice(), r.getCapacity(), r.getDescription(), status));
+            sb.append(r.getRoomNumber()).append(',').append(r.getType()).append(',').append(r.getPrice()).append(',')
+              .append(r.getCapacity()).append(',').append(r.getDescription()).append(',').append(status).append('|');
         }
         return sb.toString();
     }
 
     // [수정] 예약 + 결제 통합 메서드
-    public synchronized String createReservationWithPayment(
+    public String createReservationWithPayment(
+            String roomNum, String name, String reqIn, String reqOut, 
+            int guestNum, String phone, String request,
+            String cardNum, String cvc, String expiry, String cardPw) {
+        // 빈 방 확인부터 확정까지 이 객실의 다른 예약과 겹치지 않도록 객실 잠금 안에서
+        try (StripedLocks.Held held = roomLocks.lock(roomNum)) {
+            return reserveAndPay(roomNum, name, reqIn, reqOut, guestNum, phone, request, cardNum, cvc, expiry, cardPw);
+        }
+    }
+
+    // 객실 잠금을 가진 상태
+    private String reserveAndPay(
             String roomNum, String name, String reqIn, String reqOut, 
             int guestNum, String phone, String request,
             String cardNum, String cvc, String expiry, String cardPw) {
-        
         // 1. 방 확인 & 가용성 확인 (기존 동일)
         Room room = roomRepo.findByNumber(roomNum);
         if (room == null) return "FAIL:InvalidRoom";
-        if (!isRoomAvailable(roomNum, reqIn, reqOut, resRepo.findAll())) {
+        if (!isRoomAvailable(roomNum, reqIn, reqOut)) {
             return "FAIL:RoomNotAvailable";
         }
 
@@ -203,21 +310,32 @@ public class HotelService {
         
         boolean paySaved = payRepo.add(payment);
 
-        // 5. 결과 확인
-        if (paySaved) {
-            resRepo.updateStatus(resId, "Confirmed"); // 결제 성공 시 확정
-            return "SUCCESS:" + resId + ":" + totalAmount;
-        } else {
-            resRepo.delete(resId); // 실패 시 롤백
-            return "FAIL:PaymentSaveError";
+        // 5. 결과 확인 (새 예약번호도 잠가서 확정 전에 다른 요청이 바꾸지 않도록)
+        try (StripedLocks.Held held = resLocks.lock(resId)) {
+            if (paySaved) {
+                changed(resRepo.updateStatus(resId, "Confirmed")); // 결제 성공 시 확정
+                return "SUCCESS:" + resId + ":" + totalAmount;
+            } else {
+                resRepo.delete(resId); // 실패 시 롤백
+                return "FAIL:PaymentSaveError";
+            }
         }
     }
     
     public boolean cancelReservation(String resId) {
-        synchronized (LOCK) { return resRepo.delete(resId); }
+        try (StripedLocks.Held room = lockRoomOf(resId); StripedLocks.Held res = resLocks.lock(resId)) {
+            return changed(resRepo.delete(resId));
+        }
     }
 
-    public synchronized boolean processPayment(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
+    public boolean processPayment(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
+        try (StripedLocks.Held room = lockRoomOf(resId); StripedLocks.Held res = resLocks.lock(resId)) {
+            return pay(resId, method, cardNum, cvc, expiry, pw, amount);
+        }
+    }
+
+    // 예약의 객실 잠금과 예약 잠금을 가진 상태
+    private boolean pay(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
         String payId = "P-" + System.currentTimeMillis();
         String paymentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 
@@ -244,71 +362,100 @@ public class HotelService {
 
         if (paySaved) {
             // 결제 정보 저장 성공 시 -> 예약 상태를 'Confirmed'로 변경
-            return resRepo.updateStatus(resId, "Confirmed");
+            return changed(resRepo.updateStatus(resId, "Confirmed"));
         }
         return false;
     }
     
     public boolean checkIn(String resId){
-        synchronized (LOCK){
-            return resRepo.updateStatus(resId, "CheckedIn");
-        }
+        return checkIn(resId, ReservationRepository.ANY_VERSION).isUpdated();
+    }
+
+    /** 입실 (expectedVersion: 클라이언트가 읽은 예약 버전, ANY_VERSION이면 확인하지 않음) */
+    public ReservationUpdate checkIn(String resId, long expectedVersion){
+        return changeStatus(resId, "CheckedIn", expectedVersion);
     }
     
     public boolean checkOut(String resId){
-        synchronized(LOCK){
-            return resRepo.updateStatus(resId, "CheckedOut");
+        return checkOut(resId, ReservationRepository.ANY_VERSION).isUpdated();
+    }
+
+    /** 퇴실 (expectedVersion: 클라이언트가 읽은 예약 버전, ANY_VERSION이면 확인하지 않음) */
+    public ReservationUpdate checkOut(String resId, long expectedVersion){
+        return changeStatus(resId, "CheckedOut", expectedVersion);
+    }
+
+    // 상태 변경은 같은 객실의 빈 방 확인 결과를 바꿀 수 있으므로 객실 잠금 안에서
+    private ReservationUpdate changeStatus(String resId, String newStatus, long expectedVersion) {
+        try (StripedLocks.Held room = lockRoomOf(resId)) {
+            ReservationUpdate result = resRepo.updateStatus(resId, newStatus, expectedVersion);
+            changed(result.isUpdated());
+            return result;
         }
     }
+
+    /** 예약의 지금 버전 (없으면 -1) */
+    public long getReservationVersion(String resId) {
+        Reservation res = resRepo.findById(resId);
+        return (res == null) ? -1 : res.getVersion();
+    }
+
+    /**
+     * 예약이 있는 객실의 잠금 (예약이 없으면 아무것도 잡지 않음)
+     * - 예약의 객실번호는 바뀌지 않으므로 잠금 전에 읽어도 됨
+     */
+    private StripedLocks.Held lockRoomOf(String resId) {
+        Reservation res = resRepo.findById(resId);
+        return roomLocks.lock(res == null ? null : res.getRoomNumber());
+    }
     
 public List<String> getReservationsWithRoomInfo(String guestName){
-        List<Reservation> myReservations = resRepo.findAll().stream()
-                .filter(r -> r.getGuestName().equals(guestName))
-                .collect(Collectors.toList());
+        List<Reservation> myReservations = resRepo.findByGuestName(guestName);
 
         List<Room> allRooms = roomRepo.findAll();
         List<String> resultList = new ArrayList<>();
         
         for(Reservation res : myReservations){
-            // 기존 res.toString() (CSV 형태)
-            String resStr = res.toString(); 
-            String roomType = "Unknown";
-            int roomPrice = 0;
-            int roomCapacity = 2; // [추가] 기본값 설정
-
-            for (Room r : allRooms){
-                if(r.getRoomNumber().equals(res.getRoomNumber())){
-                    roomType = r.getType();
-                    roomPrice = r.getPrice();
-                    roomCapacity = r.getCapacity(); // [추가] 방 정원 가져오기
-                    break;
-                }
-            }
-            // [핵심 수정] 데이터 끝에 ",타입,가격,정원" 순서로 붙여서 전송
-            // 예: "...,Unpaid,타입,100000,2"
-            resultList.add(resStr + "," + roomType + "," + roomPrice + "," + roomCapacity);
+            resultList.add(withRoomInfo(res, allRooms));
         } 
         return resultList;
     }
-    
-    private boolean isRoomAvailable(String roomNum, String reqIn, String reqOut, List<Reservation> allRes) {
-        // 예약 겹침 확인
-        for (Reservation res : allRes) {
-            if (res.getRoomNumber().equals(roomNum)) {
-                // 체크아웃 된 건은 무시 (예약 가능)
-                if ("CheckedOut".equals(res.getReservationStatus())) continue;
 
-                if (isDateOverlapping(reqIn, reqOut, res.getCheckInDate(), res.getCheckOutDate())) {
-                    return false; // 겹침
-                }
+    /** 고객 이름으로 예약 목록 한 페이지 조회 (cursor부터 최대 max건, 행 형식은 getReservationsWithRoomInfo와 같음) */
+    public Slice<String> getReservationsWithRoomInfo(String guestName, long cursor, int max){
+        Slice<Reservation> page = Slice.of(resRepo.findByGuestName(guestName), cursor, max);
+        List<Room> allRooms = roomRepo.findAll();
+        return page.map(res -> withRoomInfo(res, allRooms));
+    }
+
+    private String withRoomInfo(Reservation res, List<Room> allRooms){
+        // 기존 res.toString() (CSV 형태)
+        String resStr = res.toString(); 
+        String roomType = "Unknown";
+        int roomPrice = 0;
+        int roomCapacity = 2; // [추가] 기본값 설정
+
+        for (Room r : allRooms){
+            if(r.getRoomNumber().equals(res.getRoomNumber())){
+                roomType = r.getType();
+                roomPrice = r.getPrice();
+                roomCapacity = r.getCapacity(); // [추가] 방 정원 가져오기
+                break;
             }
         }
-        return true;
+        // [핵심 수정] 데이터 끝에 ",타입,가격,정원" 순서로 붙여서 전송
+        // 예: "...,Unpaid,타입,100000,2"
+        return resStr + "," + roomType + "," + roomPrice + "," + roomCapacity;
     }
-
-    private boolean isDateOverlapping(String reqIn, String reqOut, String existIn, String existOut) {
-        // (요청 시작 < 기존 종료) AND (요청 종료 > 기존 시작)
-        return (reqIn.compareTo(existOut) < 0) && (reqOut.compareTo(existIn) > 0);
+    
+    private boolean isRoomAvailable(String roomNum, String reqIn, String reqOut) {
+        // 예약 겹침 확인 (숙박 기간 색인으로 기간이 겹치는 예약만)
+        for (Reservation res : resRepo.findByRoomOverlapping(roomNum, reqIn, reqOut)) {
+            // 체크아웃 된 건은 무시 (예약 가능)
+            if ("CheckedOut".equals(res.getReservationStatus())) continue;
+            return false; // 겹침
+        }
+        return true;
     }
 
     private String convertCodeToType(String code) {
@@ -331,25 +478,29 @@ public List<String> getReservationsWithRoomInfo(String guestName){
         
         // 중복 실행 방지를 위해 Runnable 작업 정의
         scheduler.scheduleAtFixedRate(() -> {
-            synchronized (LOCK) { 
-                System.out.println("[System] 18:00 미보장 예약 자동취소 점검 시작");
-                checkAndCancelUnpaidReservations();
-            }
+            Log.info("18:00 미보장 예약 자동취소 점검 시작");
+            checkAndCancelUnpaidReservations(); // 예약마다 그 예약의 잠금 안에서 확인 후 취소
         }, initialDelay, oneDayInSeconds, TimeUnit.SECONDS);
     }
     
-    public synchronized String toggleCleaningStatus(String roomNum) {
-        if (cleaningRooms.contains(roomNum)) {
-            cleaningRooms.remove(roomNum); // 있으면 끄고
-        } else {
-            cleaningRooms.add(roomNum);    // 없으면 킴
+    public String toggleCleaningStatus(String roomNum) {
+        try (StripedLocks.Held held = roomLocks.lock(roomNum)) {
+            if (cleaningRooms.contains(roomNum)) {
+                cleaningRooms.remove(roomNum); // 있으면 끄고
+            } else {
+                cleaningRooms.add(roomNum);    // 없으면 킴
+            }
+            cleaningVersion.incrementAndGet();
+            roomChanged(roomNum);
+            changed(true);
+            return "SUCCESS";
         }
-        return "SUCCESS";
     }
     
     private void checkAndCancelUnpaidReservations() {
         List<Reservation> all = resRepo.findAll();
         LocalDateTime now = LocalDateTime.now();
+        boolean cancelled = false;
 
         for (Reservation r : all) {
             if (!"Unpaid".equals(r.getReservationStatus())) continue;
@@ -367,32 +518,40 @@ public List<String> getReservationsWithRoomInfo(String guestName){
                     deadline = createdAt.plusDays(1).toLocalDate().atTime(18, 0, 0);
                 }
 
-                // 현재 시간이 마감 시간을 지났으면 삭제
+                // 현재 시간이 마감 시간을 지났으면 삭제 (잠금 안에서 그사이 결제되지 않았는지 다시 확인)
                 if (now.isAfter(deadline)) {
-                    System.out.println("[자동취소] 기한 만료! ID: " + r.getReservationId() + 
-                            " (생성: " + r.getCreatedAt() + " / 마감: " + deadline + ")");
-                    resRepo.delete(r.getReservationId());
+                    cancelled |= cancelIfUnpaid(r, deadline);
                 }
 
             } catch (Exception e) {
-                System.out.println("날짜 파싱 오류 (ID: " + r.getReservationId() + "): " + e.getMessage());
+                Log.warn("날짜 파싱 오류 (ID: " + r.getReservationId() + "): " + e.getMessage());
             }
         }
+        changed(cancelled);
     }   
     
+    private boolean cancelIfUnpaid(Reservation r, LocalDateTime deadline) {
+        String resId = r.getReservationId();
+        try (StripedLocks.Held room = roomLocks.lock(r.getRoomNumber()); StripedLocks.Held res = resLocks.lock(resId)) {
+            Reservation current = resRepo.findById(resId);
+            if (current == null || !"Unpaid".equals(current.getReservationStatus())) return false;
+            Log.info("[자동취소] 기한 만료! ID: " + resId + 
+                    " (생성: " + r.getCreatedAt() + " / 마감: " + deadline + ")");
+            return resRepo.delete(resId);
+        }
+    }
+    
     // 예약 생성
     public String createReservationByRoomNum(String roomNum, String name, String reqIn, String reqOut, int guestNum, String phone, String request) {
-        synchronized (LOCK) {
+        try (StripedLocks.Held held = roomLocks.lock(roomNum)) {
             // 1. 해당 방 번호가 실존하는지 확인
             Room room = roomRepo.findByNumber(roomNum);
             if (room == null) return null; // 없는 방
-            List<Reservation> allRes = resRepo.findAll();
-            
-            if (isRoomAvailable(roomNum, reqIn, reqOut, allRes)) {
+            if (isRoomAvailable(roomNum, reqIn, reqOut)) {
                 // 3. 예약 저장
                 String nowStr = LocalDateTime.now().format(formatter);
                 String resId = resRepo.add(roomNum, name, reqIn, reqOut, guestNum, phone, nowStr, request);
-                return (resId != null) ? roomNum : null;
+                return changed(resId != null) ? roomNum : null;
             }
             return null; // 이미 예약됨
         }
@@ -400,10 +559,44 @@ public List<String> getReservationsWithRoomInfo(String guestName){
     
     public String getRoomDashboard(String targetDate) {
         StringBuilder sb = new StringBuilder("DASHBOARD_LIST:");
+        for (DashboardRow row : getRoomDashboardRows(targetDate)) {
+            sb.append(row).append('|');
+        }
+        return sb.toString();
+    }
+
+    /** 조회일 기준 객실 현황 (객실마다 1행, 텍스트/바이너리 응답이 공통으로 사용) */
+    public List<DashboardRow> getRoomDashboardRows(String targetDate) {
+        return dashboardRows(targetDate, null);
+    }
+
+    /**
+     * 기준 버전 이후에 바뀐 객실의 현황 행만 반환 (GET_DASHBOARD_DELTA)
+     * - 바뀐 객실은 메모리의 변경 기록만 보고 고르며, 바뀐 객실이 없으면 파일을 읽지 않음
+     * - 기준 버전이 서버 시작(또는 날짜 변경) 이전이거나 현재보다 크면 전체 행
+     * - 기준 버전과 같은 시점에 바뀐 객실도 포함 (버전이 오른 뒤 기록되기 전에 조회된 경우를 놓치지 않도록,
+     *   같은 행을 한 번 더 받는 것은 무해)
+     */
+    public DashboardDelta getRoomDashboardDelta(String targetDate, long sinceVersion) {
+        long version = getDashboardVersion();
+        if (sinceVersion < deltaFloor() || sinceVersion > version) {
+            return new DashboardDelta(version, true, dashboardRows(targetDate, null));
+        }
+        Set<String> changedRooms = new HashSet<>();
+        for (Map.Entry<String, Long> e : roomChanges.entrySet()) {
+            if (e.getValue() >= sinceVersion) changedRooms.add(e.getKey());
+        }
+        List<DashboardRow> rows = changedRooms.isEmpty() ? List.of() : dashboardRows(targetDate, changedRooms);
+        return new DashboardDelta(version, false, rows);
+    }
+
+    // onlyRooms가 null이면 모든 객실
+    private List<DashboardRow> dashboardRows(String targetDate, Set<String> onlyRooms) {
         List<Room> rooms = roomRepo.findAll();
-        List<Reservation> reservations = resRepo.findAll();
         String today = LocalDate.now().toString();
+        List<DashboardRow> rows = new ArrayList<>(onlyRooms == null ? rooms.size() : onlyRooms.size());
         for (Room r : rooms) {
+            if (onlyRooms != null && !onlyRooms.contains(r.getRoomNumber())) continue;
             String status = "Empty";
             String guestName = "-";
             String resId = "-";
@@ -411,63 +604,81 @@ public List<String> getReservationsWithRoomInfo(String guestName){
             String phone = "-";
             String inDate = "-"; 
             String outDate = "-";
-            String note = r.getDescription();
             String detail = "-";
 
-            // 예약 확인
-            for (Reservation res : reservations) {
-                if (res.getRoomNumber().equals(r.getRoomNumber())) {
-                    // 날짜 범위 확인: 입실일 <= 조회일 < 퇴실일
-                    // (퇴실일 당일은 아직 체크아웃 전이라도, 숙박의 관점에서는 오후에 빈 방이 됨)
-                    if (isDateIncluded(targetDate, res.getCheckInDate(), res.getCheckOutDate())
-                            && targetDate.compareTo(res.getCheckOutDate()) < 0) {
-
-                        status = res.getReservationStatus();
-                        guestName = res.getGuestName();
-                        resId = res.getReservationId();
-                        guestNum = res.getGuestNum();
-                        phone = res.getPhoneNumber();
-                        inDate = res.getCheckInDate();
-                        outDate = res.getCheckOutDate();
-                        detail = res.getCustomerRequest(); // 요청사항
-                        break;
-                    }
-                }
+            // 예약 확인: 입실일 <= 조회일 < 퇴실일 (숙박 기간 색인, 여러 건이면 파일 순서로 첫 건)
+            // (퇴실일 당일은 아직 체크아웃 전이라도, 숙박의 관점에서는 오후에 빈 방이 됨)
+            List<Reservation> staying = resRepo.findByRoomStaying(r.getRoomNumber(), targetDate);
+            if (!staying.isEmpty()) {
+                Reservation res = staying.get(0);
+                status = res.getReservationStatus();
+                guestName = res.getGuestName();
+                resId = res.getReservationId();
+                guestNum = res.getGuestNum();
+                phone = res.getPhoneNumber();
+                inDate = res.getCheckInDate();
+                outDate = res.getCheckOutDate();
+                detail = res.getCustomerRequest(); // 요청사항
             }
             
             if (targetDate.equals(today) && cleaningRooms.contains(r.getRoomNumber())) {
                 status = "Cleaning"; 
             }
             
-            sb.append(String.format("%s,%s,%d,%s,%s,%s,%d,%s,%s,%s,%s,%s|", 
-                    r.getRoomNumber(), r.getType(), r.getPrice(), status, guestName, 
-                    resId, guestNum, phone, inDate, outDate, note, detail));
+            rows.add(new DashboardRow(r, status, guestName, resId, guestNum, phone, inDate, outDate, detail));
         }
-        return sb.toString();
+        return rows;
     }
     
     public boolean addRoom(String num, String type, int price, int cap, String desc) {
-        return roomRepo.add(new Room(num, type, price, cap, desc));
+        try (StripedLocks.Held held = roomLocks.lock(num)) {
+            boolean ok = roomRepo.add(new Room(num, type, price, cap, desc));
+            if (ok) roomChanged(num);
+            return changed(ok);
+        }
     }
 
     public boolean updateRoom(String num, String type, int price, int cap, String desc) {
-        return roomRepo.update(new Room(num, type, price, cap, desc));
-    }
-    
-    private boolean isDateIncluded(String target, String start, String end) {
-        return target.compareTo(start) >= 0 && target.compareTo(end) <= 0;
+        // 가격/정원이 바뀌는 동안 같은 객실의 예약 금액 계산이 섞이지 않도록
+        try (StripedLocks.Held held = roomLocks.lock(num)) {
+            boolean ok = roomRepo.update(new Room(num, type, price, cap, desc));
+            if (ok) roomChanged(num);
+            return changed(ok);
+        }
     }
     
     public boolean updateReservationRequest(String resId, String newRequest) {
-        synchronized (LOCK) {
-            return resRepo.updateRequest(resId, newRequest);
-        }
+        return updateReservationRequest(resId, newRequest, ReservationRepository.ANY_VERSION).isUpdated();
+    }
+
+    /** 요청사항 변경 (잠금 없음, expectedVersion: 클라이언트가 읽은 예약 버전, ANY_VERSION이면 확인하지 않음) */
+    public ReservationUpdate updateReservationRequest(String resId, String newRequest, long expectedVersion) {
+        ReservationUpdate result = resRepo.updateRequest(resId, newRequest, expectedVersion);
+        changed(result.isUpdated());
+        return result;
     }
     
     public boolean updateReservationStatus(String resId, String newStatus) {
-        synchronized (LOCK) {
-            return resRepo.updateStatus(resId, newStatus);
+        return updateReservationStatus(resId, newStatus, ReservationRepository.ANY_VERSION).isUpdated();
+    }
+
+    /** 상태 변경 (expectedVersion: 클라이언트가 읽은 예약 버전, ANY_VERSION이면 확인하지 않음) */
+    public ReservationUpdate updateReservationStatus(String resId, String newStatus, long expectedVersion) {
+        return changeStatus(resId, newStatus, expectedVersion);
+    }
+    
+    /**
+     * 여러 예약 변경을 예약 저장소 잠금 1회, 파일 쓰기 1회로 묶어 실행 (BATCH 명령)
+     * - 저장소 잠금을 가진 채 하위 명령이 서비스 잠금을 잡으면 잠금 순서가 뒤집히므로, 모든 서비스 잠금을 먼저 잡음
+     * @return 로그 쓰기에 실패해 변경을 모두 되돌렸으면 false
+     */
+    public boolean runReservationBatch(Runnable body) {
+        boolean written;
+        try (StripedLocks.Held rooms = roomLocks.lockAll(); StripedLocks.Held reservations = resLocks.lockAll()) {
+            written = resRepo.runBatch(body);
         }
+        changed(true);
+        return written;
     }
     
     public ReservationRepository getReservationRepository(){
@@ -0,0 +1,143 @@
+package server.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import server.model.Menu;
+
+/**
+ *  메뉴 목록과 재고 (MenuService 내부용)
+ *  - 메뉴 목록은 메모리에 두고, 재고만 메뉴마다 AtomicInteger로 셈 -> 주문은 파일을 읽거나 잠금을 잡지 않음
+ *  - take: 주문 한 건의 음식을 모두 차감하거나 하나도 차감하지 않음
+ *    메뉴 ID 순으로 CAS 차감하다가 모자란 메뉴가 나오면 이미 뺀 만큼 되돌림
+ *    (되돌리기 전의 짧은 사이에 다른 주문이 재고 부족으로 실패할 수는 있지만, 재고가 음수가 되거나 어긋나지는 않음)
+ *  - 메뉴 추가/수정/삭제는 목록을 새로 만들어 바꿔 끼움 (MenuService 모니터 안에서만, 드묾)
+ *  - 판매 여부는 관리자가 정한 값이면서 재고가 남아 있어야 true (주문으로 재고가 0이 되면 판매중지로 보임)
+ * @author user
+ */
+final class MenuInventory {
+
+    /** 메뉴 1개: 재고만 바뀌고 나머지를 고치면 새 Item으로 바꿔 끼움 */
+    static final class Item {
+        final String menuId;
+        final String name;
+        final int price;
+        final String category;
+        final boolean available;    // 관리자가 정한 판매 여부
+        final AtomicInteger stock;
+
+        Item(String menuId, String name, int price, String category, boolean available, int stock) {
+            this.menuId = menuId;
+            this.name = name;
+            this.price = price;
+            this.category = category;
+            this.available = available;
+            this.stock = new AtomicInteger(stock);
+        }
+
+        Item(Menu menu) {
+            this(menu.getMenuId(), menu.getName(), menu.getPrice(), menu.getCategory(), menu.getIsAvailable(), menu.getStock());
+        }
+
+        /** 재고가 count 이상이면 차감 */
+        private boolean take(int count) {
+            while (true) {
+                int current = stock.get();
+                if (current < count) return false;
+                if (stock.compareAndSet(current, current - count)) return true;
+            }
+        }
+
+        Menu toMenu() {
+            int left = stock.get();
+            return new Menu(menuId, name, price, category, available && left > 0, left);
+        }
+    }
+
+    private static final Comparator<Item> BY_ID = Comparator.comparing(item -> item.menuId);
+
+    private volatile List<Item> items = List.of();          // 파일 순서
+    private volatile Map<String, Item> byName = Map.of();   // 이름 -> 같은 이름 중 첫 메뉴 (주문은 음식 이름으로 들어옴)
+
+    MenuInventory(List<Menu> menus) {
+        List<Item> loaded = new ArrayList<>(menus.size());
+        for (Menu menu : menus) loaded.add(new Item(menu));
+        replace(loaded);
+    }
+
+    /** 지금 목록 (수정할 수 없는 목록) */
+    List<Item> items() {
+        return items;
+    }
+
+    Item find(String menuId) {
+        for (Item item : items) {
+            if (item.menuId.equals(menuId)) return item;
+        }
+        return null;
+    }
+
+    /** 목록을 바꿔 끼움 (MenuService 모니터 안에서) */
+    void replace(List<Item> updated) {
+        Map<String, Item> index = new HashMap<>();
+        for (Item item : updated) index.putIfAbsent(item.name, item);
+        byName = index;
+        items = Collections.unmodifiableList(new ArrayList<>(updated));
+    }
+
+    /** 지금 재고를 담은 메뉴 목록 (새 객체, 파일 순서) */
+    List<Menu> menus() {
+        List<Item> current = items;
+        List<Menu> menus = new ArrayList<>(current.size());
+        for (Item item : current) menus.add(item.toMenu());
+        return menus;
+    }
+
+    /**
+     * 음식 이름마다 재고 1개씩 차감 (전부 또는 하나도 안 함)
+     * - 같은 음식이 여러 번 있으면 그 수만큼 한 번에 차감
+     * - 메뉴 ID 순으로 차감: 서로 같은 메뉴들을 주문하는 두 주문이 서로의 차감 때문에 함께 실패하는 일을 줄임
+     */
+    MenuService.StockResult take(List<String> foodNames) {
+        Map<String, Item> index = byName;
+        Map<Item, Integer> wanted = new IdentityHashMap<>();
+        for (String food : foodNames) {
+            Item item = index.get(food);
+            if (item == null) return MenuService.StockResult.UNKNOWN_MENU;
+            wanted.merge(item, 1, Integer::sum);
+        }
+        List<Item> order = new ArrayList<>(wanted.keySet());
+        order.sort(BY_ID);
+        int taken = 0;
+        while (taken < order.size()) {
+            Item item = order.get(taken);
+            if (!item.take(wanted.get(item))) break;
+            taken++;
+        }
+        if (taken == order.size()) return MenuService.StockResult.TAKEN;
+        // 모자란 메뉴가 있으면 앞서 뺀 재고를 되돌림
+        for (int i = 0; i < taken; i++) {
+            Item item = order.get(i);
+            item.stock.addAndGet(wanted.get(item));
+        }
+        return MenuService.StockResult.OUT_OF_STOCK;
+    }
+
+    /**
+     * take로 차감한 재고를 되돌림 (주문을 저장하지 못했을 때)
+     * - 지금 목록에서 이름으로 찾으므로, 그 사이 삭제된 메뉴는 건너뜀
+     */
+    void giveBack(List<String> foodNames) {
+        Map<String, Item> index = byName;
+        for (String food : foodNames) {
+            Item item = index.get(food);
+            if (item != null) item.stock.incrementAndGet();
+        }
+    }
+}
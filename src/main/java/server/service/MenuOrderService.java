@@ -2,7 +2,10 @@ package server.service;
 
 import server.model.MenuOrder;
 import server.repository.MenuOrderRepository;
+import server.repository.Slice;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class MenuOrderService {
     private final MenuOrderRepository orderRepository;
@@ -11,11 +14,28 @@ public class MenuOrderService {
         this.orderRepository = new MenuOrderRepository();
     }
 
-    public synchronized List<MenuOrder> getAllOrders() {
+    // 저장소가 스스로 동기화하므로 여기서는 잠그지 않음 (조회는 사본에서 잠금 없이, 저장은 묶음 fsync)
+    public List<MenuOrder> getAllOrders() {
         return orderRepository.findAll();
     }
 
-    public synchronized void saveOrder(MenuOrder order) {
-        orderRepository.save(order);
+    /** first~last(포함) 날짜의 주문 (그 기간의 월별 파일만 읽음, 보고서용) */
+    public List<MenuOrder> getOrdersBetween(LocalDate first, LocalDate last) {
+        return orderRepository.findBetween(first, last);
+    }
+
+    /** 조건에 맞는 주문 내역 한 페이지 (cursor부터 최대 max건) */
+    public Slice<MenuOrder> getOrders(long cursor, int max, Predicate<MenuOrder> filter) {
+        return orderRepository.scan(cursor, max, filter);
+    }
+
+    /** first~last 날짜와 겹치는 달의 주문에서만 한 페이지 (날짜 조건은 filter에도 넣어야 함) */
+    public Slice<MenuOrder> getOrders(long cursor, int max, LocalDate first, LocalDate last, Predicate<MenuOrder> filter) {
+        return orderRepository.scan(cursor, max, first, last, filter);
+    }
+
+    /** 주문 저장 (파일에 덧붙이지 못했으면 false) */
+    public boolean saveOrder(MenuOrder order) {
+        return orderRepository.save(order);
     }
 }
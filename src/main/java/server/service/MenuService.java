@@ -3,15 +3,94 @@ package server.service;
 import server.model.Menu;
 import server.repository.MenuRepository;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional; // NullPointerException 방지 (null값을 참조해도 NPE가 발생하지 않도록)
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ *  식음료 메뉴와 재고
+ *  - 메뉴는 시작할 때 한 번 읽어 메모리(MenuInventory)에 두고, 조회와 주문은 파일을 읽지 않음
+ *  - 주문의 재고 차감(takeStock)은 잠금 없이 메뉴별 재고 카운터로: 모두 차감하거나 하나도 차감하지 않음
+ *  - 재고 변경은 FLUSH_DELAY_MS 뒤에 메뉴 파일에 한 번에 씀 (그 사이의 주문은 모아서 한 번)
+ *    서버가 비정상 종료되면 마지막 FLUSH_DELAY_MS 동안의 재고 차감만 파일에 빠질 수 있음 (주문 기록은 남음)
+ *  - 메뉴 추가/수정/삭제는 이 객체의 모니터 안에서 바로 파일에 씀
+ * @author user
+ */
 public class MenuService {
+
+    /** 주문의 재고 차감 결과 */
+    public enum StockResult { TAKEN, OUT_OF_STOCK, UNKNOWN_MENU }
+
+    private static final long FLUSH_DELAY_MS = 200;
+
     // MenuRepository를 주입받아 데이터에 접근
     private final MenuRepository menuRepository;
+    private final MenuInventory inventory;
+    // 메뉴 데이터 버전: 재고나 메뉴가 바뀔 때마다 증가 (파일 쓰기를 기다리지 않음)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final ScheduledExecutorService stockWriter = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("menu-stock-writer").daemon(true).factory());
     
     public MenuService() {
         this.menuRepository = new MenuRepository(); // menuservice 생성과 동시에 리포지토리 객체 생성
+        this.inventory = new MenuInventory(menuRepository.findAll());
+        // 정상 종료 때는 아직 쓰지 않은 재고를 씀
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushStock, "menu-stock-flush"));
+    }
+
+    /** 메뉴 데이터 버전 (메뉴나 재고가 바뀔 때마다 증가) */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 주문 음식의 재고 차감 (음식 이름마다 1개, 모두 차감하거나 하나도 차감하지 않음)
+     * - 하나라도 재고가 모자라거나 없는 메뉴면 아무것도 바꾸지 않음
+     * - 차감한 재고는 잠시 뒤 파일에 씀
+     * @param foodNames 주문한 음식 이름 (같은 음식이 여러 번 있어도 됨)
+     */
+    public StockResult takeStock(List<String> foodNames) {
+        StockResult result = inventory.take(foodNames);
+        if (result == StockResult.TAKEN) stockChanged();
+        return result;
+    }
+
+    /**
+     * takeStock으로 차감한 재고를 되돌림 (주문을 저장하지 못했을 때)
+     * @param foodNames takeStock에 넘겼던 음식 이름
+     */
+    public void returnStock(List<String> foodNames) {
+        inventory.giveBack(foodNames);
+        stockChanged();
+    }
+
+    // 재고가 바뀜: 버전을 올리고 잠시 뒤 파일에 쓰도록 예약 (이미 예약되어 있으면 함께 기록)
+    private void stockChanged() {
+        version.incrementAndGet();
+        if (flushPending.compareAndSet(false, true)) {
+            stockWriter.schedule(this::flushStock, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 쓰지 않은 재고 변경이 있으면 메뉴 파일을 씀 (쓰는 도중의 차감은 다음 쓰기로)
+    private void flushStock() {
+        if (!flushPending.getAndSet(false)) return;
+        synchronized (this) {
+            menuRepository.saveAll(inventory.menus());
+        }
+    }
+
+    // 메뉴 목록을 바꾸고 파일에 씀 (이 객체의 모니터 안에서, 쓰기를 기다리던 재고 변경도 함께 기록)
+    private void write(List<MenuInventory.Item> items) {
+        inventory.replace(items);
+        version.incrementAndGet();
+        flushPending.set(false);
+        menuRepository.saveAll(inventory.menus());
     }
     
     /**
@@ -24,10 +103,13 @@ public class MenuService {
      * @return 등록되었는가?
      */
     public synchronized boolean AddMenu(String menuId, String name, int price, String category, boolean isAvailable, int stock) {
-        Menu newMenu = new Menu(menuId, name, price, category, isAvailable, stock);
-        newMenu.setIsAvailable(isAvailable);
-        newMenu.setStock(stock);
-        return menuRepository.save(newMenu);
+        if (inventory.find(menuId) != null) {
+            return false; // ID 중복
+        }
+        List<MenuInventory.Item> items = new ArrayList<>(inventory.items());
+        items.add(new MenuInventory.Item(menuId, name, price, category, isAvailable, stock));
+        write(items);
+        return true;
     }
     
     /**
@@ -41,20 +123,12 @@ public class MenuService {
      */
     
     public synchronized boolean updateMenu(String menuId, String name, int price, String category, boolean isAvailable, int stock) {
-        Optional<Menu> menuOptional = menuRepository.findById(menuId);
-        if (menuOptional.isPresent()) {
-            Menu updatingMenu = menuOptional.get();
-            updatingMenu.setName(name);
-            updatingMenu.setPrice(price);
-            updatingMenu.setCategory(category);
-            updatingMenu.setIsAvailable(isAvailable);
+        MenuInventory.Item current = inventory.find(menuId);
+        if (current != null) {
+            List<MenuInventory.Item> items = new ArrayList<>(inventory.items());
             // 판매중지로 바꾸면 재고는 0으로 자동 변경
-            if (!isAvailable) {
-                updatingMenu.setStock(0);
-            } else {
-                updatingMenu.setStock(stock);
-            }
-            menuRepository.update(updatingMenu);
+            items.set(items.indexOf(current), new MenuInventory.Item(menuId, name, price, category, isAvailable, isAvailable ? stock : 0));
+            write(items);
             return true;
         }
         return false;
@@ -66,24 +140,24 @@ public class MenuService {
      * @return 삭제되었는가?
      */
     public synchronized boolean deleteMenu(String menuId) {
-        // Menu Optional 리스트 중 삭제할 menuId 탐색
-        Optional<Menu> menuToDelete = menuRepository.findById(menuId);
+        // 삭제할 menuId 탐색
+        MenuInventory.Item menuToDelete = inventory.find(menuId);
         
-        if (menuToDelete.isPresent()) {
-            // 리포지토리에서 delete 메서드 반환(호출)
-            return menuRepository.delete(menuId);
+        if (menuToDelete != null) {
+            List<MenuInventory.Item> items = new ArrayList<>(inventory.items());
+            items.remove(menuToDelete);
+            write(items);
+            return true;
         }
         return false; // 메뉴를 찾지 못함
     }
     
     /**
-     * 메뉴 목록 조회
+     * 메뉴 목록 조회 (지금 재고, 파일을 읽지 않음)
      * @return 모든 메뉴 List
      */
     
-    public synchronized List<Menu> getAllMenus() {
-        return menuRepository.findAll();
+    public List<Menu> getAllMenus() {
+        return inventory.menus();
     }
 }
-
-
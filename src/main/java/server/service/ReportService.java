@@ -1,5 +1,6 @@
 package server.service;
 
+import server.model.MenuOrder;
 import server.model.Reservation;
 import server.model.Room;
 import server.repository.ReservationRepository;
@@ -11,6 +12,8 @@ import java.util.*;
  * 통계 및 보고서 서비스
  * - RoomRepository, ReservationRepository, MenuOrderService를 주입받아 사용
  * - ServerMain에서 1회 생성되어 공유됨
+ * - 잠금 없음: 보고서 하나는 저장소의 읽기 전용 사본(snapshot)을 한 번 받아 그 시점의 데이터로만 계산
+ *   -> 보고서끼리, 그리고 예약/주문 쓰기와 서로 기다리지 않음
  */
 public class ReportService {
 
@@ -40,9 +43,11 @@ public class ReportService {
      * @param end 종료일 (yyyy-MM-dd)
      * @return Map<String, Object>: { "averageSales": double, "salesTable": List<Map<String, Object>> }
      */
-    public synchronized Map<String, Object> getMenuSalesByDateRange(String start, String end) {
-        double averageSales = getAverageMenuSalesByDateRange(start, end);
-        List<Map<String, Object>> salesTable = getMenuSalesTableByDateRange(start, end);
+    public Map<String, Object> getMenuSalesByDateRange(String start, String end) {
+        // 평균과 표를 같은 시점의 주문으로 계산 (기간에 걸친 달의 주문만 읽음)
+        Map<LocalDate, List<MenuOrder>> ordersByDate = getMenuOrdersByDate(start, end);
+        double averageSales = averageSales(totalSales(ordersByDate), start, end);
+        List<Map<String, Object>> salesTable = salesTable(ordersByDate, start, end);
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("averageSales", averageSales);
         result.put("salesTable", salesTable);
@@ -58,10 +63,21 @@ public class ReportService {
      * <p>
      * @return Map<LocalDate, List<MenuOrder>> : 날짜별 주문 리스트
      */
-    public synchronized Map<LocalDate, List<server.model.MenuOrder>> getMenuOrdersByDate() {
+    public Map<LocalDate, List<server.model.MenuOrder>> getMenuOrdersByDate() {
         // [수정] 내부에서 new 하지 않고, 생성자에서 주입받은 객체 사용
-        List<server.model.MenuOrder> allOrders = menuOrderService.getAllOrders();
-        
+        return groupByDate(menuOrderService.getAllOrders());
+    }
+
+    /**
+     * start~end(포함) 날짜의 주문만 날짜별로 분류 (그 기간에 걸친 달의 주문 파일만 읽음)
+     * @param start 시작일 (yyyy-MM-dd)
+     * @param end 종료일 (yyyy-MM-dd)
+     */
+    public Map<LocalDate, List<MenuOrder>> getMenuOrdersByDate(String start, String end) {
+        return groupByDate(menuOrderService.getOrdersBetween(LocalDate.parse(start), LocalDate.parse(end)));
+    }
+
+    private static Map<LocalDate, List<MenuOrder>> groupByDate(List<MenuOrder> allOrders) {
         Map<LocalDate, List<server.model.MenuOrder>> ordersByDate = new LinkedHashMap<>();
         for (server.model.MenuOrder order : allOrders) {
             LocalDate date = order.getOrderTime().toLocalDate();
@@ -80,8 +96,11 @@ public class ReportService {
      * <p>
      * @return Map<LocalDate, Map<메뉴명, 판매수>>
      */
-    public synchronized Map<LocalDate, Map<String, Integer>> getMenuSalesCountByDate() {
-        Map<LocalDate, List<server.model.MenuOrder>> ordersByDate = getMenuOrdersByDate();
+    public Map<LocalDate, Map<String, Integer>> getMenuSalesCountByDate() {
+        return salesCount(getMenuOrdersByDate());
+    }
+
+    private static Map<LocalDate, Map<String, Integer>> salesCount(Map<LocalDate, List<MenuOrder>> ordersByDate) {
         Map<LocalDate, Map<String, Integer>> salesByDate = new LinkedHashMap<>();
         for (Map.Entry<LocalDate, List<server.model.MenuOrder>> entry : ordersByDate.entrySet()) {
             LocalDate date = entry.getKey();
@@ -105,8 +124,11 @@ public class ReportService {
      * <p>
      * @return Map<LocalDate, Integer> : 날짜별 매출 합계
      */
-    public synchronized Map<LocalDate, Integer> getMenuTotalSalesByDate() {
-        Map<LocalDate, List<server.model.MenuOrder>> ordersByDate = getMenuOrdersByDate();
+    public Map<LocalDate, Integer> getMenuTotalSalesByDate() {
+        return totalSales(getMenuOrdersByDate());
+    }
+
+    private static Map<LocalDate, Integer> totalSales(Map<LocalDate, List<MenuOrder>> ordersByDate) {
         Map<LocalDate, Integer> totalSalesByDate = new LinkedHashMap<>();
         for (Map.Entry<LocalDate, List<server.model.MenuOrder>> entry : ordersByDate.entrySet()) {
             int sum = 0;
@@ -122,7 +144,7 @@ public class ReportService {
     /**
      * 지정한 기간(시작~종료) 동안의 일별 매출 합계의 평균을 계산합니다.
      * <p>
-     * - getMenuTotalSalesByDate()로 날짜별 매출 합계를 가져옵니다.
+     * - getMenuOrdersByDate(start, end)로 기간 안의 날짜별 매출 합계를 구합니다.
      * - 시작~종료 날짜 구간의 매출만 추출하여 합산 후, 영업일 수로 나눕니다.
      * - 매출 데이터가 없는 날은 0으로 간주하지 않고, 해당 날짜는 평균 계산에서 제외합니다.
      *
@@ -130,10 +152,13 @@ public class ReportService {
      * @param end 종료일 (yyyy-MM-dd)
      * @return double: 지정 기간 내 평균 매출 (소수점 2자리)
      */
-    public synchronized double getAverageMenuSalesByDateRange(String start, String end) {
+    public double getAverageMenuSalesByDateRange(String start, String end) {
+        return averageSales(totalSales(getMenuOrdersByDate(start, end)), start, end);
+    }
+
+    private static double averageSales(Map<LocalDate, Integer> salesByDate, String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        Map<LocalDate, Integer> salesByDate = getMenuTotalSalesByDate();
         int sum = 0;
         int count = 0;
         for (Map.Entry<LocalDate, Integer> entry : salesByDate.entrySet()) {
@@ -150,18 +175,22 @@ public class ReportService {
     /**
      * 지정한 기간(시작~종료) 동안 날짜별로 (1) 매출 합계, (2) 최다판매메뉴를 표 형태로 반환합니다.
      * <p>
-     * - getMenuTotalSalesByDate(), getMenuSalesCountByDate() 활용
+     * - getMenuOrdersByDate(start, end)의 날짜별 주문으로 매출 합계와 판매량을 구함
      * - 각 날짜별로 매출 합계와 최다판매메뉴(동률이면 아무거나)를 구해 리스트에 담아 반환
      *
      * @param start 시작일 (yyyy-MM-dd)
      * @param end 종료일 (yyyy-MM-dd)
      * @return List<Map<String, Object>>: 각 날짜별 {date, totalSales, topMenu}
      */
-    public synchronized List<Map<String, Object>> getMenuSalesTableByDateRange(String start, String end) {
+    public List<Map<String, Object>> getMenuSalesTableByDateRange(String start, String end) {
+        return salesTable(getMenuOrdersByDate(start, end), start, end);
+    }
+
+    private static List<Map<String, Object>> salesTable(Map<LocalDate, List<MenuOrder>> ordersByDate, String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        Map<LocalDate, Integer> salesByDate = getMenuTotalSalesByDate();
-        Map<LocalDate, Map<String, Integer>> countByDate = getMenuSalesCountByDate();
+        Map<LocalDate, Integer> salesByDate = totalSales(ordersByDate);
+        Map<LocalDate, Map<String, Integer>> countByDate = salesCount(ordersByDate);
         List<Map<String, Object>> table = new ArrayList<>();
         
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
@@ -191,33 +220,28 @@ public class ReportService {
      * - 지정 기간(start~end) 동안 날짜별, 객실타입별(스탠다드/디럭스/스위트) 점유율과 전체 평균을 계산
      * - ReservationStatus가 Confirmed인 예약만 집계
      * - 각 날짜별로 해당 타입 객실 중 예약된 객실 수/전체 객실 수로 점유율 산출
+     *   (같은 객실에 예약이 겹쳐도 1실로 셈)
      * - 응답 포맷: PAST_OCCUPANCY:평균점유율|날짜,스탠다드,디럭스,스위트,평균;...
      */
-    public synchronized String handlePastOccupancyRequest(String start, String end) {
+    public String handlePastOccupancyRequest(String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        List<Room> rooms = roomRepository.findAll();
-        List<Reservation> reservations = reservationRepository.findConfirmedInPeriod(start, end);
+        List<Room> rooms = roomRepository.snapshot().items();
+        List<List<String>> groups = roomGroupsByType(rooms);
+        // 날짜별, 타입별 예약된 객실 수 (예약 사본의 점유 비트셋에서 바로 셈)
+        int[][] booked = reservationRepository.snapshot().countConfirmedRooms(startDate, endDate, groups);
         
         // 날짜별, 타입별 점유율 집계
         List<String> dateRows = new ArrayList<>();
         double sumAll = 0;
         int dayCount = 0;
-        int stdTotal = (int) rooms.stream().filter(r -> r.getType().equals("Standard")).count(); // 스탠다드 객실 수
-        int dlxTotal = (int) rooms.stream().filter(r -> r.getType().equals("Deluxe")).count();   // 디럭스 객실 수
-        int steTotal = (int) rooms.stream().filter(r -> r.getType().equals("Suite")).count();    // 스위트 객실 수
+        int stdTotal = groups.get(0).size(); // 스탠다드 객실 수
+        int dlxTotal = groups.get(1).size(); // 디럭스 객실 수
+        int steTotal = groups.get(2).size(); // 스위트 객실 수
         
         for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            int std = 0, dlx = 0, ste = 0;
-            // 해당 날짜에 예약된 객실을 타입별로 카운트
-            for (Reservation r : reservations) {
-                if (!d.isBefore(LocalDate.parse(r.getCheckInDate())) && !d.isAfter(LocalDate.parse(r.getCheckOutDate()))) {
-                    String type = rooms.stream().filter(room -> room.getRoomNumber().equals(r.getRoomNumber())).map(Room::getType).findFirst().orElse("");
-                    if (type.equals("Standard")) std++;
-                    else if (type.equals("Deluxe")) dlx++;
-                    else if (type.equals("Suite")) ste++;
-                }
-            }
+            int[] day = booked[dayCount];
+            int std = day[0], dlx = day[1], ste = day[2];
             // 타입별 점유율(%) 계산
             double stdRate = stdTotal > 0 ? std * 100.0 / stdTotal : 0.0;
             double dlxRate = dlxTotal > 0 ? dlx * 100.0 / dlxTotal : 0.0;
@@ -245,7 +269,7 @@ public class ReportService {
      * - 각 객실별로 객실번호, 예약ID, 체크인/체크아웃, 투숙인원 반환
      * - 응답 포맷: CURRENT_OCCUPANCY:roomNumber,guestId,checkIn,checkOut,guestNum;...
      */
-    public synchronized String handleCurrentOccupancyRequest() {
+    public String handleCurrentOccupancyRequest() {
         List<Map<String, Object>> rows = getCurrentOccupancyReport();
         List<String> out = new ArrayList<>();
         for (Map<String, Object> row : rows) {
@@ -261,17 +285,18 @@ public class ReportService {
      * - 예약이 없는 날짜는 방학 시즌(7~9월, 1~3월)엔 40~80%, 그 외엔 10~30% 랜덤 점유율 생성
      * - 응답 포맷: FUTURE_OCCUPANCY:평균점유율|날짜,스탠다드,디럭스,스위트,평균;...
      */
-    public synchronized String handleFutureOccupancyRequest(String start, String end) {
+    public String handleFutureOccupancyRequest(String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        List<Room> rooms = roomRepository.findAll();
-        Map<String, String> roomTypeMap = new HashMap<>();
-        for (Room r : rooms) roomTypeMap.put(r.getRoomNumber(), r.getType());
-        
-        List<Reservation> allConfirmed = reservationRepository.findConfirmedInPeriod(start, end);
-        int stdTotal = (int) rooms.stream().filter(r -> r.getType().equals("Standard")).count();
-        int dlxTotal = (int) rooms.stream().filter(r -> r.getType().equals("Deluxe")).count();
-        int steTotal = (int) rooms.stream().filter(r -> r.getType().equals("Suite")).count();
+        List<Room> rooms = roomRepository.snapshot().items();
+        List<List<String>> groups = roomGroupsByType(rooms);
+        List<String> allRooms = new ArrayList<>();
+        for (Room r : rooms) allRooms.add(r.getRoomNumber());
+        groups.add(allRooms);
+        int[][] booked = reservationRepository.snapshot().countConfirmedRooms(startDate, endDate, groups);
+        int stdTotal = groups.get(0).size();
+        int dlxTotal = groups.get(1).size();
+        int steTotal = groups.get(2).size();
         
         double sumAll = 0;
         int dayCount = 0;
@@ -282,27 +307,10 @@ public class ReportService {
         
         // 미래 점유율 예측: 실제 예약이 없는 날짜는 랜덤값, 방학 시즌은 높은 점유율로 생성
         for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            int std = 0, dlx = 0, ste = 0;
-            boolean hasReservation = false;
-            
             // 1. 실제 예약(Confirmed)이 있는 객실은 실제 데이터로 집계
-            for (Room r : rooms) {
-                String type = r.getType();
-                String roomNum = r.getRoomNumber();
-                for (Reservation res : allConfirmed) {
-                    if (!roomNum.equals(res.getRoomNumber())) continue;
-                    LocalDate in = LocalDate.parse(res.getCheckInDate());
-                    LocalDate out = LocalDate.parse(res.getCheckOutDate());
-                    if (!d.isBefore(in) && !d.isAfter(out)) {
-                        hasReservation = true; // 이 날짜에 실제 예약 있음
-                        // 타입별 카운트
-                        if (type.equals("Standard")) std++;
-                        else if (type.equals("Deluxe")) dlx++;
-                        else if (type.equals("Suite")) ste++;
-                        break;
-                    }
-                }
-            }
+            int[] day = booked[dayCount];
+            int std = day[0], dlx = day[1], ste = day[2];
+            boolean hasReservation = day[3] > 0; // 이 날짜에 실제 예약 있음
             
             // 2. 실제 예약이 없는 날은 랜덤 점유율 생성
             double stdRate, dlxRate, steRate, avg;
@@ -343,15 +351,30 @@ public class ReportService {
         return "FUTURE_OCCUPANCY:" + String.format("%.2f", avgAll) + "|" + String.join(";", dateRows);
     }
 
+    // 객실번호 목록을 타입별로 묶음: [스탠다드, 디럭스, 스위트]
+    private static List<List<String>> roomGroupsByType(List<Room> rooms) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> std = new ArrayList<>(), dlx = new ArrayList<>(), ste = new ArrayList<>();
+        for (Room r : rooms) {
+            if (r.getType().equals("Standard")) std.add(r.getRoomNumber());
+            else if (r.getType().equals("Deluxe")) dlx.add(r.getRoomNumber());
+            else if (r.getType().equals("Suite")) ste.add(r.getRoomNumber());
+        }
+        groups.add(std);
+        groups.add(dlx);
+        groups.add(ste);
+        return groups;
+    }
+
     /**
      * 과거 점유율 보고서: 각 객실별로 지정 기간 내 점유율(Confirmed 예약 기준) 계산
      * @param start 시작일 (포함)
      * @param end 종료일 (포함)
      * @return List<Map<String, Object>>: roomNumber, totalDays, reservedDays, occupancyRate(%)
      */
-    public synchronized List<Map<String, Object>> getPastOccupancyReport(LocalDate start, LocalDate end) {
-        List<Room> rooms = roomRepository.findAll();
-        List<Reservation> reservations = reservationRepository.findConfirmedInPeriod(start.toString(), end.toString());
+    public List<Map<String, Object>> getPastOccupancyReport(LocalDate start, LocalDate end) {
+        List<Room> rooms = roomRepository.snapshot().items();
+        List<Reservation> reservations = reservationRepository.snapshot().findConfirmedInPeriod(start.toString(), end.toString());
         long totalDays = end.toEpochDay() - start.toEpochDay() + 1;
         List<Map<String, Object>> report = new ArrayList<>();
         
@@ -384,9 +407,9 @@ public class ReportService {
      * 현재 점유율 보고서: 오늘 날짜 기준 투숙 중인 Confirmed 예약 정보 표 반환
      * @return List<Map<String, Object>>: roomNumber, guestId, checkIn, checkOut, guestNum
      */
-    public synchronized List<Map<String, Object>> getCurrentOccupancyReport() {
+    public List<Map<String, Object>> getCurrentOccupancyReport() {
         LocalDate today = LocalDate.now();
-        List<Reservation> reservations = reservationRepository.findConfirmedToday(today.toString());
+        List<Reservation> reservations = reservationRepository.snapshot().findConfirmedOnDate(today.toString());
         List<Map<String, Object>> report = new ArrayList<>();
         for (Reservation r : reservations) {
             Map<String, Object> row = new LinkedHashMap<>();
@@ -405,14 +428,14 @@ public class ReportService {
      * @param targetDate 예측할 날짜
      * @return List<Map<String, Object>>: roomNumber, predictedOccupancyRate(%)
      */
-    public synchronized List<Map<String, Object>> getFutureOccupancyPrediction(LocalDate targetDate) {
-        List<Room> rooms = roomRepository.findAll();
+    public List<Map<String, Object>> getFutureOccupancyPrediction(LocalDate targetDate) {
+        List<Room> rooms = roomRepository.snapshot().items();
         // 과거 4주간 동일 요일 데이터로 예측
         List<LocalDate> pastDates = new ArrayList<>();
         for (int i = 1; i <= 4; i++) {
             pastDates.add(targetDate.minusWeeks(i));
         }
-        List<Reservation> allConfirmed = reservationRepository.findAll();
+        List<Reservation> allConfirmed = reservationRepository.snapshot().reservations();
         List<Map<String, Object>> report = new ArrayList<>();
         
         for (Room room : rooms) {
@@ -0,0 +1,81 @@
+package server.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+import server.metrics.LatencyHistogram;
+import server.metrics.Metrics;
+
+/**
+ *  키(객실번호, 예약번호)별 잠금: 키를 해시해서 고정된 수의 잠금(stripe) 중 하나를 씀
+ *  - 서로 다른 키는 대부분 다른 잠금이라 다른 객실/예약의 작업은 함께 실행됨
+ *    (같은 잠금에 걸리는 다른 키는 순서대로 실행될 뿐 결과는 같음)
+ *  - 여러 키를 잡을 때는 잠금 번호 오름차순으로 잡아서, 같은 묶음의 잠금끼리는 서로 기다리며 멈추지 않음
+ *  - ReentrantLock이라 이미 가진 잠금을 다시 잡아도 됨 (BATCH 안의 하위 명령)
+ *  - 잠금 대기 시간을 Metrics에 기록
+ * <pre>
+ *  try (StripedLocks.Held held = locks.lock(key)) {
+ *      ...
+ *  }
+ * </pre>
+ * @author user
+ */
+final class StripedLocks {
+
+    /** 잡은 잠금 (close로 잡은 반대 순서로 풂) */
+    interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Held NONE = () -> {};
+
+    private final ReentrantLock[] stripes;
+    private final LatencyHistogram waitTime;
+
+    /**
+     * @param stripes 잠금 수 (2의 거듭제곱)
+     * @param metric 잠금 대기 시간 지표 이름
+     */
+    StripedLocks(int stripes, String metric) {
+        if (Integer.bitCount(stripes) != 1) throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock();
+        this.waitTime = Metrics.timer(metric);
+    }
+
+    /** key의 잠금 (key가 null이면 아무것도 잡지 않음) */
+    Held lock(String key) {
+        if (key == null) return NONE;
+        return lockStripes(new int[] { stripeOf(key) });
+    }
+
+    /** 여러 키의 잠금을 잠금 번호 오름차순으로 (같은 잠금은 한 번만) */
+    Held lock(Collection<String> keys) {
+        int[] indexes = keys.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        return lockStripes(indexes);
+    }
+
+    /** 모든 잠금 (키를 미리 알 수 없는 작업) */
+    Held lockAll() {
+        int[] indexes = new int[stripes.length];
+        Arrays.setAll(indexes, i -> i);
+        return lockStripes(indexes);
+    }
+
+    private int stripeOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    // indexes는 오름차순
+    private Held lockStripes(int[] indexes) {
+        long start = System.nanoTime();
+        for (int i : indexes) stripes[i].lock();
+        waitTime.recordSince(start);
+        return () -> {
+            for (int k = indexes.length - 1; k >= 0; k--) stripes[indexes[k]].unlock();
+        };
+    }
+}